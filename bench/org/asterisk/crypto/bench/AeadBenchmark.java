@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.bench;
+
+import java.lang.foreign.MemorySegment;
+import java.util.concurrent.TimeUnit;
+import org.asterisk.crypto.AuthenticatedCipher;
+import org.asterisk.crypto.SimpleAead;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Throughput of one-shot authenticated encryption with every registered
+ * {@link AuthenticatedCipher} and one-shot {@link SimpleAead}, with an empty
+ * associated data
+ *
+ * @author Sayantan Chakraborty
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class AeadBenchmark {
+
+    private static final MemorySegment NO_AAD = MemorySegment.ofArray(new byte[0]);
+
+    @Param({"ChaChaPoly1305.CHACHA20_POLY1305"})
+    public String aeadAlgorithm;
+
+    private SimpleAead aead;
+    private byte[] key, iv, tag;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        aead = Algorithms.lookup(Algorithms.aeads(), aeadAlgorithm);
+        key = Payload.randomBytes(aead.keyLength());
+        iv = Payload.randomBytes(aead.ivLength());
+        tag = new byte[aead.tagLength()];
+    }
+
+    @Benchmark
+    public long encrypt(Payload payload) {
+        return aead.encrypt(key, iv, NO_AAD, payload.input, payload.output, tag, 0, tag.length);
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.bench;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.asterisk.crypto.AuthenticatedCipher;
+import org.asterisk.crypto.Cipher;
+import org.asterisk.crypto.Digest;
+import org.asterisk.crypto.Mac;
+import org.asterisk.crypto.SimpleAead;
+import org.asterisk.crypto.StreamCipher;
+import org.asterisk.crypto.aead.*;
+import org.asterisk.crypto.cipher.*;
+import org.asterisk.crypto.hash.*;
+import org.asterisk.crypto.mac.*;
+import org.asterisk.crypto.stream.*;
+
+/**
+ * Registry of every algorithm the benchmarks run against.
+ * <p>
+ * Enum constants and {@code public static final} instances are discovered
+ * reflectively from the classes listed in {@link #SOURCES}, so a new constant
+ * added to any of those classes is benchmarked without touching this file.
+ * Algorithms that only exist behind factory methods or constructors are
+ * registered explicitly with their most common parameters.
+ * <p>
+ * One-shot AEADs ({@link SimpleAead}) are benchmarked with the
+ * {@link AuthenticatedCipher}s, and block cipher modes ({@link Cipher}s that
+ * aren't stream ciphers) on their own.
+ * <p>
+ * Every algorithm is keyed by {@code SimpleClassName.CONSTANT}, which is the
+ * value passed to the {@code *Algorithm} parameter of the benchmarks
+ *
+ * @author Sayantan Chakraborty
+ */
+public final class Algorithms {
+
+    private static final List<Class<?>> SOURCES = List.of(
+            //hash
+            AsconHash.class, AsconXof.class, Blake2b.class, Blake2s.class, Blake3.class,
+            Groestl.class, Jh.class, KangarooTwelve.class, MarsupilamiFourteen.class,
+            Sha2.class, Sha3.class, Shake.class,
+            //mac
+            AesCmac.class, Kravatte.class, Poly1305.class, SipHash.class,
+            //stream
+            AesCtr.class, ChaCha.class, Hc128.class, Hc256.class, KravatteStream.class, Rabbit.class, Salsa20.class,
+            Snow3g.class, SnowV.class, Sosemanuk.class, XChaCha.class, XSalsa20.class, Zuc.class,
+            //block cipher modes
+            AesCbc.class, AesCfb.class,
+            //aead
+            Acorn.class, Aegis.class, AesCloc.class, AesJambu.class, AesOtr.class,
+            AesGcm.class, AesGcmSiv.class, AesSilc.class, Ascon.class, ChaChaPoly1305.class, Colm0.class,
+            DeoxysAE1.class, DeoxysAE2.class, DeoxysI.class, DeoxysII.class, Ketje.class, KravatteSane.class,
+            Rocca.class, Tiaoxin.class
+    );
+
+    private static final Map<String, Digest> DIGESTS = new LinkedHashMap<>();
+    private static final Map<String, Mac> MACS = new LinkedHashMap<>();
+    private static final Map<String, StreamCipher> STREAM_CIPHERS = new LinkedHashMap<>();
+    private static final Map<String, Cipher> CIPHERS = new LinkedHashMap<>();
+    private static final Map<String, SimpleAead> AEADS = new LinkedHashMap<>();
+
+    static {
+        for (var source : SOURCES) {
+            for (Field field : source.getFields()) {
+                int mod = field.getModifiers();
+                if (Modifier.isStatic(mod) && Modifier.isFinal(mod)) {
+                    try {
+                        register(source.getSimpleName() + "." + field.getName(), field.get(null));
+                    } catch (IllegalAccessException ex) {
+                        throw new ExceptionInInitializerError(ex);
+                    }
+                }
+            }
+        }
+
+        register("Skein.SKEIN_256_256", Skein.skein256(256));
+        register("Skein.SKEIN_512_512", Skein.skein512(512));
+        register("Skein.SKEIN_1024_1024", Skein.skein1024(1024));
+        register("ParallelHash128.DEFAULT", new ParallelHash128("", 8192));
+        register("ParallelHash256.DEFAULT", new ParallelHash256("", 8192));
+
+        register("Hmac.HMAC_SHA_256", Hmac.hmac(Sha2.SHA_256));
+        register("Hmac.HMAC_SHA_512", Hmac.hmac(Sha2.SHA_512));
+        register("Hmac.HMAC_SHA3_256", Hmac.hmac(Sha3.SHA3_256));
+
+        register("AesOcb.AES_128_OCB", AesOcb.aes128_ocb(16));
+        register("AesOcb.AES_192_OCB", AesOcb.aes192_ocb(16));
+        register("AesOcb.AES_256_OCB", AesOcb.aes256_ocb(16));
+        register("Norx32.NORX32_4_1", new Norx32(4, 1));
+        register("Norx32.NORX32_4_4", new Norx32(4, 4));
+        register("Norx64.NORX64_4_1", new Norx64(4, 1));
+        register("Norx64.NORX64_4_4", new Norx64(4, 4));
+    }
+
+    private static void register(String name, Object algorithm) {
+        if (algorithm instanceof Digest digest) {
+            DIGESTS.put(name, digest);
+        }
+        if (algorithm instanceof Mac mac) {
+            MACS.put(name, mac);
+        }
+        if (algorithm instanceof StreamCipher cipher) {
+            STREAM_CIPHERS.put(name, cipher);
+        } else if (algorithm instanceof Cipher cipher) {
+            CIPHERS.put(name, cipher);
+        }
+        if (algorithm instanceof SimpleAead aead) {
+            AEADS.put(name, aead);
+        }
+    }
+
+    public static Map<String, Digest> digests() {
+        return Collections.unmodifiableMap(DIGESTS);
+    }
+
+    public static Map<String, Mac> macs() {
+        return Collections.unmodifiableMap(MACS);
+    }
+
+    public static Map<String, StreamCipher> streamCiphers() {
+        return Collections.unmodifiableMap(STREAM_CIPHERS);
+    }
+
+    public static Map<String, Cipher> ciphers() {
+        return Collections.unmodifiableMap(CIPHERS);
+    }
+
+    public static Map<String, SimpleAead> aeads() {
+        return Collections.unmodifiableMap(AEADS);
+    }
+
+    static <T> T lookup(Map<String, T> map, String name) {
+        var ret = map.get(name);
+        if (ret == null) {
+            throw new IllegalArgumentException("Unknown algorithm " + name + ", expected one of " + map.keySet());
+        }
+        return ret;
+    }
+
+    private Algorithms() {
+    }
+
+}
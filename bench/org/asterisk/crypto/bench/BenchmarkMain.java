@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.bench;
+
+import java.util.Map;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark in this package over every algorithm in
+ * {@link Algorithms} and writes the results as JSON.
+ * <p>
+ * All the usual JMH command line options are accepted and take precedence,
+ * so for example {@code -p digestAlgorithm=Sha2.SHA_256,Blake3.BLAKE3} or a
+ * benchmark regex restricts the run. Unless {@code -rff} is given the results
+ * go to {@value #DEFAULT_RESULT_FILE}
+ *
+ * @author Sayantan Chakraborty
+ */
+public class BenchmarkMain {
+
+    public static final String DEFAULT_RESULT_FILE = "build/bench/results.json";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        var commandLine = new CommandLineOptions(args);
+        var options = new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(commandLine.getResult().orElse(DEFAULT_RESULT_FILE));
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(BenchmarkMain.class.getPackageName() + ".*Benchmark");
+        }
+        param(options, commandLine, "digestAlgorithm", Algorithms.digests());
+        param(options, commandLine, "macAlgorithm", Algorithms.macs());
+        param(options, commandLine, "streamCipherAlgorithm", Algorithms.streamCiphers());
+        param(options, commandLine, "cipherAlgorithm", Algorithms.ciphers());
+        param(options, commandLine, "aeadAlgorithm", Algorithms.aeads());
+        new Runner(options.build()).run();
+    }
+
+    private static void param(ChainedOptionsBuilder options, CommandLineOptions commandLine, String name, Map<String, ?> algorithms) {
+        if (commandLine.getParameter(name).hasValue()) {
+            return;
+        }
+        options.param(name, algorithms.keySet().toArray(String[]::new));
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.asterisk.crypto.Digest;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Throughput of one-shot hashing with every registered {@link Digest}
+ *
+ * @author Sayantan Chakraborty
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class DigestBenchmark {
+
+    @Param({"Sha2.SHA_256"})
+    public String digestAlgorithm;
+
+    private Digest digest;
+    private byte[] out;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        digest = Algorithms.lookup(Algorithms.digests(), digestAlgorithm);
+        out = new byte[digest.digestSize()];
+    }
+
+    @Benchmark
+    public byte[] digest(Payload payload) {
+        var engine = digest.start();
+        engine.ingest(payload.input);
+        engine.digestTo(out);
+        return out;
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.asterisk.crypto.Mac;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Throughput of one-shot authentication with every registered {@link Mac},
+ * including the cost of keying
+ *
+ * @author Sayantan Chakraborty
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class MacBenchmark {
+
+    @Param({"Poly1305.POLY1305"})
+    public String macAlgorithm;
+
+    private Mac mac;
+    private byte[] key, tag;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mac = Algorithms.lookup(Algorithms.macs(), macAlgorithm);
+        key = Payload.randomBytes(mac.keyLength());
+        tag = new byte[mac.tagLength()];
+    }
+
+    @Benchmark
+    public byte[] authenticate(Payload payload) {
+        var engine = mac.start(key);
+        engine.ingest(payload.input);
+        engine.authenticateTo(tag);
+        return tag;
+    }
+
+}
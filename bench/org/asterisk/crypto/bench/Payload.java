@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.bench;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentScope;
+import java.lang.foreign.ValueLayout;
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The message every benchmark processes, in all the sizes and memory kinds
+ * being measured
+ *
+ * @author Sayantan Chakraborty
+ */
+@State(Scope.Thread)
+public class Payload {
+
+    /**
+     * the headroom left in the output segment for block ciphers and AEADs that
+     * expand their input
+     */
+    private static final int SLACK = 64;
+
+    @Param({"16", "64", "1024", "16384", "1048576"})
+    public int size;
+
+    /**
+     * {@code heap} backs the segments with a byte[], {@code native} allocates
+     * them off-heap
+     */
+    @Param({"heap", "native"})
+    public String memory;
+
+    public MemorySegment input, output;
+
+    @Setup(Level.Trial)
+    public void allocate() {
+        input = allocate(size);
+        output = allocate(size + SLACK);
+        var random = ThreadLocalRandom.current();
+        for (long i = 0; i < size; i++) {
+            input.set(ValueLayout.JAVA_BYTE, i, (byte) random.nextInt());
+        }
+    }
+
+    private MemorySegment allocate(long length) {
+        return switch (memory) {
+            case "heap" ->
+                MemorySegment.ofArray(new byte[(int) length]);
+            case "native" ->
+                MemorySegment.allocateNative(length, SegmentScope.auto());
+            default ->
+                throw new IllegalArgumentException("Unknown memory kind " + memory);
+        };
+    }
+
+    static byte[] randomBytes(int length) {
+        var ret = new byte[length];
+        ThreadLocalRandom.current().nextBytes(ret);
+        return ret;
+    }
+
+}
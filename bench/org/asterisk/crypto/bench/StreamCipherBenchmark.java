@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.asterisk.crypto.StreamCipher;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Throughput of one-shot encryption with every registered
+ * {@link StreamCipher}, including the cost of key and iv setup
+ *
+ * @author Sayantan Chakraborty
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class StreamCipherBenchmark {
+
+    @Param({"ChaCha.CHACHA20"})
+    public String streamCipherAlgorithm;
+
+    private StreamCipher cipher;
+    private byte[] key, iv;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cipher = Algorithms.lookup(Algorithms.streamCiphers(), streamCipherAlgorithm);
+        key = Payload.randomBytes(cipher.keyLength());
+        iv = Payload.randomBytes(cipher.ivLength());
+    }
+
+    @Benchmark
+    public long encrypt(Payload payload) {
+        var engine = cipher.startEncryption(key, iv);
+        long written = engine.encrypt(payload.input, payload.output);
+        return written + engine.finish(payload.output.asSlice(written));
+    }
+
+}
@@ -4,8 +4,11 @@
  */
 
 module org.asterisk.crypto {
+    requires static jdk.incubator.vector;
+
     exports org.asterisk.crypto;
     exports org.asterisk.crypto.aead;
+    exports org.asterisk.crypto.cipher;
     exports org.asterisk.crypto.hash;
     exports org.asterisk.crypto.mac;
     exports org.asterisk.crypto.stream;
@@ -16,7 +16,15 @@ public interface AuthenticatedCipher extends SimpleAead {
 
     @Override
     default long encrypt(byte[] key, byte[] iv, MemorySegment aad, MemorySegment plaintext, MemorySegment ciphertext, byte[] tag, int tOffset, int tLength) {
-        var encrypter = startEncryption(key, iv);
+        return encrypt(startEncryption(key, iv), aad, plaintext, ciphertext, tag, tOffset, tLength);
+    }
+
+    @Override
+    default long decrypt(byte[] key, byte[] iv, MemorySegment aad, MemorySegment ciphertext, MemorySegment plaintext, byte[] tag, int tOffset, int tLength) throws AEADBadTagException {
+        return decrypt(startDecryption(key, iv), aad, ciphertext, plaintext, tag, tOffset, tLength);
+    }
+
+    private static long encrypt(EncryptEngine encrypter, MemorySegment aad, MemorySegment plaintext, MemorySegment ciphertext, byte[] tag, int tOffset, int tLength) {
         encrypter.ingestAAD(aad);
         var offset = encrypter.encrypt(plaintext, ciphertext);
         offset += encrypter.finish(ciphertext.asSlice(offset));
@@ -24,9 +32,7 @@ public interface AuthenticatedCipher extends SimpleAead {
         return offset;
     }
 
-    @Override
-    default long decrypt(byte[] key, byte[] iv, MemorySegment aad, MemorySegment ciphertext, MemorySegment plaintext, byte[] tag, int tOffset, int tLength) throws AEADBadTagException {
-        var decrypter = startDecryption(key, iv);
+    private static long decrypt(DecryptEngine decrypter, MemorySegment aad, MemorySegment ciphertext, MemorySegment plaintext, byte[] tag, int tOffset, int tLength) throws AEADBadTagException {
         decrypter.ingestAAD(aad);
         var offset = decrypter.decrypt(ciphertext, plaintext);
         offset += decrypter.finish(plaintext.asSlice(offset));
@@ -165,4 +171,39 @@ public interface AuthenticatedCipher extends SimpleAead {
 
     }
 
+    /**
+     * A key of an authenticated cipher with its key schedule, and whatever
+     * else only depends on the key, already computed. Starting an engine from
+     * a key only does the per-message work, which pays off when many messages
+     * are encrypted under few keys.
+     * <p>
+     * A key is immutable and may be used to start any number of engines,
+     * concurrently
+     */
+    static interface Key {
+
+        EncryptEngine startEncryption(byte[] iv);
+
+        DecryptEngine startDecryption(byte[] iv);
+
+        default long encrypt(byte[] iv, MemorySegment aad, MemorySegment plaintext, MemorySegment ciphertext, byte[] tag, int tOffset, int tLength) {
+            return AuthenticatedCipher.encrypt(startEncryption(iv), aad, plaintext, ciphertext, tag, tOffset, tLength);
+        }
+
+        default int encrypt(byte[] iv, byte[] aad, byte[] plaintext, byte[] ciphertext, byte[] tag) {
+            return (int) encrypt(iv, MemorySegment.ofArray(aad), MemorySegment.ofArray(plaintext), MemorySegment.ofArray(ciphertext), tag, 0, getAlgorithm().tagLength());
+        }
+
+        default long decrypt(byte[] iv, MemorySegment aad, MemorySegment ciphertext, MemorySegment plaintext, byte[] tag, int tOffset, int tLength) throws AEADBadTagException {
+            return AuthenticatedCipher.decrypt(startDecryption(iv), aad, ciphertext, plaintext, tag, tOffset, tLength);
+        }
+
+        default int decrypt(byte[] iv, byte[] aad, byte[] ciphertext, byte[] plaintext, byte[] tag) throws AEADBadTagException {
+            return (int) decrypt(iv, MemorySegment.ofArray(aad), MemorySegment.ofArray(ciphertext), MemorySegment.ofArray(plaintext), tag, 0, getAlgorithm().tagLength());
+        }
+
+        AuthenticatedCipher getAlgorithm();
+
+    }
+
 }
@@ -18,7 +18,7 @@ public interface StreamCipher extends Cipher {
         return new DecryptEngine() {
             @Override
             public long decrypt(MemorySegment ciphertext, MemorySegment plaintext) {
-                return enc.encrypt(plaintext, ciphertext);
+                return enc.encrypt(ciphertext, plaintext);
             }
 
             @Override
@@ -62,17 +62,18 @@ public enum Aegis implements AuthenticatedCipher {
         public EncryptEngine startEncryption(byte[] key, byte[] iv) {
             return new AbstractAuthenticaterEngine(16) {
 
-                private final int[] state = initialize(key, iv);
+                private final int[] state = initialize(key, iv), words = new int[TILE_WORDS];
                 private long adlen = 0, msglen = 0;
 
                 @Override
                 protected void ingestOneBlock(MemorySegment aad, long offset) {
-                    stateUpdate128(state,
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 0),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 4),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 8),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 12));
-                    adlen += 128;
+                    ingestBlocks(aad, offset, 1);
+                }
+
+                @Override
+                protected void ingestBlocks(MemorySegment aad, long offset, long blocks) {
+                    ingest128(state, words, aad, offset, blocks);
+                    adlen += 128 * blocks;
                 }
 
                 @Override
@@ -92,20 +93,13 @@ public enum Aegis implements AuthenticatedCipher {
 
                 @Override
                 protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
-                    int p0 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 0),
-                            p1 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 4),
-                            p2 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 8),
-                            p3 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 12);
-
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 0, p0 ^ state[4] ^ state[16] ^ (state[8] & state[12]));
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 4, p1 ^ state[5] ^ state[17] ^ (state[9] & state[13]));
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 8, p2 ^ state[6] ^ state[18] ^ (state[10] & state[14]));
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 12, p3 ^ state[7] ^ state[19] ^ (state[11] & state[15]));
-
-                    stateUpdate128(state, p0, p1, p2, p3);
-
-                    msglen += 128;
+                    encryptBlocks(plaintext, pOffset, ciphertext, cOffset, 1);
+                }
 
+                @Override
+                protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+                    encrypt128(state, words, plaintext, pOffset, ciphertext, cOffset, blocks);
+                    msglen += 128 * blocks;
                 }
 
                 @Override
@@ -172,17 +166,18 @@ public enum Aegis implements AuthenticatedCipher {
         public DecryptEngine startDecryption(byte[] key, byte[] iv) {
             return new AbstractVerifierEngine(16) {
 
-                private final int[] state = initialize(key, iv);
+                private final int[] state = initialize(key, iv), words = new int[TILE_WORDS];
                 private long adlen = 0, msglen = 0;
 
                 @Override
                 protected void ingestOneBlock(MemorySegment aad, long offset) {
-                    stateUpdate128(state,
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 0),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 4),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 8),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 12));
-                    adlen += 128;
+                    ingestBlocks(aad, offset, 1);
+                }
+
+                @Override
+                protected void ingestBlocks(MemorySegment aad, long offset, long blocks) {
+                    ingest128(state, words, aad, offset, blocks);
+                    adlen += 128 * blocks;
                 }
 
                 @Override
@@ -202,20 +197,13 @@ public enum Aegis implements AuthenticatedCipher {
 
                 @Override
                 protected void decryptOneBlock(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset) {
-                    int p0 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 0) ^ state[4] ^ state[16] ^ (state[8] & state[12]);
-                    int p1 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 4) ^ state[5] ^ state[17] ^ (state[9] & state[13]);
-                    int p2 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 8) ^ state[6] ^ state[18] ^ (state[10] & state[14]);
-                    int p3 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 12) ^ state[7] ^ state[19] ^ (state[11] & state[15]);
-
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 0, p0);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 4, p1);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 8, p2);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 12, p3);
-
-                    stateUpdate128(state, p0, p1, p2, p3);
-
-                    msglen += 128;
+                    decryptBlocks(ciphertext, cOffset, plaintext, pOffset, 1);
+                }
 
+                @Override
+                protected void decryptBlocks(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+                    decrypt128(state, words, ciphertext, cOffset, plaintext, pOffset, blocks);
+                    msglen += 128 * blocks;
                 }
 
                 @Override
@@ -342,17 +330,18 @@ public enum Aegis implements AuthenticatedCipher {
         public EncryptEngine startEncryption(byte[] key, byte[] iv) {
             return new AbstractAuthenticaterEngine(16) {
 
-                private final int[] state = initialize(key, iv);
+                private final int[] state = initialize(key, iv), words = new int[TILE_WORDS];
                 private long adlen = 0, msglen = 0;
 
                 @Override
                 protected void ingestOneBlock(MemorySegment aad, long offset) {
-                    stateUpdate256(state,
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 0),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 4),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 8),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 12));
-                    adlen += 128;
+                    ingestBlocks(aad, offset, 1);
+                }
+
+                @Override
+                protected void ingestBlocks(MemorySegment aad, long offset, long blocks) {
+                    ingest256(state, words, aad, offset, blocks);
+                    adlen += 128 * blocks;
                 }
 
                 @Override
@@ -372,19 +361,13 @@ public enum Aegis implements AuthenticatedCipher {
 
                 @Override
                 protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
-                    int p0 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 0),
-                            p1 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 4),
-                            p2 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 8),
-                            p3 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 12);
-
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 0, p0 ^ state[4] ^ state[16] ^ state[20] ^ (state[8] & state[12]));
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 4, p1 ^ state[5] ^ state[17] ^ state[21] ^ (state[9] & state[13]));
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 8, p2 ^ state[6] ^ state[18] ^ state[22] ^ (state[10] & state[14]));
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 12, p3 ^ state[7] ^ state[19] ^ state[23] ^ (state[11] & state[15]));
-
-                    stateUpdate256(state, p0, p1, p2, p3);
+                    encryptBlocks(plaintext, pOffset, ciphertext, cOffset, 1);
+                }
 
-                    msglen += 128;
+                @Override
+                protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+                    encrypt256(state, words, plaintext, pOffset, ciphertext, cOffset, blocks);
+                    msglen += 128 * blocks;
                 }
 
                 @Override
@@ -452,17 +435,18 @@ public enum Aegis implements AuthenticatedCipher {
         public DecryptEngine startDecryption(byte[] key, byte[] iv) {
             return new AbstractVerifierEngine(16) {
 
-                private final int[] state = initialize(key, iv);
+                private final int[] state = initialize(key, iv), words = new int[TILE_WORDS];
                 private long adlen = 0, msglen = 0;
 
                 @Override
                 protected void ingestOneBlock(MemorySegment aad, long offset) {
-                    stateUpdate256(state,
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 0),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 4),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 8),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 12));
-                    adlen += 128;
+                    ingestBlocks(aad, offset, 1);
+                }
+
+                @Override
+                protected void ingestBlocks(MemorySegment aad, long offset, long blocks) {
+                    ingest256(state, words, aad, offset, blocks);
+                    adlen += 128 * blocks;
                 }
 
                 @Override
@@ -482,19 +466,13 @@ public enum Aegis implements AuthenticatedCipher {
 
                 @Override
                 protected void decryptOneBlock(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset) {
-                    int p0 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 0) ^ state[4] ^ state[16] ^ state[20] ^ (state[8] & state[12]),
-                            p1 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 4) ^ state[5] ^ state[17] ^ state[21] ^ (state[9] & state[13]),
-                            p2 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 8) ^ state[6] ^ state[18] ^ state[22] ^ (state[10] & state[14]),
-                            p3 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 12) ^ state[7] ^ state[19] ^ state[23] ^ (state[11] & state[15]);
-
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 0, p0);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 4, p1);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 8, p2);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 12, p3);
-
-                    stateUpdate256(state, p0, p1, p2, p3);
+                    decryptBlocks(ciphertext, cOffset, plaintext, pOffset, 1);
+                }
 
-                    msglen += 128;
+                @Override
+                protected void decryptBlocks(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+                    decrypt256(state, words, ciphertext, cOffset, plaintext, pOffset, blocks);
+                    msglen += 128 * blocks;
                 }
 
                 @Override
@@ -613,22 +591,18 @@ public enum Aegis implements AuthenticatedCipher {
         public EncryptEngine startEncryption(byte[] key, byte[] iv) {
             return new AbstractAuthenticaterEngine(32) {
 
-                private final int[] state = initialize(key, iv);
+                private final int[] state = initialize(key, iv), words = new int[TILE_WORDS];
                 private long adlen = 0, msglen = 0;
 
                 @Override
                 protected void ingestOneBlock(MemorySegment aad, long offset) {
-                    stateUpdate128L(state,
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 0),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 4),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 8),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 12),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 16),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 20),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 24),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 28)
-                    );
-                    adlen += 256;
+                    ingestBlocks(aad, offset, 1);
+                }
+
+                @Override
+                protected void ingestBlocks(MemorySegment aad, long offset, long blocks) {
+                    ingest128L(state, words, aad, offset, blocks);
+                    adlen += 256 * blocks;
                 }
 
                 @Override
@@ -655,29 +629,13 @@ public enum Aegis implements AuthenticatedCipher {
 
                 @Override
                 protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
-                    int p0 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 0);
-                    int p1 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 4);
-                    int p2 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 8);
-                    int p3 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 12);
-                    int p4 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 16);
-                    int p5 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 20);
-                    int p6 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 24);
-                    int p7 = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 28);
-
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 0, p0 ^ state[4] ^ state[24] ^ (state[8] & state[12]));
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 4, p1 ^ state[5] ^ state[25] ^ (state[9] & state[13]));
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 8, p2 ^ state[6] ^ state[26] ^ (state[10] & state[14]));
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 12, p3 ^ state[7] ^ state[27] ^ (state[11] & state[15]));
-
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 16, p4 ^ state[8] ^ state[20] ^ (state[24] & state[28]));
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 20, p5 ^ state[9] ^ state[21] ^ (state[25] & state[29]));
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 24, p6 ^ state[10] ^ state[22] ^ (state[26] & state[30]));
-                    ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 28, p7 ^ state[11] ^ state[23] ^ (state[27] & state[31]));
-
-                    stateUpdate128L(state, p0, p1, p2, p3, p4, p5, p6, p7);
-
-                    msglen += 256;
+                    encryptBlocks(plaintext, pOffset, ciphertext, cOffset, 1);
+                }
 
+                @Override
+                protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+                    encrypt128L(state, words, plaintext, pOffset, ciphertext, cOffset, blocks);
+                    msglen += 256 * blocks;
                 }
 
                 @Override
@@ -752,22 +710,18 @@ public enum Aegis implements AuthenticatedCipher {
         public DecryptEngine startDecryption(byte[] key, byte[] iv) {
             return new AbstractVerifierEngine(32) {
 
-                private final int[] state = initialize(key, iv);
+                private final int[] state = initialize(key, iv), words = new int[TILE_WORDS];
                 private long adlen = 0, msglen = 0;
 
                 @Override
                 protected void ingestOneBlock(MemorySegment aad, long offset) {
-                    stateUpdate128L(state,
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 0),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 4),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 8),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 12),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 16),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 20),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 24),
-                            aad.get(BIG_ENDIAN_32_BIT, offset + 28)
-                    );
-                    adlen += 256;
+                    ingestBlocks(aad, offset, 1);
+                }
+
+                @Override
+                protected void ingestBlocks(MemorySegment aad, long offset, long blocks) {
+                    ingest128L(state, words, aad, offset, blocks);
+                    adlen += 256 * blocks;
                 }
 
                 @Override
@@ -794,29 +748,13 @@ public enum Aegis implements AuthenticatedCipher {
 
                 @Override
                 protected void decryptOneBlock(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset) {
-                    int p0 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 0) ^ state[4] ^ state[24] ^ (state[8] & state[12]);
-                    int p1 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 4) ^ state[5] ^ state[25] ^ (state[9] & state[13]);
-                    int p2 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 8) ^ state[6] ^ state[26] ^ (state[10] & state[14]);
-                    int p3 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 12) ^ state[7] ^ state[27] ^ (state[11] & state[15]);
-
-                    int p4 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 16) ^ state[8] ^ state[20] ^ (state[24] & state[28]);
-                    int p5 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 20) ^ state[9] ^ state[21] ^ (state[25] & state[29]);
-                    int p6 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 24) ^ state[10] ^ state[22] ^ (state[26] & state[30]);
-                    int p7 = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 28) ^ state[11] ^ state[23] ^ (state[27] & state[31]);
-
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 0, p0);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 4, p1);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 8, p2);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 12, p3);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 16, p4);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 20, p5);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 24, p6);
-                    plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 28, p7);
-
-                    stateUpdate128L(state, p0, p1, p2, p3, p4, p5, p6, p7);
-
-                    msglen += 256;
+                    decryptBlocks(ciphertext, cOffset, plaintext, pOffset, 1);
+                }
 
+                @Override
+                protected void decryptBlocks(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+                    decrypt128L(state, words, ciphertext, cOffset, plaintext, pOffset, blocks);
+                    msglen += 256 * blocks;
                 }
 
                 @Override
@@ -914,6 +852,202 @@ public enum Aegis implements AuthenticatedCipher {
         0xdb3d1855, 0x6dc22ff1, 0x20113142, 0x73b528dd
     };
 
+    //whole blocks are loaded into and stored from an int[] a tile at a time, with one bulk copy each way
+    private static final int TILE_WORDS = 256;
+
+    private static void ingest128(int[] state, int[] words, MemorySegment aad, long offset, long blocks) {
+        while (blocks > 0) {
+            int n = (int) Math.min(blocks, TILE_WORDS / 4);
+            MemorySegment.copy(aad, BIG_ENDIAN_32_BIT, offset, words, 0, 4 * n);
+            for (int i = 0; i < 4 * n; i += 4) {
+                stateUpdate128(state, words[i], words[i + 1], words[i + 2], words[i + 3]);
+            }
+            offset += 16L * n;
+            blocks -= n;
+        }
+    }
+
+    private static void encrypt128(int[] state, int[] words, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+        while (blocks > 0) {
+            int n = (int) Math.min(blocks, TILE_WORDS / 4);
+            MemorySegment.copy(plaintext, BIG_ENDIAN_32_BIT, pOffset, words, 0, 4 * n);
+            for (int i = 0; i < 4 * n; i += 4) {
+                int p0 = words[i];
+                int p1 = words[i + 1];
+                int p2 = words[i + 2];
+                int p3 = words[i + 3];
+                words[i] = p0 ^ state[4] ^ state[16] ^ (state[8] & state[12]);
+                words[i + 1] = p1 ^ state[5] ^ state[17] ^ (state[9] & state[13]);
+                words[i + 2] = p2 ^ state[6] ^ state[18] ^ (state[10] & state[14]);
+                words[i + 3] = p3 ^ state[7] ^ state[19] ^ (state[11] & state[15]);
+
+                stateUpdate128(state, p0, p1, p2, p3);
+            }
+            MemorySegment.copy(words, 0, ciphertext, BIG_ENDIAN_32_BIT, cOffset, 4 * n);
+            pOffset += 16L * n;
+            cOffset += 16L * n;
+            blocks -= n;
+        }
+    }
+
+    private static void decrypt128(int[] state, int[] words, MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+        while (blocks > 0) {
+            int n = (int) Math.min(blocks, TILE_WORDS / 4);
+            MemorySegment.copy(ciphertext, BIG_ENDIAN_32_BIT, cOffset, words, 0, 4 * n);
+            for (int i = 0; i < 4 * n; i += 4) {
+                int p0 = words[i] ^ state[4] ^ state[16] ^ (state[8] & state[12]);
+                int p1 = words[i + 1] ^ state[5] ^ state[17] ^ (state[9] & state[13]);
+                int p2 = words[i + 2] ^ state[6] ^ state[18] ^ (state[10] & state[14]);
+                int p3 = words[i + 3] ^ state[7] ^ state[19] ^ (state[11] & state[15]);
+
+                words[i] = p0;
+                words[i + 1] = p1;
+                words[i + 2] = p2;
+                words[i + 3] = p3;
+
+                stateUpdate128(state, p0, p1, p2, p3);
+            }
+            MemorySegment.copy(words, 0, plaintext, BIG_ENDIAN_32_BIT, pOffset, 4 * n);
+            cOffset += 16L * n;
+            pOffset += 16L * n;
+            blocks -= n;
+        }
+    }
+
+    private static void ingest256(int[] state, int[] words, MemorySegment aad, long offset, long blocks) {
+        while (blocks > 0) {
+            int n = (int) Math.min(blocks, TILE_WORDS / 4);
+            MemorySegment.copy(aad, BIG_ENDIAN_32_BIT, offset, words, 0, 4 * n);
+            for (int i = 0; i < 4 * n; i += 4) {
+                stateUpdate256(state, words[i], words[i + 1], words[i + 2], words[i + 3]);
+            }
+            offset += 16L * n;
+            blocks -= n;
+        }
+    }
+
+    private static void encrypt256(int[] state, int[] words, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+        while (blocks > 0) {
+            int n = (int) Math.min(blocks, TILE_WORDS / 4);
+            MemorySegment.copy(plaintext, BIG_ENDIAN_32_BIT, pOffset, words, 0, 4 * n);
+            for (int i = 0; i < 4 * n; i += 4) {
+                int p0 = words[i];
+                int p1 = words[i + 1];
+                int p2 = words[i + 2];
+                int p3 = words[i + 3];
+                words[i] = p0 ^ state[4] ^ state[16] ^ state[20] ^ (state[8] & state[12]);
+                words[i + 1] = p1 ^ state[5] ^ state[17] ^ state[21] ^ (state[9] & state[13]);
+                words[i + 2] = p2 ^ state[6] ^ state[18] ^ state[22] ^ (state[10] & state[14]);
+                words[i + 3] = p3 ^ state[7] ^ state[19] ^ state[23] ^ (state[11] & state[15]);
+
+                stateUpdate256(state, p0, p1, p2, p3);
+            }
+            MemorySegment.copy(words, 0, ciphertext, BIG_ENDIAN_32_BIT, cOffset, 4 * n);
+            pOffset += 16L * n;
+            cOffset += 16L * n;
+            blocks -= n;
+        }
+    }
+
+    private static void decrypt256(int[] state, int[] words, MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+        while (blocks > 0) {
+            int n = (int) Math.min(blocks, TILE_WORDS / 4);
+            MemorySegment.copy(ciphertext, BIG_ENDIAN_32_BIT, cOffset, words, 0, 4 * n);
+            for (int i = 0; i < 4 * n; i += 4) {
+                int p0 = words[i] ^ state[4] ^ state[16] ^ state[20] ^ (state[8] & state[12]);
+                int p1 = words[i + 1] ^ state[5] ^ state[17] ^ state[21] ^ (state[9] & state[13]);
+                int p2 = words[i + 2] ^ state[6] ^ state[18] ^ state[22] ^ (state[10] & state[14]);
+                int p3 = words[i + 3] ^ state[7] ^ state[19] ^ state[23] ^ (state[11] & state[15]);
+
+                words[i] = p0;
+                words[i + 1] = p1;
+                words[i + 2] = p2;
+                words[i + 3] = p3;
+
+                stateUpdate256(state, p0, p1, p2, p3);
+            }
+            MemorySegment.copy(words, 0, plaintext, BIG_ENDIAN_32_BIT, pOffset, 4 * n);
+            cOffset += 16L * n;
+            pOffset += 16L * n;
+            blocks -= n;
+        }
+    }
+
+    private static void ingest128L(int[] state, int[] words, MemorySegment aad, long offset, long blocks) {
+        while (blocks > 0) {
+            int n = (int) Math.min(blocks, TILE_WORDS / 8);
+            MemorySegment.copy(aad, BIG_ENDIAN_32_BIT, offset, words, 0, 8 * n);
+            for (int i = 0; i < 8 * n; i += 8) {
+                stateUpdate128L(state, words[i], words[i + 1], words[i + 2], words[i + 3], words[i + 4], words[i + 5], words[i + 6], words[i + 7]);
+            }
+            offset += 32L * n;
+            blocks -= n;
+        }
+    }
+
+    private static void encrypt128L(int[] state, int[] words, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+        while (blocks > 0) {
+            int n = (int) Math.min(blocks, TILE_WORDS / 8);
+            MemorySegment.copy(plaintext, BIG_ENDIAN_32_BIT, pOffset, words, 0, 8 * n);
+            for (int i = 0; i < 8 * n; i += 8) {
+                int p0 = words[i];
+                int p1 = words[i + 1];
+                int p2 = words[i + 2];
+                int p3 = words[i + 3];
+                int p4 = words[i + 4];
+                int p5 = words[i + 5];
+                int p6 = words[i + 6];
+                int p7 = words[i + 7];
+                words[i] = p0 ^ state[4] ^ state[24] ^ (state[8] & state[12]);
+                words[i + 1] = p1 ^ state[5] ^ state[25] ^ (state[9] & state[13]);
+                words[i + 2] = p2 ^ state[6] ^ state[26] ^ (state[10] & state[14]);
+                words[i + 3] = p3 ^ state[7] ^ state[27] ^ (state[11] & state[15]);
+                words[i + 4] = p4 ^ state[8] ^ state[20] ^ (state[24] & state[28]);
+                words[i + 5] = p5 ^ state[9] ^ state[21] ^ (state[25] & state[29]);
+                words[i + 6] = p6 ^ state[10] ^ state[22] ^ (state[26] & state[30]);
+                words[i + 7] = p7 ^ state[11] ^ state[23] ^ (state[27] & state[31]);
+
+                stateUpdate128L(state, p0, p1, p2, p3, p4, p5, p6, p7);
+            }
+            MemorySegment.copy(words, 0, ciphertext, BIG_ENDIAN_32_BIT, cOffset, 8 * n);
+            pOffset += 32L * n;
+            cOffset += 32L * n;
+            blocks -= n;
+        }
+    }
+
+    private static void decrypt128L(int[] state, int[] words, MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+        while (blocks > 0) {
+            int n = (int) Math.min(blocks, TILE_WORDS / 8);
+            MemorySegment.copy(ciphertext, BIG_ENDIAN_32_BIT, cOffset, words, 0, 8 * n);
+            for (int i = 0; i < 8 * n; i += 8) {
+                int p0 = words[i] ^ state[4] ^ state[24] ^ (state[8] & state[12]);
+                int p1 = words[i + 1] ^ state[5] ^ state[25] ^ (state[9] & state[13]);
+                int p2 = words[i + 2] ^ state[6] ^ state[26] ^ (state[10] & state[14]);
+                int p3 = words[i + 3] ^ state[7] ^ state[27] ^ (state[11] & state[15]);
+                int p4 = words[i + 4] ^ state[8] ^ state[20] ^ (state[24] & state[28]);
+                int p5 = words[i + 5] ^ state[9] ^ state[21] ^ (state[25] & state[29]);
+                int p6 = words[i + 6] ^ state[10] ^ state[22] ^ (state[26] & state[30]);
+                int p7 = words[i + 7] ^ state[11] ^ state[23] ^ (state[27] & state[31]);
+
+                words[i] = p0;
+                words[i + 1] = p1;
+                words[i + 2] = p2;
+                words[i + 3] = p3;
+                words[i + 4] = p4;
+                words[i + 5] = p5;
+                words[i + 6] = p6;
+                words[i + 7] = p7;
+
+                stateUpdate128L(state, p0, p1, p2, p3, p4, p5, p6, p7);
+            }
+            MemorySegment.copy(words, 0, plaintext, BIG_ENDIAN_32_BIT, pOffset, 8 * n);
+            cOffset += 32L * n;
+            pOffset += 32L * n;
+            blocks -= n;
+        }
+    }
+
     private static void stateUpdate128(int[] state, int m0, int m1, int m2, int m3) {
         int temp0 = state[16], temp1 = state[17], temp2 = state[18], temp3 = state[19];
         aesRound(state, 12, state, 16, state, 16);
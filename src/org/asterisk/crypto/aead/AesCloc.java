@@ -67,9 +67,44 @@ public enum AesCloc implements AuthenticatedCipher {
 
     @Override
     public EncryptEngine startEncryption(byte[] key, byte[] iv) {
-        return new AbstractAuthenticaterEngine(16) {
+        return startEncryption(new AesEncApi.Aes128EncApi(key), iv);
+    }
+
+    @Override
+    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
+        return startDecryption(new AesEncApi.Aes128EncApi(key), iv);
+    }
+
+    /**
+     * expands {@code key} once, returning a key object that starts engines
+     * without touching the key again
+     *
+     * @param key the key
+     *
+     * @return the expanded key
+     */
+    public Key withKey(byte[] key) {
+        var aes = new AesEncApi.Aes128EncApi(key);
+        return new Key() {
+            @Override
+            public EncryptEngine startEncryption(byte[] iv) {
+                return AesCloc.this.startEncryption(aes, iv);
+            }
 
-            private final AesEncApi.Aes128EncApi aes = new AesEncApi.Aes128EncApi(key);
+            @Override
+            public DecryptEngine startDecryption(byte[] iv) {
+                return AesCloc.this.startDecryption(aes, iv);
+            }
+
+            @Override
+            public AuthenticatedCipher getAlgorithm() {
+                return AesCloc.this;
+            }
+        };
+    }
+
+    private EncryptEngine startEncryption(AesEncApi aes, byte[] iv) {
+        return new AbstractAuthenticaterEngine(16) {
 
             private final int[] state = new int[4], checksum = new int[4];
 
@@ -200,12 +235,9 @@ public enum AesCloc implements AuthenticatedCipher {
         };
     }
 
-    @Override
-    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
+    private DecryptEngine startDecryption(AesEncApi aes, byte[] iv) {
         return new AbstractVerifierEngine(16) {
 
-            private final AesEncApi.Aes128EncApi aes = new AesEncApi.Aes128EncApi(key);
-
             private final int[] state = new int[4], checksum = new int[4], data = new int[4];
 
             private final int[] storednonce = {
@@ -0,0 +1,337 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.aead;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.function.Function;
+import org.asterisk.crypto.AuthenticatedCipher;
+import org.asterisk.crypto.helper.AbstractAuthenticaterEngine;
+import org.asterisk.crypto.helper.AbstractVerifierEngine;
+import org.asterisk.crypto.helper.GfHelper;
+import org.asterisk.crypto.helper.Tools;
+import org.asterisk.crypto.lowlevel.AesEncApi;
+
+import static org.asterisk.crypto.helper.Tools.load32BE;
+
+/**
+ * AES in Galois/Counter mode, as specified in NIST SP 800-38D.
+ * <p>
+ * A 12 byte iv is used as the initial counter block directly, ivs of any other
+ * (non-zero) length are hashed into it. Tags may be truncated.
+ * <p>
+ * GHASH multiplies 4 bits at a time with a 16 entry table of multiples of the
+ * hash key, built once per key, and the counter mode encrypts 4 blocks of
+ * keystream at once with their AES rounds interleaved
+ *
+ * @author Sayantan Chakraborty
+ */
+public enum AesGcm implements AuthenticatedCipher {
+
+    AES_128_GCM(16, AesEncApi.Aes128EncApi::new),
+    AES_192_GCM(24, AesEncApi.Aes192EncApi::new),
+    AES_256_GCM(32, AesEncApi.Aes256EncApi::new);
+
+    private static final ValueLayout.OfInt LAYOUT = Tools.BIG_ENDIAN_32_BIT;
+    private static final ValueLayout.OfLong LAYOUT_64 = Tools.BIG_ENDIAN_64_BIT;
+
+    //counter blocks encrypted per step
+    private static final int BLOCKS = 4;
+    private static final int STEP = 16 * BLOCKS;
+
+    private final int keyLength;
+    private final Function<byte[], AesEncApi> constructor;
+
+    private AesGcm(int keyLength, Function<byte[], AesEncApi> constructor) {
+        this.keyLength = keyLength;
+        this.constructor = constructor;
+    }
+
+    @Override
+    public EncryptEngine startEncryption(byte[] key, byte[] iv) {
+        return withKey(key).startEncryption(iv);
+    }
+
+    @Override
+    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
+        return withKey(key).startDecryption(iv);
+    }
+
+    /**
+     * expands {@code key} and builds its GHASH table once, returning a key
+     * object that starts engines without touching the key again
+     *
+     * @param key the key
+     *
+     * @return the expanded key
+     */
+    public Key withKey(byte[] key) {
+        if (key.length < keyLength) {
+            throw new IllegalArgumentException(this + " requires a key of " + keyLength + " bytes, passed only " + key.length + " bytes");
+        }
+        var aes = constructor.apply(key);
+        int[] h = new int[4];
+        aes.encryptBlock(h, 0, h, 0);
+        long[] table = GfHelper.ghashTable(Gcm.join(h[0], h[1]), Gcm.join(h[2], h[3]));
+
+        return new Key() {
+            @Override
+            public EncryptEngine startEncryption(byte[] iv) {
+                return encrypter(new Gcm(aes, table, iv));
+            }
+
+            @Override
+            public DecryptEngine startDecryption(byte[] iv) {
+                return decrypter(new Gcm(aes, table, iv));
+            }
+
+            @Override
+            public AuthenticatedCipher getAlgorithm() {
+                return AesGcm.this;
+            }
+        };
+    }
+
+    private EncryptEngine encrypter(Gcm gcm) {
+        return new AbstractAuthenticaterEngine(STEP, 16) {
+
+            @Override
+            protected void ingestOneBlock(MemorySegment aad, long offset) {
+                gcm.ingestAad(aad, offset);
+            }
+
+            @Override
+            protected void ingestLastBlock(MemorySegment aad, int length) {
+                gcm.ingestLastAad(aad, length);
+            }
+
+            @Override
+            protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
+                gcm.keystream(BLOCKS);
+                gcm.crypt(plaintext, pOffset, ciphertext, cOffset, BLOCKS);
+                gcm.ghash(ciphertext, cOffset, BLOCKS);
+                gcm.msgLength += STEP;
+            }
+
+            @Override
+            protected int encryptLastBlock(MemorySegment buffer, int length, MemorySegment ciphertext) {
+                if (length > 0) {
+                    int blocks = (length + 15) / 16;
+                    gcm.keystream(blocks);
+                    gcm.crypt(buffer, 0, buffer, 0, blocks);
+                    Tools.zeropad(buffer, length);
+                    gcm.ghash(buffer, 0, blocks);
+                    MemorySegment.copy(buffer, 0, ciphertext, 0, length);
+                    gcm.msgLength += length;
+                }
+                return length;
+            }
+
+            @Override
+            protected void finalizeState() {
+                gcm.finish();
+            }
+
+            @Override
+            protected void generateTag(byte[] dest) {
+                gcm.tag(dest);
+            }
+
+            @Override
+            public AuthenticatedCipher getAlgorithm() {
+                return AesGcm.this;
+            }
+        };
+    }
+
+    private DecryptEngine decrypter(Gcm gcm) {
+        return new AbstractVerifierEngine(STEP, 16) {
+
+            @Override
+            protected void ingestOneBlock(MemorySegment aad, long offset) {
+                gcm.ingestAad(aad, offset);
+            }
+
+            @Override
+            protected void ingestLastBlock(MemorySegment aad, int length) {
+                gcm.ingestLastAad(aad, length);
+            }
+
+            @Override
+            protected void decryptOneBlock(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset) {
+                //hash before decrypting, the plaintext may overwrite the ciphertext
+                gcm.ghash(ciphertext, cOffset, BLOCKS);
+                gcm.keystream(BLOCKS);
+                gcm.crypt(ciphertext, cOffset, plaintext, pOffset, BLOCKS);
+                gcm.msgLength += STEP;
+            }
+
+            @Override
+            protected int decryptLastBlock(MemorySegment buffer, int length, MemorySegment plaintext) {
+                if (length > 0) {
+                    int blocks = (length + 15) / 16;
+                    Tools.zeropad(buffer, length);
+                    gcm.ghash(buffer, 0, blocks);
+                    gcm.keystream(blocks);
+                    gcm.crypt(buffer, 0, buffer, 0, blocks);
+                    MemorySegment.copy(buffer, 0, plaintext, 0, length);
+                    gcm.msgLength += length;
+                }
+                return length;
+            }
+
+            @Override
+            protected void finalizeState() {
+                gcm.finish();
+            }
+
+            @Override
+            protected void generateTag(byte[] dest) {
+                gcm.tag(dest);
+            }
+
+            @Override
+            public AuthenticatedCipher getAlgorithm() {
+                return AesGcm.this;
+            }
+        };
+    }
+
+    @Override
+    public int keyLength() {
+        return keyLength;
+    }
+
+    @Override
+    public int ivLength() {
+        return 12;
+    }
+
+    @Override
+    public int tagLength() {
+        return 16;
+    }
+
+    /**
+     * the state of a message: the GHASH accumulator and the counter. The
+     * expanded key and the table are shared by every message under the key
+     */
+    private static final class Gcm {
+
+        private final AesEncApi aes;
+        private final long[] table, x = new long[2];
+        private final int[] counters = new int[4 * BLOCKS], keystream = new int[4 * BLOCKS], mask = new int[4];
+
+        private int counter;
+        private long aadLength = 0, msgLength = 0;
+
+        private Gcm(AesEncApi aes, long[] table, byte[] iv) {
+            if (iv.length == 0) {
+                throw new IllegalArgumentException("AES-GCM requires a non-empty iv");
+            }
+            this.aes = aes;
+            this.table = table;
+
+            int[] j0;
+            if (iv.length == 12) {
+                j0 = new int[]{load32BE(iv, 0), load32BE(iv, 4), load32BE(iv, 8), 1};
+            } else {
+                var buffer = MemorySegment.ofArray(new byte[(iv.length + 15) & ~15]);
+                MemorySegment.copy(MemorySegment.ofArray(iv), 0, buffer, 0, iv.length);
+                ghash(buffer, 0, buffer.byteSize() / 16);
+                x[1] ^= (long) iv.length << 3;
+                GfHelper.ghashMultiply(table, x);
+                j0 = new int[]{(int) (x[0] >>> 32), (int) x[0], (int) (x[1] >>> 32), (int) x[1]};
+                x[0] = 0;
+                x[1] = 0;
+            }
+            aes.encryptBlock(j0, 0, mask, 0);
+
+            for (int i = 0; i < BLOCKS; i++) {
+                counters[4 * i] = j0[0];
+                counters[4 * i + 1] = j0[1];
+                counters[4 * i + 2] = j0[2];
+            }
+            counter = j0[3] + 1;
+        }
+
+        private static long join(int high, int low) {
+            return ((long) high << 32) | (low & 0xffffffffL);
+        }
+
+        private void ghash(MemorySegment input, long offset, long blocks) {
+            for (; blocks > 0; blocks--, offset += 16) {
+                x[0] ^= input.get(LAYOUT_64, offset);
+                x[1] ^= input.get(LAYOUT_64, offset + 8);
+                GfHelper.ghashMultiply(table, x);
+            }
+        }
+
+        private void ingestAad(MemorySegment aad, long offset) {
+            ghash(aad, offset, 1);
+            aadLength += 16;
+        }
+
+        private void ingestLastAad(MemorySegment aad, int length) {
+            if (length > 0) {
+                Tools.zeropad(aad, length);
+                ghash(aad, 0, 1);
+                aadLength += length;
+            }
+        }
+
+        /**
+         * encrypts the next {@code blocks} counter blocks into the keystream,
+         * only the last 32 bits of the counter are incremented
+         */
+        private void keystream(int blocks) {
+            for (int i = 0; i < blocks; i++) {
+                counters[4 * i + 3] = counter + i;
+            }
+            if (blocks == BLOCKS) {
+                aes.encrypt4Blocks(counters, 0, keystream, 0);
+            } else {
+                for (int i = 0; i < blocks; i++) {
+                    aes.encryptBlock(counters, 4 * i, keystream, 4 * i);
+                }
+            }
+            counter += blocks;
+        }
+
+        private void crypt(MemorySegment input, long iOffset, MemorySegment output, long oOffset, int blocks) {
+            for (int i = 0; i < 4 * blocks; i++) {
+                output.set(LAYOUT, oOffset + 4 * i, input.get(LAYOUT, iOffset + 4 * i) ^ keystream[i]);
+            }
+        }
+
+        private void finish() {
+            x[0] ^= aadLength << 3;
+            x[1] ^= msgLength << 3;
+            GfHelper.ghashMultiply(table, x);
+            x[0] ^= join(mask[0], mask[1]);
+            x[1] ^= join(mask[2], mask[3]);
+        }
+
+        private void tag(byte[] dest) {
+            Tools.store64BE(x[0], dest, 0);
+            Tools.store64BE(x[1], dest, 8);
+        }
+
+    }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.aead;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.function.Function;
+import javax.crypto.AEADBadTagException;
+import org.asterisk.crypto.SimpleAead;
+import org.asterisk.crypto.helper.GfHelper;
+import org.asterisk.crypto.helper.Tools;
+import org.asterisk.crypto.lowlevel.AesEncApi;
+
+import static org.asterisk.crypto.helper.Tools.load32BE;
+
+/**
+ * AES-GCM-SIV, the nonce misuse resistant mode of RFC 8452.
+ * <p>
+ * Like Deoxys-II, the tag is computed from the whole plaintext before any of
+ * it is encrypted, so only one-shot encryption and decryption are offered.
+ * The tag is always 16 bytes, repeating a nonce only reveals whether two
+ * messages (with their associated data) are equal.
+ * <p>
+ * POLYVAL is evaluated as GHASH on byte reversed blocks with the hash key
+ * multiplied by x, which lets it use the 4-bit tables of
+ * {@link GfHelper#ghashTable(long, long)}
+ *
+ * @author Sayantan Chakraborty
+ */
+public enum AesGcmSiv implements SimpleAead {
+
+    AES_128_GCM_SIV(16, AesEncApi.Aes128EncApi::new),
+    AES_256_GCM_SIV(32, AesEncApi.Aes256EncApi::new);
+
+    private static final ValueLayout.OfInt LAYOUT = Tools.BIG_ENDIAN_32_BIT;
+    private static final ValueLayout.OfLong LAYOUT_64 = Tools.LITTLE_ENDIAN_64_BIT;
+
+    //counter blocks encrypted per step
+    private static final int BLOCKS = 4;
+    private static final int STEP = 16 * BLOCKS;
+
+    private static final long MAX_LENGTH = 1L << 36;
+
+    private final int keyLength;
+    private final Function<byte[], AesEncApi> constructor;
+
+    private AesGcmSiv(int keyLength, Function<byte[], AesEncApi> constructor) {
+        this.keyLength = keyLength;
+        this.constructor = constructor;
+    }
+
+    private Siv start(byte[] key, byte[] iv, MemorySegment aad, MemorySegment input) {
+        if (key.length < keyLength) {
+            throw new IllegalArgumentException(this + " requires a key of " + keyLength + " bytes, passed only " + key.length + " bytes");
+        }
+        if (iv.length < 12) {
+            throw new IllegalArgumentException(this + " requires an iv of 12 bytes, passed only " + iv.length + " bytes");
+        }
+        if (aad.byteSize() > MAX_LENGTH || input.byteSize() > MAX_LENGTH) {
+            throw new IllegalArgumentException(this + " can only process upto " + MAX_LENGTH + " bytes of aad and of plaintext");
+        }
+        return new Siv(this, key, iv);
+    }
+
+    @Override
+    public long encrypt(byte[] key, byte[] iv, MemorySegment aad, MemorySegment plaintext, MemorySegment ciphertext, byte[] tag, int tOffset, int tLength) {
+        if (tLength != 16) {
+            throw new IllegalArgumentException("AES-GCM-SIV always exports a 16 byte tag");
+        }
+        var siv = start(key, iv, aad, plaintext);
+        int[] t = siv.tag(aad, plaintext);
+        Tools.store32BE(t[0], tag, tOffset);
+        Tools.store32BE(t[1], tag, tOffset + 4);
+        Tools.store32BE(t[2], tag, tOffset + 8);
+        Tools.store32BE(t[3], tag, tOffset + 12);
+        siv.crypt(t, plaintext, ciphertext);
+        return plaintext.byteSize();
+    }
+
+    @Override
+    public long decrypt(byte[] key, byte[] iv, MemorySegment aad, MemorySegment ciphertext, MemorySegment plaintext, byte[] tag, int tOffset, int tLength) throws AEADBadTagException {
+        if (tLength != 16) {
+            throw new IllegalArgumentException("AES-GCM-SIV always exports a 16 byte tag");
+        }
+        var siv = start(key, iv, aad, ciphertext);
+        int[] t = {load32BE(tag, tOffset), load32BE(tag, tOffset + 4), load32BE(tag, tOffset + 8), load32BE(tag, tOffset + 12)};
+        long length = ciphertext.byteSize();
+        siv.crypt(t, ciphertext, plaintext);
+        int[] expected = siv.tag(aad, plaintext.asSlice(0, length));
+        if (((t[0] ^ expected[0]) | (t[1] ^ expected[1]) | (t[2] ^ expected[2]) | (t[3] ^ expected[3])) != 0) {
+            plaintext.asSlice(0, length).fill((byte) 0);
+            throw new AEADBadTagException();
+        }
+        return length;
+    }
+
+    @Override
+    public int keyLength() {
+        return keyLength;
+    }
+
+    @Override
+    public int ivLength() {
+        return 12;
+    }
+
+    @Override
+    public int tagLength() {
+        return 16;
+    }
+
+    /**
+     * the keys of a message, derived from the key generating key and the
+     * nonce
+     */
+    private static final class Siv {
+
+        private final AesEncApi aes;
+        private final long[] table, x = new long[2];
+        private final int[] nonce;
+
+        private Siv(AesGcmSiv cipher, byte[] key, byte[] iv) {
+            nonce = new int[]{load32BE(iv, 0), load32BE(iv, 4), load32BE(iv, 8)};
+
+            //the first 8 bytes of the encryption of every counter || nonce
+            var keyGenerator = cipher.constructor.apply(key);
+            byte[] derived = new byte[16 + cipher.keyLength];
+            int[] block = {0, nonce[0], nonce[1], nonce[2]}, out = new int[4];
+            for (int i = 0; i < derived.length / 8; i++) {
+                block[0] = Integer.reverseBytes(i);
+                keyGenerator.encryptBlock(block, 0, out, 0);
+                Tools.store32BE(out[0], derived, 8 * i);
+                Tools.store32BE(out[1], derived, 8 * i + 4);
+            }
+
+            //POLYVAL(H, X) = ByteReverse(GHASH(H * x, ByteReverse(X)))
+            long[] h = {Tools.load64LE(derived, 8), Tools.load64LE(derived, 0)};
+            GfHelper.ghashTimesX(h);
+            table = GfHelper.ghashTable(h[0], h[1]);
+
+            aes = cipher.constructor.apply(Arrays.copyOfRange(derived, 16, derived.length));
+        }
+
+        /**
+         * absorbs {@code input} into POLYVAL, zero padded to a multiple of
+         * 16 bytes
+         */
+        private void polyval(MemorySegment input) {
+            long offset = 0, length = input.byteSize();
+            for (; length - offset >= 16; offset += 16) {
+                x[0] ^= input.get(LAYOUT_64, offset + 8);
+                x[1] ^= input.get(LAYOUT_64, offset);
+                GfHelper.ghashMultiply(table, x);
+            }
+            if (offset < length) {
+                var last = MemorySegment.ofArray(new byte[16]);
+                MemorySegment.copy(input, offset, last, 0, length - offset);
+                x[0] ^= last.get(LAYOUT_64, 8);
+                x[1] ^= last.get(LAYOUT_64, 0);
+                GfHelper.ghashMultiply(table, x);
+            }
+        }
+
+        /**
+         * computes the tag of {@code plaintext} and {@code aad}, as big endian
+         * words
+         */
+        private int[] tag(MemorySegment aad, MemorySegment plaintext) {
+            x[0] = 0;
+            x[1] = 0;
+            polyval(aad);
+            polyval(plaintext);
+            x[0] ^= plaintext.byteSize() << 3;
+            x[1] ^= aad.byteSize() << 3;
+            GfHelper.ghashMultiply(table, x);
+
+            //byte reverse the result back, xor in the nonce and clear the top bit of the last byte
+            int[] s = {
+                Integer.reverseBytes((int) x[1]) ^ nonce[0],
+                Integer.reverseBytes((int) (x[1] >>> 32)) ^ nonce[1],
+                Integer.reverseBytes((int) x[0]) ^ nonce[2],
+                Integer.reverseBytes((int) (x[0] >>> 32)) & 0xffffff7f
+            };
+            aes.encryptBlock(s, 0, s, 0);
+            return s;
+        }
+
+        /**
+         * counter mode starting from the tag with the top bit of its last byte
+         * set, incrementing its first 4 bytes as a little endian counter
+         */
+        private void crypt(int[] tag, MemorySegment input, MemorySegment output) {
+            int[] counters = new int[4 * BLOCKS], keystream = new int[4 * BLOCKS];
+            for (int i = 0; i < BLOCKS; i++) {
+                counters[4 * i + 1] = tag[1];
+                counters[4 * i + 2] = tag[2];
+                counters[4 * i + 3] = tag[3] | 0x80;
+            }
+            int counter = Integer.reverseBytes(tag[0]);
+
+            long offset = 0, length = input.byteSize();
+            for (; length - offset >= STEP; offset += STEP) {
+                for (int i = 0; i < BLOCKS; i++) {
+                    counters[4 * i] = Integer.reverseBytes(counter++);
+                }
+                aes.encrypt4Blocks(counters, 0, keystream, 0);
+                for (int i = 0; i < 4 * BLOCKS; i++) {
+                    output.set(LAYOUT, offset + 4 * i, input.get(LAYOUT, offset + 4 * i) ^ keystream[i]);
+                }
+            }
+            if (offset < length) {
+                int remaining = (int) (length - offset), blocks = (remaining + 15) / 16;
+                var buffer = MemorySegment.ofArray(new byte[STEP]);
+                MemorySegment.copy(input, offset, buffer, 0, remaining);
+                for (int i = 0; i < blocks; i++) {
+                    counters[4 * i] = Integer.reverseBytes(counter++);
+                    aes.encryptBlock(counters, 4 * i, keystream, 4 * i);
+                }
+                for (int i = 0; i < 4 * blocks; i++) {
+                    buffer.set(LAYOUT, 4 * i, buffer.get(LAYOUT, 4 * i) ^ keystream[i]);
+                }
+                MemorySegment.copy(buffer, 0, output, offset, remaining);
+            }
+        }
+
+    }
+
+}
@@ -24,13 +24,48 @@ public enum AesJambu implements AuthenticatedCipher {
 
     @Override
     public EncryptEngine startEncryption(byte[] key, byte[] iv) {
+        return startEncryption(new AesEncApi.Aes128EncApi(key), iv);
+    }
+
+    @Override
+    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
+        return startDecryption(new AesEncApi.Aes128EncApi(key), iv);
+    }
+
+    /**
+     * expands {@code key} once, returning a key object that starts engines
+     * without touching the key again
+     *
+     * @param key the key
+     *
+     * @return the expanded key
+     */
+    public Key withKey(byte[] key) {
+        var aes = new AesEncApi.Aes128EncApi(key);
+        return new Key() {
+            @Override
+            public EncryptEngine startEncryption(byte[] iv) {
+                return AesJambu.this.startEncryption(aes, iv);
+            }
+
+            @Override
+            public DecryptEngine startDecryption(byte[] iv) {
+                return AesJambu.this.startDecryption(aes, iv);
+            }
+
+            @Override
+            public AuthenticatedCipher getAlgorithm() {
+                return AesJambu.this;
+            }
+        };
+    }
+
+    private EncryptEngine startEncryption(AesEncApi aes, byte[] iv) {
         return new AbstractAuthenticaterEngine(8) {
 
             private final int[] state;
             private int r0, r1;
 
-            private final AesEncApi.Aes128EncApi aes = new AesEncApi.Aes128EncApi(key);
-
             {
                 state = new int[]{
                     0, 0, Tools.load32BE(iv, 0), Tools.load32BE(iv, 4)
@@ -125,15 +160,12 @@ public enum AesJambu implements AuthenticatedCipher {
         };
     }
 
-    @Override
-    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
+    private DecryptEngine startDecryption(AesEncApi aes, byte[] iv) {
         return new AbstractVerifierEngine(8) {
 
             private final int[] state;
             private int r0, r1;
 
-            private final AesEncApi.Aes128EncApi aes = new AesEncApi.Aes128EncApi(key);
-
             {
                 state = new int[]{
                     0, 0, Tools.load32BE(iv, 0), Tools.load32BE(iv, 4)
@@ -5,6 +5,11 @@
 package org.asterisk.crypto.aead;
 
 import java.lang.foreign.MemorySegment;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import org.asterisk.crypto.Tested;
@@ -42,6 +47,10 @@ public class AesOcb implements AuthenticatedCipher {
         return new AesOcb(Aes256EncApi::new, 32, taglen);
     }
 
+    //64 KiB per batch, like the counter mode stream ciphers
+    private static final int BATCH_BLOCKS = 4096;
+    private static final int BATCHES_IN_FLIGHT = 64;
+
     private static int[] ocbDouble(int[] src) {
         int[] ret = new int[4];
         GfHelper.x2(src, ret);
@@ -103,328 +112,532 @@ public class AesOcb implements AuthenticatedCipher {
 
     @Override
     public EncryptEngine startEncryption(byte[] key, byte[] iv) {
-        return new AbstractAuthenticaterEngine(16) {
+        return withKey(key).startEncryption(iv);
+    }
+
+    @Override
+    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
+        return withKey(key).startDecryption(iv);
+    }
+
+    /**
+     * starts an encryption engine that encrypts large inputs in parallel on
+     * the {@link ForkJoinPool#commonPool() common pool}, or a serial one if
+     * the common pool has no parallelism
+     *
+     * @param key the key
+     * @param iv  the iv
+     *
+     * @return the engine
+     *
+     * @see #startParallelEncryption(byte[], byte[], Executor)
+     */
+    public EncryptEngine startParallelEncryption(byte[] key, byte[] iv) {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallelEncryption(key, iv, ForkJoinPool.commonPool()) : startEncryption(key, iv);
+    }
+
+    /**
+     * starts an encryption engine that splits long runs of plaintext into
+     * batches and encrypts them on {@code executor}, combining the checksums
+     * of the batches at the end. The output is identical to that of the
+     * engine of {@link #startEncryption(byte[], byte[])}, and in-place
+     * encryption is allowed.
+     * <p>
+     * Segments passed to {@code encrypt} must be accessible from the threads
+     * of {@code executor}, i.e. they must not be confined to the calling
+     * thread
+     *
+     * @param key      the key
+     * @param iv       the iv
+     * @param executor the executor to encrypt the batches on
+     *
+     * @return the engine
+     */
+    public EncryptEngine startParallelEncryption(byte[] key, byte[] iv, Executor executor) {
+        return expand(key).encrypter(iv, Objects.requireNonNull(executor));
+    }
+
+    /**
+     * starts a decryption engine that decrypts large inputs in parallel on
+     * the {@link ForkJoinPool#commonPool() common pool}, or a serial one if
+     * the common pool has no parallelism
+     *
+     * @param key the key
+     * @param iv  the iv
+     *
+     * @return the engine
+     *
+     * @see #startParallelDecryption(byte[], byte[], Executor)
+     */
+    public DecryptEngine startParallelDecryption(byte[] key, byte[] iv) {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallelDecryption(key, iv, ForkJoinPool.commonPool()) : startDecryption(key, iv);
+    }
+
+    /**
+     * starts a decryption engine that splits long runs of ciphertext into
+     * batches and decrypts them on {@code executor}, combining the checksums
+     * of the batches at the end. The output is identical to that of the
+     * engine of {@link #startDecryption(byte[], byte[])}, and in-place
+     * decryption is allowed.
+     * <p>
+     * Segments passed to {@code decrypt} must be accessible from the threads
+     * of {@code executor}, i.e. they must not be confined to the calling
+     * thread
+     *
+     * @param key      the key
+     * @param iv       the iv
+     * @param executor the executor to decrypt the batches on
+     *
+     * @return the engine
+     */
+    public DecryptEngine startParallelDecryption(byte[] key, byte[] iv, Executor executor) {
+        return expand(key).decrypter(iv, Objects.requireNonNull(executor));
+    }
+
+    /**
+     * expands {@code key} and computes the L values of OCB once, returning a
+     * key object that starts engines without touching the key again
+     *
+     * @param key the key
+     *
+     * @return the expanded key
+     */
+    public Key withKey(byte[] key) {
+        return expand(key);
+    }
 
-            private final AesEncApi engine = constructor.apply(key);
+    private OcbKey expand(byte[] key) {
+        if (key.length < keyLength) {
+            throw new IllegalArgumentException("AES-OCB requires a key of " + keyLength + " bytes, passed only " + key.length + " bytes");
+        }
+        return new OcbKey(constructor.apply(key));
+    }
+
+    private static void xor(int[] dst, int[] src) {
+        dst[0] ^= src[0];
+        dst[1] ^= src[1];
+        dst[2] ^= src[2];
+        dst[3] ^= src[3];
+    }
 
-            private final int[] lStar = new int[4], lDollar;
-            private final int[][] lValues;
+    private final class OcbKey implements Key {
 
-            private final int[] sum = new int[4], offset = new int[4], data = new int[4], mOffset = getOffset0(iv, engine), checksum = new int[4];
+        private final AesEncApi engine;
+        //only expanded by the first decryption, racing threads at worst expand it twice
+        private AesDecApi decEngine;
 
-            private long counter = 0;
+        //L_i = L_$ * 2^(i + 1), the offset of block i is the one of block i - 1 xor L_ntz(i)
+        private final int[] lStar = new int[4], lDollar;
+        private final int[][] lValues;
 
-            {
-                engine.encryptBlock(lStar, 0, lStar, 0);
-                lDollar = ocbDouble(lStar);
-                lValues = Stream.iterate(ocbDouble(lDollar), AesOcb::ocbDouble).limit(64).toArray(int[][]::new);
+        private OcbKey(AesEncApi engine) {
+            this.engine = engine;
+            engine.encryptBlock(lStar, 0, lStar, 0);
+            lDollar = ocbDouble(lStar);
+            lValues = Stream.iterate(ocbDouble(lDollar), AesOcb::ocbDouble).limit(64).toArray(int[][]::new);
+        }
+
+        private AesDecApi decrypter() {
+            var ret = decEngine;
+            if (ret == null) {
+                decEngine = ret = engine.decrypter();
             }
+            return ret;
+        }
 
-            @Override
-            protected void ingestOneBlock(MemorySegment aad, long off) {
-                var lValue = lValues[Long.numberOfTrailingZeros(++counter)];
-                offset[0] ^= lValue[0];
-                offset[1] ^= lValue[1];
-                offset[2] ^= lValue[2];
-                offset[3] ^= lValue[3];
-
-                data[0] = aad.get(BIG_ENDIAN_32_BIT, off + 0) ^ offset[0];
-                data[1] = aad.get(BIG_ENDIAN_32_BIT, off + 4) ^ offset[1];
-                data[2] = aad.get(BIG_ENDIAN_32_BIT, off + 8) ^ offset[2];
-                data[3] = aad.get(BIG_ENDIAN_32_BIT, off + 12) ^ offset[3];
-
-                engine.encryptBlock(data, 0, data, 0);
-
-                sum[0] ^= data[0];
-                sum[1] ^= data[1];
-                sum[2] ^= data[2];
-                sum[3] ^= data[3];
+        @Override
+        public EncryptEngine startEncryption(byte[] iv) {
+            return encrypter(iv, null);
+        }
+
+        @Override
+        public DecryptEngine startDecryption(byte[] iv) {
+            return decrypter(iv, null);
+        }
+
+        @Override
+        public AuthenticatedCipher getAlgorithm() {
+            return AesOcb.this;
+        }
+
+        /**
+         * the offsets of a run of blocks, either of the aad or of the
+         * message, and the sum or checksum accumulated over the run. Blocks
+         * are processed 4 at a time, with their rounds interleaved
+         */
+        private final class Run {
+
+            //the offset before the first block
+            private final int[] start;
+            private final int[] offset = new int[4], acc = new int[4];
+            private final int[] offsets = new int[16], data = new int[16];
+            //the index of the last block processed
+            private long counter;
+
+            private Run(int[] start, long counter) {
+                this.start = start;
+                seek(counter);
             }
 
-            @Override
-            protected void ingestLastBlock(MemorySegment aad, int length) {
-                if (length == 16) {
-                    ingestOneBlock(aad, 0);
-                } else if (length > 0) {
-                    offset[0] ^= lStar[0];
-                    offset[1] ^= lStar[1];
-                    offset[2] ^= lStar[2];
-                    offset[3] ^= lStar[3];
-
-                    Tools.ozpad(aad, length);
-
-                    data[0] = aad.get(BIG_ENDIAN_32_BIT, 0) ^ offset[0];
-                    data[1] = aad.get(BIG_ENDIAN_32_BIT, 4) ^ offset[1];
-                    data[2] = aad.get(BIG_ENDIAN_32_BIT, 8) ^ offset[2];
-                    data[3] = aad.get(BIG_ENDIAN_32_BIT, 12) ^ offset[3];
-
-                    engine.encryptBlock(data, 0, data, 0);
-
-                    sum[0] ^= data[0];
-                    sum[1] ^= data[1];
-                    sum[2] ^= data[2];
-                    sum[3] ^= data[3];
+            /**
+             * sets the offset to the one of block {@code counter}. The
+             * offset of block i is the start xor the L values of the bits
+             * set in the gray code of i, since the gray code of i flips bit
+             * ntz(i) of the one of i - 1
+             */
+            private void seek(long counter) {
+                this.counter = counter;
+                System.arraycopy(start, 0, offset, 0, 4);
+                long gray = counter ^ (counter >>> 1);
+                for (; gray != 0; gray &= gray - 1) {
+                    xor(offset, lValues[Long.numberOfTrailingZeros(gray)]);
                 }
-                counter = 0;
-                System.arraycopy(mOffset, 0, offset, 0, 4);
             }
 
-            @Override
-            protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
-                int[] lValue = lValues[Long.numberOfTrailingZeros(++counter)];
-                offset[0] ^= lValue[0];
-                offset[1] ^= lValue[1];
-                offset[2] ^= lValue[2];
-                offset[3] ^= lValue[3];
-
-                data[0] = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 0);
-                data[1] = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 4);
-                data[2] = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 8);
-                data[3] = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 12);
-
-                checksum[0] ^= data[0];
-                checksum[1] ^= data[1];
-                checksum[2] ^= data[2];
-                checksum[3] ^= data[3];
-
-                data[0] ^= offset[0];
-                data[1] ^= offset[1];
-                data[2] ^= offset[2];
-                data[3] ^= offset[3];
-
-                engine.encryptBlock(data, 0, data, 0);
-
-                ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 0, offset[0] ^ data[0]);
-                ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 4, offset[1] ^ data[1]);
-                ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 8, offset[2] ^ data[2]);
-                ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 12, offset[3] ^ data[3]);
+            /**
+             * advances the offset to the next {@code blocks} blocks, copying
+             * them to {@link #offsets}
+             */
+            private void advance(int blocks) {
+                for (int i = 0; i < blocks; i++) {
+                    xor(offset, lValues[Long.numberOfTrailingZeros(++counter)]);
+                    System.arraycopy(offset, 0, offsets, 4 * i, 4);
+                }
             }
 
-            @Override
-            protected int encryptLastBlock(MemorySegment buffer, int length, MemorySegment ciphertext) {
-                if (length == 16) {
-                    encryptOneBlock(buffer, 0, ciphertext, 0);
-                } else if (length > 0) {
-                    offset[0] ^= lStar[0];
-                    offset[1] ^= lStar[1];
-                    offset[2] ^= lStar[2];
-                    offset[3] ^= lStar[3];
+            private void hash(MemorySegment aad, long off, long blocks) {
+                for (; blocks > 0; off += 64, blocks -= 4) {
+                    int n = (int) Math.min(blocks, 4);
+                    advance(n);
+                    for (int i = 0; i < 4 * n; i++) {
+                        data[i] = aad.get(BIG_ENDIAN_32_BIT, off + 4 * i) ^ offsets[i];
+                    }
+                    encrypt(data, n);
+                    for (int i = 0; i < 4 * n; i++) {
+                        acc[i & 3] ^= data[i];
+                    }
+                }
+            }
 
-                    engine.encryptBlock(offset, 0, data, 0);
+            private void encrypt(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+                for (; blocks > 0; pOffset += 64, cOffset += 64, blocks -= 4) {
+                    int n = (int) Math.min(blocks, 4);
+                    advance(n);
+                    for (int i = 0; i < 4 * n; i++) {
+                        int m = plaintext.get(BIG_ENDIAN_32_BIT, pOffset + 4 * i);
+                        acc[i & 3] ^= m;
+                        data[i] = m ^ offsets[i];
+                    }
+                    encrypt(data, n);
+                    for (int i = 0; i < 4 * n; i++) {
+                        ciphertext.set(BIG_ENDIAN_32_BIT, cOffset + 4 * i, data[i] ^ offsets[i]);
+                    }
+                }
+            }
 
-                    Tools.ozpad(buffer, length);
+            private void decrypt(AesDecApi decEngine, MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+                for (; blocks > 0; cOffset += 64, pOffset += 64, blocks -= 4) {
+                    int n = (int) Math.min(blocks, 4);
+                    advance(n);
+                    for (int i = 0; i < 4 * n; i++) {
+                        data[i] = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 4 * i) ^ offsets[i];
+                    }
+                    if (n == 4) {
+                        decEngine.decrypt4Blocks(data, 0, data, 0);
+                    } else {
+                        for (int i = 0; i < n; i++) {
+                            decEngine.decryptBlock(data, 4 * i, data, 4 * i);
+                        }
+                    }
+                    for (int i = 0; i < 4 * n; i++) {
+                        int m = data[i] ^ offsets[i];
+                        acc[i & 3] ^= m;
+                        plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 4 * i, m);
+                    }
+                }
+            }
 
-                    int m0 = buffer.get(BIG_ENDIAN_32_BIT, 0);
-                    int m1 = buffer.get(BIG_ENDIAN_32_BIT, 4);
-                    int m2 = buffer.get(BIG_ENDIAN_32_BIT, 8);
-                    int m3 = buffer.get(BIG_ENDIAN_32_BIT, 12);
+            private void encrypt(int[] data, int blocks) {
+                if (blocks == 4) {
+                    engine.encrypt4Blocks(data, 0, data, 0);
+                } else {
+                    for (int i = 0; i < blocks; i++) {
+                        engine.encryptBlock(data, 4 * i, data, 4 * i);
+                    }
+                }
+            }
 
-                    buffer.set(BIG_ENDIAN_32_BIT, 0, m0 ^ data[0]);
-                    buffer.set(BIG_ENDIAN_32_BIT, 4, m1 ^ data[1]);
-                    buffer.set(BIG_ENDIAN_32_BIT, 8, m2 ^ data[2]);
-                    buffer.set(BIG_ENDIAN_32_BIT, 12, m3 ^ data[3]);
+            /**
+             * processes the blocks of a whole number of batches on
+             * {@code executor}, each in a run of its own starting where this
+             * one is, and folds their accumulators into this one. Blocks that
+             * don't fill a batch are left to the caller
+             *
+             * @return the number of blocks processed
+             */
+            private long parallel(Executor executor, long blocks, BatchJob job) {
+                var pending = new ArrayDeque<CompletableFuture<int[]>>(BATCHES_IN_FLIGHT);
+                long done = 0;
+                try {
+                    for (; blocks - done >= BATCH_BLOCKS; done += BATCH_BLOCKS) {
+                        if (pending.size() == BATCHES_IN_FLIGHT) {
+                            xor(acc, pending.poll().join());
+                        }
+                        var batch = new Run(start, counter);
+                        long first = done;
+                        pending.add(CompletableFuture.supplyAsync(() -> {
+                            job.run(batch, first);
+                            return batch.acc;
+                        }, executor));
+                        seek(counter + BATCH_BLOCKS);
+                    }
+                    while (!pending.isEmpty()) {
+                        xor(acc, pending.poll().join());
+                    }
+                } finally {
+                    //no batch may still be writing its output once a failure reaches the caller
+                    CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+                }
+                return done;
+            }
+
+        }
+
+        @FunctionalInterface
+        private interface BatchJob {
+
+            //processes BATCH_BLOCKS blocks starting at block first of the call
+            void run(Run batch, long first);
+
+        }
+
+        private EncryptEngine encrypter(byte[] iv, Executor executor) {
+            return new AbstractAuthenticaterEngine(16) {
 
-                    checksum[0] ^= m0;
-                    checksum[1] ^= m1;
-                    checksum[2] ^= m2;
-                    checksum[3] ^= m3;
+                private final Run aadRun = new Run(new int[4], 0), msgRun = new Run(getOffset0(iv, engine), 0);
+                private final int[] data = new int[4], checksum = msgRun.acc;
 
-                    MemorySegment.copy(buffer, 0, ciphertext, 0, length);
+                @Override
+                protected void ingestOneBlock(MemorySegment aad, long off) {
+                    aadRun.hash(aad, off, 1);
                 }
-                return length;
-            }
 
-            @Override
-            protected void finalizeState() {
-                checksum[0] ^= offset[0] ^ lDollar[0];
-                checksum[1] ^= offset[1] ^ lDollar[1];
-                checksum[2] ^= offset[2] ^ lDollar[2];
-                checksum[3] ^= offset[3] ^ lDollar[3];
+                @Override
+                protected void ingestBlocks(MemorySegment aad, long off, long blocks) {
+                    aadRun.hash(aad, off, blocks);
+                }
 
-                engine.encryptBlock(checksum, 0, checksum, 0);
+                @Override
+                protected void ingestLastBlock(MemorySegment aad, int length) {
+                    if (length == 16) {
+                        ingestOneBlock(aad, 0);
+                    } else if (length > 0) {
+                        var offset = aadRun.offset;
+                        xor(offset, lStar);
 
-                checksum[0] ^= sum[0];
-                checksum[1] ^= sum[1];
-                checksum[2] ^= sum[2];
-                checksum[3] ^= sum[3];
-            }
+                        Tools.ozpad(aad, length);
 
-            @Override
-            protected void generateTag(byte[] dest) {
-                Tools.store32BE(checksum[0], dest, 0);
-                Tools.store32BE(checksum[1], dest, 4);
-                Tools.store32BE(checksum[2], dest, 8);
-                Tools.store32BE(checksum[3], dest, 12);
-            }
+                        data[0] = aad.get(BIG_ENDIAN_32_BIT, 0) ^ offset[0];
+                        data[1] = aad.get(BIG_ENDIAN_32_BIT, 4) ^ offset[1];
+                        data[2] = aad.get(BIG_ENDIAN_32_BIT, 8) ^ offset[2];
+                        data[3] = aad.get(BIG_ENDIAN_32_BIT, 12) ^ offset[3];
 
-            @Override
-            public AuthenticatedCipher getAlgorithm() {
-                return AesOcb.this;
-            }
-        };
-    }
+                        engine.encryptBlock(data, 0, data, 0);
 
-    @Override
-    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
-        return new AbstractVerifierEngine(16) {
+                        xor(aadRun.acc, data);
+                    }
+                }
 
-            private final AesEncApi engine = constructor.apply(key);
+                @Override
+                protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
+                    msgRun.encrypt(plaintext, pOffset, ciphertext, cOffset, 1);
+                }
 
-            private final AesDecApi decEngine = engine.decrypter();
+                @Override
+                protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+                    if (executor != null && blocks > 2 * BATCH_BLOCKS) {
+                        long p0 = pOffset, c0 = cOffset;
+                        long done = msgRun.parallel(executor, blocks,
+                                (batch, first) -> batch.encrypt(plaintext, p0 + 16 * first, ciphertext, c0 + 16 * first, BATCH_BLOCKS));
+                        pOffset += 16 * done;
+                        cOffset += 16 * done;
+                        blocks -= done;
+                    }
+                    msgRun.encrypt(plaintext, pOffset, ciphertext, cOffset, blocks);
+                }
 
-            private final int[] lStar = new int[4], lDollar;
-            private final int[][] lValues;
+                @Override
+                protected int encryptLastBlock(MemorySegment buffer, int length, MemorySegment ciphertext) {
+                    if (length == 16) {
+                        encryptOneBlock(buffer, 0, ciphertext, 0);
+                    } else if (length > 0) {
+                        var offset = msgRun.offset;
+                        xor(offset, lStar);
 
-            private final int[] sum = new int[4], offset = new int[4], data = new int[4], mOffset = getOffset0(iv, engine), checksum = new int[4];
+                        engine.encryptBlock(offset, 0, data, 0);
 
-            private long counter = 0;
+                        Tools.ozpad(buffer, length);
 
-            {
-                engine.encryptBlock(lStar, 0, lStar, 0);
-                lDollar = ocbDouble(lStar);
-                lValues = Stream.iterate(ocbDouble(lDollar), AesOcb::ocbDouble).limit(64).toArray(int[][]::new);
-            }
+                        int m0 = buffer.get(BIG_ENDIAN_32_BIT, 0);
+                        int m1 = buffer.get(BIG_ENDIAN_32_BIT, 4);
+                        int m2 = buffer.get(BIG_ENDIAN_32_BIT, 8);
+                        int m3 = buffer.get(BIG_ENDIAN_32_BIT, 12);
 
-            @Override
-            protected void ingestOneBlock(MemorySegment aad, long off) {
-                var lValue = lValues[Long.numberOfTrailingZeros(++counter)];
-                offset[0] ^= lValue[0];
-                offset[1] ^= lValue[1];
-                offset[2] ^= lValue[2];
-                offset[3] ^= lValue[3];
-
-                data[0] = aad.get(BIG_ENDIAN_32_BIT, off + 0) ^ offset[0];
-                data[1] = aad.get(BIG_ENDIAN_32_BIT, off + 4) ^ offset[1];
-                data[2] = aad.get(BIG_ENDIAN_32_BIT, off + 8) ^ offset[2];
-                data[3] = aad.get(BIG_ENDIAN_32_BIT, off + 12) ^ offset[3];
-
-                engine.encryptBlock(data, 0, data, 0);
-
-                sum[0] ^= data[0];
-                sum[1] ^= data[1];
-                sum[2] ^= data[2];
-                sum[3] ^= data[3];
-            }
+                        buffer.set(BIG_ENDIAN_32_BIT, 0, m0 ^ data[0]);
+                        buffer.set(BIG_ENDIAN_32_BIT, 4, m1 ^ data[1]);
+                        buffer.set(BIG_ENDIAN_32_BIT, 8, m2 ^ data[2]);
+                        buffer.set(BIG_ENDIAN_32_BIT, 12, m3 ^ data[3]);
 
-            @Override
-            protected void ingestLastBlock(MemorySegment aad, int length) {
-                if (length == 16) {
-                    ingestOneBlock(aad, 0);
-                } else if (length > 0) {
-                    offset[0] ^= lStar[0];
-                    offset[1] ^= lStar[1];
-                    offset[2] ^= lStar[2];
-                    offset[3] ^= lStar[3];
-
-                    Tools.ozpad(aad, length);
-
-                    data[0] = aad.get(BIG_ENDIAN_32_BIT, 0) ^ offset[0];
-                    data[1] = aad.get(BIG_ENDIAN_32_BIT, 4) ^ offset[1];
-                    data[2] = aad.get(BIG_ENDIAN_32_BIT, 8) ^ offset[2];
-                    data[3] = aad.get(BIG_ENDIAN_32_BIT, 12) ^ offset[3];
-
-                    engine.encryptBlock(data, 0, data, 0);
-
-                    sum[0] ^= data[0];
-                    sum[1] ^= data[1];
-                    sum[2] ^= data[2];
-                    sum[3] ^= data[3];
+                        checksum[0] ^= m0;
+                        checksum[1] ^= m1;
+                        checksum[2] ^= m2;
+                        checksum[3] ^= m3;
+
+                        MemorySegment.copy(buffer, 0, ciphertext, 0, length);
+                    }
+                    return length;
                 }
-                counter = 0;
-                System.arraycopy(mOffset, 0, offset, 0, 4);
-            }
 
-            @Override
-            protected void decryptOneBlock(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset) {
-                int[] lValue = lValues[Long.numberOfTrailingZeros(++counter)];
-                offset[0] ^= lValue[0];
-                offset[1] ^= lValue[1];
-                offset[2] ^= lValue[2];
-                offset[3] ^= lValue[3];
-
-                data[0] = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 0) ^ offset[0];
-                data[1] = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 4) ^ offset[1];
-                data[2] = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 8) ^ offset[2];
-                data[3] = ciphertext.get(BIG_ENDIAN_32_BIT, cOffset + 12) ^ offset[3];
-
-                decEngine.decryptBlock(data, 0, data, 0);
-
-                data[0] ^= offset[0];
-                data[1] ^= offset[1];
-                data[2] ^= offset[2];
-                data[3] ^= offset[3];
-
-                plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 0, data[0]);
-                plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 4, data[1]);
-                plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 8, data[2]);
-                plaintext.set(BIG_ENDIAN_32_BIT, pOffset + 12, data[3]);
-
-                checksum[0] ^= data[0];
-                checksum[1] ^= data[1];
-                checksum[2] ^= data[2];
-                checksum[3] ^= data[3];
-            }
+                @Override
+                protected void finalizeState() {
+                    xor(checksum, msgRun.offset);
+                    xor(checksum, lDollar);
 
-            @Override
-            protected int decryptLastBlock(MemorySegment buffer, int length, MemorySegment plaintext) {
-                if (length == 16) {
-                    decryptOneBlock(buffer, 0, plaintext, 0);
-                } else if (length > 0) {
-                    offset[0] ^= lStar[0];
-                    offset[1] ^= lStar[1];
-                    offset[2] ^= lStar[2];
-                    offset[3] ^= lStar[3];
+                    engine.encryptBlock(checksum, 0, checksum, 0);
 
-                    engine.encryptBlock(offset, 0, data, 0);
+                    xor(checksum, aadRun.acc);
+                }
+
+                @Override
+                protected void generateTag(byte[] dest) {
+                    byte[] tag = new byte[16];
+                    Tools.store32BE(checksum[0], tag, 0);
+                    Tools.store32BE(checksum[1], tag, 4);
+                    Tools.store32BE(checksum[2], tag, 8);
+                    Tools.store32BE(checksum[3], tag, 12);
+
+                    System.arraycopy(tag, 0, dest, 0, tagLength);
+                }
 
-                    buffer.set(BIG_ENDIAN_32_BIT, 0, buffer.get(BIG_ENDIAN_32_BIT, 0) ^ data[0]);
-                    buffer.set(BIG_ENDIAN_32_BIT, 4, buffer.get(BIG_ENDIAN_32_BIT, 4) ^ data[1]);
-                    buffer.set(BIG_ENDIAN_32_BIT, 8, buffer.get(BIG_ENDIAN_32_BIT, 8) ^ data[2]);
-                    buffer.set(BIG_ENDIAN_32_BIT, 12, buffer.get(BIG_ENDIAN_32_BIT, 12) ^ data[3]);
+                @Override
+                public AuthenticatedCipher getAlgorithm() {
+                    return AesOcb.this;
+                }
+            };
+        }
 
-                    Tools.ozpad(buffer, length);
+        private DecryptEngine decrypter(byte[] iv, Executor executor) {
+            return new AbstractVerifierEngine(16) {
 
-                    checksum[0] ^= buffer.get(BIG_ENDIAN_32_BIT, 0);
-                    checksum[1] ^= buffer.get(BIG_ENDIAN_32_BIT, 4);
-                    checksum[2] ^= buffer.get(BIG_ENDIAN_32_BIT, 8);
-                    checksum[3] ^= buffer.get(BIG_ENDIAN_32_BIT, 12);
+                private final AesDecApi decEngine = decrypter();
 
-                    MemorySegment.copy(buffer, 0, plaintext, 0, length);
+                private final Run aadRun = new Run(new int[4], 0), msgRun = new Run(getOffset0(iv, engine), 0);
+                private final int[] data = new int[4], checksum = msgRun.acc;
+
+                @Override
+                protected void ingestOneBlock(MemorySegment aad, long off) {
+                    aadRun.hash(aad, off, 1);
                 }
-                return length;
-            }
 
-            @Override
-            protected void finalizeState() {
-                checksum[0] ^= offset[0] ^ lDollar[0];
-                checksum[1] ^= offset[1] ^ lDollar[1];
-                checksum[2] ^= offset[2] ^ lDollar[2];
-                checksum[3] ^= offset[3] ^ lDollar[3];
+                @Override
+                protected void ingestBlocks(MemorySegment aad, long off, long blocks) {
+                    aadRun.hash(aad, off, blocks);
+                }
 
-                engine.encryptBlock(checksum, 0, checksum, 0);
+                @Override
+                protected void ingestLastBlock(MemorySegment aad, int length) {
+                    if (length == 16) {
+                        ingestOneBlock(aad, 0);
+                    } else if (length > 0) {
+                        var offset = aadRun.offset;
+                        xor(offset, lStar);
 
-                checksum[0] ^= sum[0];
-                checksum[1] ^= sum[1];
-                checksum[2] ^= sum[2];
-                checksum[3] ^= sum[3];
-            }
+                        Tools.ozpad(aad, length);
 
-            @Override
-            protected void generateTag(byte[] temp) {
-                byte[] dest = new byte[16];
-                Tools.store32BE(checksum[0], dest, 0);
-                Tools.store32BE(checksum[1], dest, 4);
-                Tools.store32BE(checksum[2], dest, 8);
-                Tools.store32BE(checksum[3], dest, 12);
+                        data[0] = aad.get(BIG_ENDIAN_32_BIT, 0) ^ offset[0];
+                        data[1] = aad.get(BIG_ENDIAN_32_BIT, 4) ^ offset[1];
+                        data[2] = aad.get(BIG_ENDIAN_32_BIT, 8) ^ offset[2];
+                        data[3] = aad.get(BIG_ENDIAN_32_BIT, 12) ^ offset[3];
 
-                System.arraycopy(dest, 0, temp, 0, tagLength);
-            }
+                        engine.encryptBlock(data, 0, data, 0);
+
+                        xor(aadRun.acc, data);
+                    }
+                }
+
+                @Override
+                protected void decryptOneBlock(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset) {
+                    msgRun.decrypt(decEngine, ciphertext, cOffset, plaintext, pOffset, 1);
+                }
+
+                @Override
+                protected void decryptBlocks(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+                    if (executor != null && blocks > 2 * BATCH_BLOCKS) {
+                        long c0 = cOffset, p0 = pOffset;
+                        long done = msgRun.parallel(executor, blocks,
+                                (batch, first) -> batch.decrypt(decEngine, ciphertext, c0 + 16 * first, plaintext, p0 + 16 * first, BATCH_BLOCKS));
+                        cOffset += 16 * done;
+                        pOffset += 16 * done;
+                        blocks -= done;
+                    }
+                    msgRun.decrypt(decEngine, ciphertext, cOffset, plaintext, pOffset, blocks);
+                }
+
+                @Override
+                protected int decryptLastBlock(MemorySegment buffer, int length, MemorySegment plaintext) {
+                    if (length == 16) {
+                        decryptOneBlock(buffer, 0, plaintext, 0);
+                    } else if (length > 0) {
+                        var offset = msgRun.offset;
+                        xor(offset, lStar);
+
+                        engine.encryptBlock(offset, 0, data, 0);
+
+                        buffer.set(BIG_ENDIAN_32_BIT, 0, buffer.get(BIG_ENDIAN_32_BIT, 0) ^ data[0]);
+                        buffer.set(BIG_ENDIAN_32_BIT, 4, buffer.get(BIG_ENDIAN_32_BIT, 4) ^ data[1]);
+                        buffer.set(BIG_ENDIAN_32_BIT, 8, buffer.get(BIG_ENDIAN_32_BIT, 8) ^ data[2]);
+                        buffer.set(BIG_ENDIAN_32_BIT, 12, buffer.get(BIG_ENDIAN_32_BIT, 12) ^ data[3]);
+
+                        Tools.ozpad(buffer, length);
+
+                        checksum[0] ^= buffer.get(BIG_ENDIAN_32_BIT, 0);
+                        checksum[1] ^= buffer.get(BIG_ENDIAN_32_BIT, 4);
+                        checksum[2] ^= buffer.get(BIG_ENDIAN_32_BIT, 8);
+                        checksum[3] ^= buffer.get(BIG_ENDIAN_32_BIT, 12);
+
+                        MemorySegment.copy(buffer, 0, plaintext, 0, length);
+                    }
+                    return length;
+                }
+
+                @Override
+                protected void finalizeState() {
+                    xor(checksum, msgRun.offset);
+                    xor(checksum, lDollar);
+
+                    engine.encryptBlock(checksum, 0, checksum, 0);
+
+                    xor(checksum, aadRun.acc);
+                }
+
+                @Override
+                protected void generateTag(byte[] temp) {
+                    byte[] dest = new byte[16];
+                    Tools.store32BE(checksum[0], dest, 0);
+                    Tools.store32BE(checksum[1], dest, 4);
+                    Tools.store32BE(checksum[2], dest, 8);
+                    Tools.store32BE(checksum[3], dest, 12);
+
+                    System.arraycopy(dest, 0, temp, 0, tagLength);
+                }
+
+                @Override
+                public AuthenticatedCipher getAlgorithm() {
+                    return AesOcb.this;
+                }
+            };
+        }
 
-            @Override
-            public AuthenticatedCipher getAlgorithm() {
-                return AesOcb.this;
-            }
-        };
     }
 
     @Override
@@ -6,6 +6,7 @@ package org.asterisk.crypto.aead;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.util.function.Function;
 import org.asterisk.crypto.helper.AbstractAuthenticaterEngine;
 import org.asterisk.crypto.helper.AbstractVerifierEngine;
 import org.asterisk.crypto.helper.Tools;
@@ -20,74 +21,62 @@ import static org.asterisk.crypto.helper.GfHelper.*;
  */
 public enum AesOtr implements AuthenticatedCipher {
 
-    AES_128_OTR_P(16) {
-        @Override
-        public EncryptEngine startEncryption(byte[] key, byte[] iv) {
-            return new OtrPEncrypter(new AesEncApi.Aes128EncApi(key), iv);
-        }
+    AES_128_OTR_P(16, AesEncApi.Aes128EncApi::new, true),
+    AES_128_OTR_S(16, AesEncApi.Aes128EncApi::new, false),
+    AES_192_OTR_P(24, AesEncApi.Aes192EncApi::new, true),
+    AES_192_OTR_S(24, AesEncApi.Aes192EncApi::new, false),
+    AES_256_OTR_P(32, AesEncApi.Aes256EncApi::new, true),
+    AES_256_OTR_S(32, AesEncApi.Aes256EncApi::new, false);
 
-        @Override
-        public DecryptEngine startDecryption(byte[] key, byte[] iv) {
-            return new OtrPDecrypter(new AesEncApi.Aes128EncApi(key), iv);
-        }
-    }, AES_128_OTR_S(16) {
-        @Override
-        public EncryptEngine startEncryption(byte[] key, byte[] iv) {
-            return new OtrSEncrypter(new AesEncApi.Aes128EncApi(key), iv);
-        }
-
-        @Override
-        public DecryptEngine startDecryption(byte[] key, byte[] iv) {
-            return new OtrSDecrypter(new AesEncApi.Aes128EncApi(key), iv);
-        }
-    }, AES_192_OTR_P(16) {
-        @Override
-        public EncryptEngine startEncryption(byte[] key, byte[] iv) {
-            return new OtrPEncrypter(new AesEncApi.Aes192EncApi(key), iv);
-        }
+    private static final ValueLayout.OfInt LAYOUT = Tools.BIG_ENDIAN_32_BIT;
 
-        @Override
-        public DecryptEngine startDecryption(byte[] key, byte[] iv) {
-            return new OtrPDecrypter(new AesEncApi.Aes192EncApi(key), iv);
-        }
-    }, AES_192_OTR_S(16) {
-        @Override
-        public EncryptEngine startEncryption(byte[] key, byte[] iv) {
-            return new OtrSEncrypter(new AesEncApi.Aes192EncApi(key), iv);
-        }
+    private final int keyLength;
+    private final Function<byte[], AesEncApi> constructor;
+    //the parallel variant, otherwise the serial one
+    private final boolean parallel;
 
-        @Override
-        public DecryptEngine startDecryption(byte[] key, byte[] iv) {
-            return new OtrSDecrypter(new AesEncApi.Aes192EncApi(key), iv);
-        }
-    }, AES_256_OTR_P(16) {
-        @Override
-        public EncryptEngine startEncryption(byte[] key, byte[] iv) {
-            return new OtrPEncrypter(new AesEncApi.Aes256EncApi(key), iv);
-        }
+    private AesOtr(int keyLength, Function<byte[], AesEncApi> constructor, boolean parallel) {
+        this.keyLength = keyLength;
+        this.constructor = constructor;
+        this.parallel = parallel;
+    }
 
-        @Override
-        public DecryptEngine startDecryption(byte[] key, byte[] iv) {
-            return new OtrPDecrypter(new AesEncApi.Aes256EncApi(key), iv);
-        }
-    }, AES_256_OTR_S(16) {
-        @Override
-        public EncryptEngine startEncryption(byte[] key, byte[] iv) {
-            return new OtrSEncrypter(new AesEncApi.Aes256EncApi(key), iv);
-        }
+    @Override
+    public EncryptEngine startEncryption(byte[] key, byte[] iv) {
+        return withKey(key).startEncryption(iv);
+    }
 
-        @Override
-        public DecryptEngine startDecryption(byte[] key, byte[] iv) {
-            return new OtrSDecrypter(new AesEncApi.Aes256EncApi(key), iv);
-        }
-    };
+    @Override
+    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
+        return withKey(key).startDecryption(iv);
+    }
 
-    private static final ValueLayout.OfInt LAYOUT = Tools.BIG_ENDIAN_32_BIT;
+    /**
+     * expands {@code key} once, returning a key object that starts engines
+     * without touching the key again
+     *
+     * @param key the key
+     *
+     * @return the expanded key
+     */
+    public Key withKey(byte[] key) {
+        var aes = constructor.apply(key);
+        return new Key() {
+            @Override
+            public EncryptEngine startEncryption(byte[] iv) {
+                return parallel ? new OtrPEncrypter(aes, iv) : new OtrSEncrypter(aes, iv);
+            }
 
-    private final int keyLength;
+            @Override
+            public DecryptEngine startDecryption(byte[] iv) {
+                return parallel ? new OtrPDecrypter(aes, iv) : new OtrSDecrypter(aes, iv);
+            }
 
-    private AesOtr(int keyLength) {
-        this.keyLength = keyLength;
+            @Override
+            public AuthenticatedCipher getAlgorithm() {
+                return AesOtr.this;
+            }
+        };
     }
 
     @Override
@@ -969,6 +958,8 @@ public enum AesOtr implements AuthenticatedCipher {
                 buffer.set(LAYOUT, 8, data[2] ^ buffer.get(LAYOUT, 8));
                 buffer.set(LAYOUT, 12, data[3] ^ buffer.get(LAYOUT, 12));
 
+                MemorySegment.copy(buffer, 0, plaintext, 0, length);
+
                 if (length < 16) {
                     Tools.ozpad(buffer.asSlice(0, 16), length);
                 }
@@ -45,9 +45,44 @@ public enum AesSilc implements AuthenticatedCipher {
 
     @Override
     public EncryptEngine startEncryption(byte[] key, byte[] iv) {
-        return new AbstractAuthenticaterEngine(16) {
+        return startEncryption(new AesEncApi.Aes128EncApi(key), iv);
+    }
+
+    @Override
+    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
+        return startDecryption(new AesEncApi.Aes128EncApi(key), iv);
+    }
+
+    /**
+     * expands {@code key} once, returning a key object that starts engines
+     * without touching the key again
+     *
+     * @param key the key
+     *
+     * @return the expanded key
+     */
+    public Key withKey(byte[] key) {
+        var aes = new AesEncApi.Aes128EncApi(key);
+        return new Key() {
+            @Override
+            public EncryptEngine startEncryption(byte[] iv) {
+                return AesSilc.this.startEncryption(aes, iv);
+            }
+
+            @Override
+            public DecryptEngine startDecryption(byte[] iv) {
+                return AesSilc.this.startDecryption(aes, iv);
+            }
 
-            private final AesEncApi.Aes128EncApi aes = new AesEncApi.Aes128EncApi(key);
+            @Override
+            public AuthenticatedCipher getAlgorithm() {
+                return AesSilc.this;
+            }
+        };
+    }
+
+    private EncryptEngine startEncryption(AesEncApi aes, byte[] iv) {
+        return new AbstractAuthenticaterEngine(16) {
 
             private final int[] state = {
                 PARAM, Tools.load32BE(iv, 0), Tools.load32BE(iv, 4), Tools.load32BE(iv, 8)
@@ -168,12 +203,9 @@ public enum AesSilc implements AuthenticatedCipher {
         };
     }
 
-    @Override
-    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
+    private DecryptEngine startDecryption(AesEncApi aes, byte[] iv) {
         return new AbstractVerifierEngine(16) {
 
-            private final AesEncApi.Aes128EncApi aes = new AesEncApi.Aes128EncApi(key);
-
             private final int[] state = {
                 PARAM, Tools.load32BE(iv, 0), Tools.load32BE(iv, 4), Tools.load32BE(iv, 8)
             };
@@ -36,6 +36,9 @@ public enum ChaChaPoly1305 implements AuthenticatedCipher {
     CHACHA12_POLY1305(ChaCha.CHACHA12),
     CHACHA6_POLY1305(ChaCha.CHACHA6);
 
+    //the data is processed in tiles small enough to stay in L1 between the keystream and the MAC
+    private static final int TILE_SIZE = 4096;
+
     private final ChaCha cipher;
 
     private ChaChaPoly1305(ChaCha cipher) {
@@ -71,9 +74,7 @@ public enum ChaChaPoly1305 implements AuthenticatedCipher {
                     ingestingAAD = false;
                 }
                 msglen += plaintext.byteSize();
-                long offset = encrypter.encrypt(plaintext, ciphertext);
-                mac.ingest(ciphertext.asSlice(0, offset));
-                return offset;
+                return encryptAndMac(encrypter, mac, plaintext, ciphertext);
             }
 
             @Override
@@ -141,8 +142,7 @@ public enum ChaChaPoly1305 implements AuthenticatedCipher {
                     }
                     ingestingAAD = false;
                 }
-                mac.ingest(ciphertext);
-                long offset = encrypter.encrypt(ciphertext, plaintext);
+                long offset = macAndDecrypt(encrypter, mac, ciphertext, plaintext);
                 msglen += offset;
                 return offset;
             }
@@ -185,6 +185,40 @@ public enum ChaChaPoly1305 implements AuthenticatedCipher {
         };
     }
 
+    /**
+     * encrypts {@code plaintext} a tile at a time, authenticating every tile
+     * of ciphertext right after writing it, instead of reading all of it back
+     * for the MAC
+     *
+     * @return the number of bytes written to {@code ciphertext}
+     */
+    private static long encryptAndMac(ChaCha.ChaChaEngine encrypter, Poly1305.Poly1305Engine mac, MemorySegment plaintext, MemorySegment ciphertext) {
+        long length = plaintext.byteSize(), cOffset = 0;
+        for (long pOffset = 0; pOffset < length; pOffset += TILE_SIZE) {
+            long written = encrypter.encrypt(plaintext.asSlice(pOffset, Math.min(TILE_SIZE, length - pOffset)), ciphertext.asSlice(cOffset));
+            mac.ingest(ciphertext.asSlice(cOffset, written));
+            cOffset += written;
+        }
+        return cOffset;
+    }
+
+    /**
+     * authenticates and decrypts {@code ciphertext} a tile at a time, so every
+     * tile is only read from memory once. Works in place, the plaintext never
+     * gets ahead of the ciphertext
+     *
+     * @return the number of bytes written to {@code plaintext}
+     */
+    private static long macAndDecrypt(ChaCha.ChaChaEngine encrypter, Poly1305.Poly1305Engine mac, MemorySegment ciphertext, MemorySegment plaintext) {
+        long length = ciphertext.byteSize(), pOffset = 0;
+        for (long cOffset = 0; cOffset < length; cOffset += TILE_SIZE) {
+            var tile = ciphertext.asSlice(cOffset, Math.min(TILE_SIZE, length - cOffset));
+            mac.ingest(tile);
+            pOffset += encrypter.encrypt(tile, plaintext.asSlice(pOffset));
+        }
+        return pOffset;
+    }
+
     @Override
     public int keyLength() {
         return 32;
@@ -0,0 +1,360 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.aead;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import org.asterisk.crypto.AuthenticatedCipher;
+import org.asterisk.crypto.helper.AbstractAuthenticaterEngine;
+import org.asterisk.crypto.helper.AbstractVerifierEngine;
+import org.asterisk.crypto.helper.Tools;
+import org.asterisk.crypto.lowlevel.Farfalle;
+
+/**
+ * Kravatte-SANE, the session authenticated encryption mode of Farfalle.
+ * <p>
+ * The iv is the nonce of the session. Every message is encrypted with the
+ * output of Kravatte on the history of the session so far, skipping its first
+ * 16 bytes, and its tag is the first 16 bytes of the output on the history
+ * after the message. The history is the sequence of the nonce, the associated
+ * data of every message that has any (or whose plaintext is empty) and the
+ * ciphertext of every non-empty message, each string suffixed with a bit
+ * telling associated data from ciphertext and a bit alternating between
+ * messages.
+ * <p>
+ * Like {@link Ketje}, the engines are sessions: once a tag has been generated
+ * (or, when decrypting, a tag has been verified) the next message can be
+ * processed on the same engine, starting again with its associated data. Each
+ * tag authenticates every message that came before it. A decryption session
+ * cannot continue past a tag that failed to verify
+ *
+ * @author Sayantan Chakraborty
+ */
+public enum KravatteSane implements AuthenticatedCipher {
+
+    KRAVATTE_SANE;
+
+    private static final ValueLayout.OfLong LAYOUT = Tools.LITTLE_ENDIAN_64_BIT;
+
+    //blocks encrypted before their ciphertext is compressed, 12.8 KiB with 8 lanes
+    private static final int TILE_BLOCKS = 8 * Farfalle.LANES;
+
+    @Override
+    public EncryptEngine startEncryption(byte[] key, byte[] iv) {
+        return new AbstractAuthenticaterEngine(Farfalle.BLOCK_SIZE) {
+
+            private final Session session = new Session(key, iv);
+            private final long[] words = new long[25];
+
+            private boolean emptyAad = false;
+
+            @Override
+            protected void ingestOneBlock(MemorySegment aad, long offset) {
+                session.compress(aad, offset, 1);
+            }
+
+            @Override
+            protected void ingestBlocks(MemorySegment aad, long offset, long blocks) {
+                session.compress(aad, offset, blocks);
+            }
+
+            @Override
+            protected void ingestLastBlock(MemorySegment aad, int length) {
+                if (length > 0) {
+                    session.compressLast(aad, length, false);
+                } else {
+                    //only part of the history if the plaintext turns out empty as well
+                    emptyAad = true;
+                }
+            }
+
+            @Override
+            protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
+                encryptBlocks(plaintext, pOffset, ciphertext, cOffset, 1);
+            }
+
+            @Override
+            protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+                session.encrypt(plaintext, pOffset, ciphertext, cOffset, blocks);
+            }
+
+            @Override
+            protected int encryptLastBlock(MemorySegment buffer, int length, MemorySegment ciphertext) {
+                if (length == 0) {
+                    if (emptyAad) {
+                        session.compressLast(buffer, 0, false);
+                    }
+                    return 0;
+                }
+                for (int i = 0; i < 25; i++) {
+                    words[i] = buffer.get(LAYOUT, 8 * i);
+                }
+                session.crypt(words, length);
+                for (int i = 0; i < 25; i++) {
+                    buffer.set(LAYOUT, 8 * i, words[i]);
+                }
+                MemorySegment.copy(buffer, 0, ciphertext, 0, length);
+                session.compressLast(buffer, length, true);
+                return length;
+            }
+
+            @Override
+            protected void finalizeState() {
+                session.finishMessage();
+                emptyAad = false;
+                enableAad(true);//this makes it a session-based cipher
+            }
+
+            @Override
+            protected void generateTag(byte[] dest) {
+                session.tag(dest);
+            }
+
+            @Override
+            public AuthenticatedCipher getAlgorithm() {
+                return KRAVATTE_SANE;
+            }
+        };
+    }
+
+    @Override
+    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
+        return new AbstractVerifierEngine(Farfalle.BLOCK_SIZE) {
+
+            private final Session session = new Session(key, iv);
+            private final long[] words = new long[25];
+
+            private boolean emptyAad = false;
+
+            @Override
+            protected void ingestOneBlock(MemorySegment aad, long offset) {
+                session.compress(aad, offset, 1);
+            }
+
+            @Override
+            protected void ingestBlocks(MemorySegment aad, long offset, long blocks) {
+                session.compress(aad, offset, blocks);
+            }
+
+            @Override
+            protected void ingestLastBlock(MemorySegment aad, int length) {
+                if (length > 0) {
+                    session.compressLast(aad, length, false);
+                } else {
+                    emptyAad = true;
+                }
+            }
+
+            @Override
+            protected void decryptOneBlock(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset) {
+                decryptBlocks(ciphertext, cOffset, plaintext, pOffset, 1);
+            }
+
+            @Override
+            protected void decryptBlocks(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+                session.decrypt(ciphertext, cOffset, plaintext, pOffset, blocks);
+            }
+
+            @Override
+            protected int decryptLastBlock(MemorySegment buffer, int length, MemorySegment plaintext) {
+                if (length == 0) {
+                    if (emptyAad) {
+                        session.compressLast(buffer, 0, false);
+                    }
+                    return 0;
+                }
+                for (int i = 0; i < 25; i++) {
+                    words[i] = buffer.get(LAYOUT, 8 * i);
+                }
+                session.compressLast(buffer, length, true);
+                session.crypt(words, length);
+                for (int i = 0; i < 25; i++) {
+                    buffer.set(LAYOUT, 8 * i, words[i]);
+                }
+                MemorySegment.copy(buffer, 0, plaintext, 0, length);
+                return length;
+            }
+
+            @Override
+            protected void finalizeState() {
+                session.finishMessage();
+                emptyAad = false;
+            }
+
+            @Override
+            protected void generateTag(byte[] dest) {
+                session.tag(dest);
+            }
+
+            @Override
+            public boolean verify(byte[] tag, int offset, int length) {
+                var verified = super.verify(tag, offset, length);
+                if (verified) {
+                    enableAad(true);//we will be able to continue unwrapping only if the tag verifies
+                }
+                return verified;
+            }
+
+            @Override
+            public AuthenticatedCipher getAlgorithm() {
+                return KRAVATTE_SANE;
+            }
+        };
+    }
+
+    @Override
+    public int keyLength() {
+        return 32;
+    }
+
+    @Override
+    public int ivLength() {
+        return 16;
+    }
+
+    @Override
+    public int tagLength() {
+        return 16;
+    }
+
+    /**
+     * the Farfalle state of a session: the compressed history and the output
+     * on it, of which the current message uses the block {@code output}
+     */
+    private static final class Session {
+
+        private final long[] rolledKey, accumulator = new long[25];
+        private final long[] y = new long[25], mask = new long[25], output = new long[25];
+        private final long[] next = new long[25 * Farfalle.LANES];
+
+        private int e = 0;
+
+        private Session(byte[] key, byte[] nonce) {
+            rolledKey = Farfalle.mask(key);
+
+            var buffer = MemorySegment.ofArray(new byte[Farfalle.BLOCK_SIZE]);
+            var input = MemorySegment.ofArray(nonce);
+            long blocks = (input.byteSize() - 1) / Farfalle.BLOCK_SIZE;
+            if (blocks > 0) {
+                Farfalle.compress(input, 0, blocks, rolledKey, accumulator);
+            }
+            int length = (int) (input.byteSize() - blocks * Farfalle.BLOCK_SIZE);
+            MemorySegment.copy(input, blocks * Farfalle.BLOCK_SIZE, buffer, 0, length);
+            Farfalle.compressLast(buffer, length, (byte) 0x01, rolledKey, accumulator);
+
+            startOutput();
+        }
+
+        private void startOutput() {
+            System.arraycopy(accumulator, 0, y, 0, 25);
+            Farfalle.permute(y);
+            System.arraycopy(rolledKey, 0, mask, 0, 25);
+            Farfalle.expand(y, mask, output, 1);
+        }
+
+        private void compress(MemorySegment input, long offset, long blocks) {
+            Farfalle.compress(input, offset, blocks, rolledKey, accumulator);
+        }
+
+        private void compressLast(MemorySegment buffer, int length, boolean ciphertext) {
+            //the string, its suffix bits and the first bit of the padding
+            byte delimiter = (byte) ((ciphertext ? 0b001 : 0b000) | (e << 1) | 0b100);
+            Farfalle.compressLast(buffer, length, delimiter, rolledKey, accumulator);
+        }
+
+        /**
+         * XORs the keystream into the first {@code length} bytes of a message
+         * block. The keystream is offset from the output blocks by the 2
+         * words taken by the tag
+         */
+        private void crypt(long[] words, int length) {
+            for (int i = 0; i < 23; i++) {
+                words[i] ^= output[i + 2];
+            }
+            if (length > 8 * 23) {
+                Farfalle.expand(y, mask, output, 1);
+                words[23] ^= output[0];
+                words[24] ^= output[1];
+            }
+        }
+
+        /**
+         * encrypts {@code blocks} whole message blocks and compresses their
+         * ciphertext into the history, a tile of {@code TILE_BLOCKS} blocks
+         * at a time so that the ciphertext is still in cache when it is
+         * compressed
+         */
+        private void encrypt(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+            while (blocks > 0) {
+                int count = (int) Math.min(blocks, TILE_BLOCKS);
+                crypt(plaintext, pOffset, ciphertext, cOffset, count);
+                Farfalle.compress(ciphertext, cOffset, count, rolledKey, accumulator);
+                pOffset += count * Farfalle.BLOCK_SIZE;
+                cOffset += count * Farfalle.BLOCK_SIZE;
+                blocks -= count;
+            }
+        }
+
+        /**
+         * like {@link #encrypt}, except that the ciphertext of each tile is
+         * compressed before the plaintext can overwrite it
+         */
+        private void decrypt(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+            while (blocks > 0) {
+                int count = (int) Math.min(blocks, TILE_BLOCKS);
+                Farfalle.compress(ciphertext, cOffset, count, rolledKey, accumulator);
+                crypt(ciphertext, cOffset, plaintext, pOffset, count);
+                cOffset += count * Farfalle.BLOCK_SIZE;
+                pOffset += count * Farfalle.BLOCK_SIZE;
+                blocks -= count;
+            }
+        }
+
+        /**
+         * XORs the keystream into {@code blocks} whole message blocks of
+         * {@code input}, writing them to {@code dest}. The output blocks they
+         * need are expanded {@code Farfalle.LANES} at a time
+         */
+        private void crypt(MemorySegment input, long iOffset, MemorySegment dest, long dOffset, int blocks) {
+            while (blocks > 0) {
+                int count = Math.min(blocks, Farfalle.LANES);
+                Farfalle.expand(y, mask, next, count);
+                for (int i = 0; i < 25 * count; i++) {
+                    long key = i < 23 ? output[i + 2] : next[i - 23];
+                    dest.set(LAYOUT, dOffset + 8 * i, input.get(LAYOUT, iOffset + 8 * i) ^ key);
+                }
+                System.arraycopy(next, 25 * (count - 1), output, 0, 25);
+                iOffset += count * Farfalle.BLOCK_SIZE;
+                dOffset += count * Farfalle.BLOCK_SIZE;
+                blocks -= count;
+            }
+        }
+
+        private void finishMessage() {
+            startOutput();
+            e ^= 1;
+        }
+
+        private void tag(byte[] dest) {
+            Tools.store64LE(output[0], dest, 0);
+            Tools.store64LE(output[1], dest, 8);
+        }
+
+    }
+
+}
@@ -22,6 +22,10 @@ import java.lang.foreign.SegmentScope;
 import java.lang.foreign.ValueLayout;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
 import org.asterisk.crypto.Tested;
 import org.asterisk.crypto.helper.Tools;
 import org.asterisk.crypto.AuthenticatedCipher;
@@ -34,6 +38,9 @@ public final class Norx32 implements AuthenticatedCipher {
 
     private static final int RATE = 48;
 
+    //lanes are only handed to an executor when each gets at least this many blocks
+    private static final int LANE_BLOCKS = 1024;
+
     private static final int HEADER = 0x01, PAYLOAD = 0x02, TRAILER = 0x04, TAG = 0x08, BRANCH = 0x10, MERGE = 0x20;
 
     private static final ValueLayout.OfInt LAYOUT = Tools.LITTLE_ENDIAN_32_BIT;
@@ -197,7 +204,7 @@ public final class Norx32 implements AuthenticatedCipher {
             case 0 ->
                 new BushNorx32Encrypter(key, iv);
             default ->
-                new ParallelNorx32Encrypter(key, iv);
+                new ParallelNorx32Encrypter(key, iv, null);
         };
     }
 
@@ -209,10 +216,89 @@ public final class Norx32 implements AuthenticatedCipher {
             case 0 ->
                 new BushNorx32Decrypter(key, iv);
             default ->
-                new ParallelNorx32Decrypter(key, iv);
+                new ParallelNorx32Decrypter(key, iv, null);
         };
     }
 
+    /**
+     * starts an encryption engine that runs the lanes of a parallel instance
+     * on the {@link ForkJoinPool#commonPool() common pool}, or a serial one
+     * if the common pool has no parallelism
+     *
+     * @param key the key
+     * @param iv  the iv
+     *
+     * @return the engine
+     *
+     * @see #startParallelEncryption(byte[], byte[], Executor)
+     */
+    public EncryptEngine startParallelEncryption(byte[] key, byte[] iv) {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallelEncryption(key, iv, ForkJoinPool.commonPool()) : startEncryption(key, iv);
+    }
+
+    /**
+     * starts an encryption engine that, for long runs of input, encrypts each
+     * of the {@code parallelism} lanes on a thread of its own: the calling
+     * thread takes the first lane and {@code executor} the others. The
+     * output is identical to that of the engine of
+     * {@link #startEncryption(byte[], byte[])}. Instances with a parallelism
+     * of 0 or 1 have no lanes to split and return that engine.
+     * <p>
+     * Segments passed to {@code encrypt} must be accessible from the threads
+     * of {@code executor}, i.e. they must not be confined to the calling
+     * thread
+     *
+     * @param key      the key
+     * @param iv       the iv
+     * @param executor the executor to encrypt the lanes on
+     *
+     * @return the engine
+     */
+    public EncryptEngine startParallelEncryption(byte[] key, byte[] iv, Executor executor) {
+        Objects.requireNonNull(executor);
+        return parallelism > 1 ? new ParallelNorx32Encrypter(key, iv, executor) : startEncryption(key, iv);
+    }
+
+    /**
+     * starts a decryption engine that runs the lanes of a parallel instance
+     * on the {@link ForkJoinPool#commonPool() common pool}, or a serial one
+     * if the common pool has no parallelism
+     *
+     * @param key the key
+     * @param iv  the iv
+     *
+     * @return the engine
+     *
+     * @see #startParallelDecryption(byte[], byte[], Executor)
+     */
+    public DecryptEngine startParallelDecryption(byte[] key, byte[] iv) {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallelDecryption(key, iv, ForkJoinPool.commonPool()) : startDecryption(key, iv);
+    }
+
+    /**
+     * starts a decryption engine that, for long runs of input, decrypts each
+     * of the {@code parallelism} lanes on a thread of its own: the calling
+     * thread takes the first lane and {@code executor} the others. The
+     * output is identical to that of the engine of
+     * {@link #startDecryption(byte[], byte[])}, and in-place decryption is
+     * allowed. Instances with a parallelism of 0 or 1 have no lanes to split
+     * and return that engine.
+     * <p>
+     * Segments passed to {@code decrypt} must be accessible from the threads
+     * of {@code executor}, i.e. they must not be confined to the calling
+     * thread
+     *
+     * @param key      the key
+     * @param iv       the iv
+     * @param executor the executor to decrypt the lanes on
+     *
+     * @return the engine
+     */
+    public DecryptEngine startParallelDecryption(byte[] key, byte[] iv, Executor executor) {
+        Objects.requireNonNull(executor);
+        return parallelism > 1 ? new ParallelNorx32Decrypter(key, iv, executor) : startDecryption(key, iv);
+    }
+
     @Override
     public int keyLength() {
         return 16;
@@ -360,6 +446,20 @@ public final class Norx32 implements AuthenticatedCipher {
         }
     }
 
+    /**
+     * runs lane i for every i in [1, parallelism) on {@code executor} and
+     * lane 0 on the calling thread, returning once all of them are done
+     */
+    private void runLanes(Executor executor, IntConsumer lane) {
+        var others = new CompletableFuture<?>[parallelism - 1];
+        for (int i = 1; i < parallelism; i++) {
+            int index = i;
+            others[i - 1] = CompletableFuture.runAsync(() -> lane.accept(index), executor);
+        }
+        lane.accept(0);
+        CompletableFuture.allOf(others).join();
+    }
+
     private void encryptBlock(int[] state, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
         state[15] ^= PAYLOAD;
 
@@ -502,8 +602,11 @@ public final class Norx32 implements AuthenticatedCipher {
 
         private final int[][] branches = new int[parallelism][16];
 
-        private ParallelNorx32Encrypter(byte[] key, byte[] iv) {
+        private final Executor executor;
+
+        private ParallelNorx32Encrypter(byte[] key, byte[] iv, Executor executor) {
             super(key, iv, parallelism * RATE);
+            this.executor = executor;
         }
 
         @Override
@@ -518,6 +621,22 @@ public final class Norx32 implements AuthenticatedCipher {
             }
         }
 
+        @Override
+        void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+            if (executor == null || blocks < LANE_BLOCKS) {
+                super.encryptBlocks(plaintext, pOffset, ciphertext, cOffset, blocks);
+                return;
+            }
+            //lane i owns block i of every run of parallelism blocks
+            runLanes(executor, i -> {
+                var branch = branches[i];
+                long p = pOffset + i * RATE, c = cOffset + i * RATE;
+                for (long j = 0; j < blocks; j++, p += parallelism * RATE, c += parallelism * RATE) {
+                    encryptBlock(branch, plaintext, p, ciphertext, c);
+                }
+            });
+        }
+
         @Override
         void encryptLastBlock(MemorySegment buffer, int position, MemorySegment ciphertext) {
             int i = 0, offset = 0;
@@ -671,6 +790,12 @@ public final class Norx32 implements AuthenticatedCipher {
 
         abstract void encryptLastBlock(MemorySegment buffer, int position, MemorySegment ciphertext);
 
+        void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+            for (; blocks > 0; blocks--, pOffset += rate, cOffset += rate) {
+                encryptOneBlock(plaintext, pOffset, ciphertext, cOffset);
+            }
+        }
+
         @Override
         public long encrypt(MemorySegment plaintext, MemorySegment ciphertext) {
             switch (stage) {
@@ -705,11 +830,12 @@ public final class Norx32 implements AuthenticatedCipher {
                     position = 0;
                 }
             }
-            while (length >= rate) {
-                encryptOneBlock(plaintext, pOffset, ciphertext, cOffset);
-                pOffset += rate;
-                length -= rate;
-                cOffset += rate;
+            if (length >= rate) {
+                long blocks = length / rate;
+                encryptBlocks(plaintext, pOffset, ciphertext, cOffset, blocks);
+                pOffset += blocks * rate;
+                length -= blocks * rate;
+                cOffset += blocks * rate;
             }
             if (length > 0) {
                 MemorySegment.copy(plaintext, pOffset, buffer, 0, length);
@@ -811,8 +937,11 @@ public final class Norx32 implements AuthenticatedCipher {
 
         private final int[][] branches = new int[parallelism][16];
 
-        private ParallelNorx32Decrypter(byte[] key, byte[] iv) {
+        private final Executor executor;
+
+        private ParallelNorx32Decrypter(byte[] key, byte[] iv, Executor executor) {
             super(key, iv, parallelism * RATE);
+            this.executor = executor;
         }
 
         @Override
@@ -827,6 +956,22 @@ public final class Norx32 implements AuthenticatedCipher {
             }
         }
 
+        @Override
+        void decryptBlocks(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+            if (executor == null || blocks < LANE_BLOCKS) {
+                super.decryptBlocks(ciphertext, cOffset, plaintext, pOffset, blocks);
+                return;
+            }
+            //lane i owns block i of every run of parallelism blocks
+            runLanes(executor, i -> {
+                var branch = branches[i];
+                long c = cOffset + i * RATE, p = pOffset + i * RATE;
+                for (long j = 0; j < blocks; j++, c += parallelism * RATE, p += parallelism * RATE) {
+                    decryptBlock(branch, ciphertext, c, plaintext, p);
+                }
+            });
+        }
+
         @Override
         void decryptLastBlock(MemorySegment buffer, int position, MemorySegment plaintext) {
             int i = 0, offset = 0;
@@ -1014,6 +1159,12 @@ public final class Norx32 implements AuthenticatedCipher {
 
         abstract void decryptLastBlock(MemorySegment buffer, int position, MemorySegment plaintext);
 
+        void decryptBlocks(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+            for (; blocks > 0; blocks--, cOffset += rate, pOffset += rate) {
+                decryptOneBlock(ciphertext, cOffset, plaintext, pOffset);
+            }
+        }
+
         @Override
         public long decrypt(MemorySegment ciphertext, MemorySegment plaintext) {
             switch (stage) {
@@ -1048,17 +1199,18 @@ public final class Norx32 implements AuthenticatedCipher {
                     position = 0;
                 }
             }
-            while (length >= rate) {
-                decryptOneBlock(ciphertext, cOffset, plaintext, pOffset);
-                cOffset += rate;
-                length -= rate;
-                pOffset += rate;
+            if (length >= rate) {
+                long blocks = length / rate;
+                decryptBlocks(ciphertext, cOffset, plaintext, pOffset, blocks);
+                cOffset += blocks * rate;
+                length -= blocks * rate;
+                pOffset += blocks * rate;
             }
             if (length > 0) {
                 MemorySegment.copy(ciphertext, cOffset, buffer, 0, length);
                 position = (int) length;
             }
-            return cOffset;
+            return pOffset;
         }
 
         @Override
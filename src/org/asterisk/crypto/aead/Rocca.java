@@ -86,6 +86,93 @@ public enum Rocca implements AuthenticatedCipher {
                 data.get(LAYOUT, offset + 28));
     }
 
+    //1 KiB of whole blocks per bulk copy
+    private static final int TILE_WORDS = 256;
+
+    private static void ingestTiles(int[] state, int[] words, MemorySegment aad, long offset, long blocks) {
+        while (blocks > 0) {
+            int n = (int) Math.min(blocks, TILE_WORDS / 8);
+            MemorySegment.copy(aad, LAYOUT, offset, words, 0, 8 * n);
+            for (int i = 0; i < 8 * n; i += 8) {
+                round(state, words[i], words[i + 1], words[i + 2], words[i + 3], words[i + 4], words[i + 5], words[i + 6], words[i + 7]);
+            }
+            offset += 32L * n;
+            blocks -= n;
+        }
+    }
+
+    private static void encryptTiles(int[] state, int[] data, int[] words, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+        while (blocks > 0) {
+            int n = (int) Math.min(blocks, TILE_WORDS / 8);
+            MemorySegment.copy(plaintext, LAYOUT, pOffset, words, 0, 8 * n);
+            for (int i = 0; i < 8 * n; i += 8) {
+                int m0 = words[i];
+                int m1 = words[i + 1];
+                int m2 = words[i + 2];
+                int m3 = words[i + 3];
+                int m4 = words[i + 4];
+                int m5 = words[i + 5];
+                int m6 = words[i + 6];
+                int m7 = words[i + 7];
+
+                aesRound(state, 4, data, 0, state, 20);
+                words[i] = data[0] ^ m0;
+                words[i + 1] = data[1] ^ m1;
+                words[i + 2] = data[2] ^ m2;
+                words[i + 3] = data[3] ^ m3;
+
+                aesRound(state[0] ^ state[16], state[1] ^ state[17], state[2] ^ state[18], state[3] ^ state[19], data, 0, state, 8);
+                words[i + 4] = data[0] ^ m4;
+                words[i + 5] = data[1] ^ m5;
+                words[i + 6] = data[2] ^ m6;
+                words[i + 7] = data[3] ^ m7;
+
+                round(state, m0, m1, m2, m3, m4, m5, m6, m7);
+            }
+            MemorySegment.copy(words, 0, ciphertext, LAYOUT, cOffset, 8 * n);
+            pOffset += 32L * n;
+            cOffset += 32L * n;
+            blocks -= n;
+        }
+    }
+
+    private static void decryptTiles(int[] state, int[] data, int[] words, MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+        while (blocks > 0) {
+            int n = (int) Math.min(blocks, TILE_WORDS / 8);
+            MemorySegment.copy(ciphertext, LAYOUT, cOffset, words, 0, 8 * n);
+            for (int i = 0; i < 8 * n; i += 8) {
+                aesRound(state, 4, data, 0, state, 20);
+
+                int m0 = words[i] ^ data[0];
+                int m1 = words[i + 1] ^ data[1];
+                int m2 = words[i + 2] ^ data[2];
+                int m3 = words[i + 3] ^ data[3];
+
+                aesRound(state[0] ^ state[16], state[1] ^ state[17], state[2] ^ state[18], state[3] ^ state[19], data, 0, state, 8);
+
+                int m4 = words[i + 4] ^ data[0];
+                int m5 = words[i + 5] ^ data[1];
+                int m6 = words[i + 6] ^ data[2];
+                int m7 = words[i + 7] ^ data[3];
+
+                words[i] = m0;
+                words[i + 1] = m1;
+                words[i + 2] = m2;
+                words[i + 3] = m3;
+                words[i + 4] = m4;
+                words[i + 5] = m5;
+                words[i + 6] = m6;
+                words[i + 7] = m7;
+
+                round(state, m0, m1, m2, m3, m4, m5, m6, m7);
+            }
+            MemorySegment.copy(words, 0, plaintext, LAYOUT, pOffset, 8 * n);
+            cOffset += 32L * n;
+            pOffset += 32L * n;
+            blocks -= n;
+        }
+    }
+
     private static int[] init(byte[] key, byte[] iv) {
         int k4 = Tools.load32BE(key, 16);
         int k5 = Tools.load32BE(key, 20);
@@ -119,18 +206,23 @@ public enum Rocca implements AuthenticatedCipher {
     public EncryptEngine startEncryption(byte[] key, byte[] iv) {
         return new AbstractAuthenticaterEngine(32) {
 
-            private final int[] state = init(key, iv), data = new int[4];
+            private final int[] state = init(key, iv), data = new int[4], words = new int[TILE_WORDS];
             private long adlen = 0, msglen = 0;
 
             @Override
             protected void ingestOneBlock(MemorySegment aad, long offset) {
-                round(state, aad, offset);
-                adlen++;
+                ingestBlocks(aad, offset, 1);
+            }
+
+            @Override
+            protected void ingestBlocks(MemorySegment aad, long offset, long blocks) {
+                ingestTiles(state, words, aad, offset, blocks);
+                adlen += blocks;
             }
 
             @Override
             protected void ingestLastBlock(MemorySegment aad, int length) {
-                if (length == 16) {
+                if (length == 32) {
                     ingestOneBlock(aad, 0);
                     adlen = Long.reverseBytes(adlen << 8);
                 } else if (length > 0) {
@@ -142,30 +234,13 @@ public enum Rocca implements AuthenticatedCipher {
 
             @Override
             protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
-                int m0 = plaintext.get(LAYOUT, pOffset + 0);
-                int m1 = plaintext.get(LAYOUT, pOffset + 4);
-                int m2 = plaintext.get(LAYOUT, pOffset + 8);
-                int m3 = plaintext.get(LAYOUT, pOffset + 12);
-                int m4 = plaintext.get(LAYOUT, pOffset + 16);
-                int m5 = plaintext.get(LAYOUT, pOffset + 20);
-                int m6 = plaintext.get(LAYOUT, pOffset + 24);
-                int m7 = plaintext.get(LAYOUT, pOffset + 28);
-
-                aesRound(state, 4, data, 0, state, 20);
-                ciphertext.set(LAYOUT, cOffset + 0, data[0] ^ m0);
-                ciphertext.set(LAYOUT, cOffset + 4, data[1] ^ m1);
-                ciphertext.set(LAYOUT, cOffset + 8, data[2] ^ m2);
-                ciphertext.set(LAYOUT, cOffset + 12, data[3] ^ m3);
-
-                aesRound(state[0] ^ state[16], state[1] ^ state[17], state[2] ^ state[18], state[3] ^ state[19], data, 0, state, 8);
-                ciphertext.set(LAYOUT, cOffset + 16, data[0] ^ m4);
-                ciphertext.set(LAYOUT, cOffset + 20, data[1] ^ m5);
-                ciphertext.set(LAYOUT, cOffset + 24, data[2] ^ m6);
-                ciphertext.set(LAYOUT, cOffset + 28, data[3] ^ m7);
-
-                round(state, m0, m1, m2, m3, m4, m5, m6, m7);
+                encryptBlocks(plaintext, pOffset, ciphertext, cOffset, 1);
+            }
 
-                msglen++;
+            @Override
+            protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+                encryptTiles(state, data, words, plaintext, pOffset, ciphertext, cOffset, blocks);
+                msglen += blocks;
             }
 
             @Override
@@ -210,18 +285,23 @@ public enum Rocca implements AuthenticatedCipher {
     public DecryptEngine startDecryption(byte[] key, byte[] iv) {
         return new AbstractVerifierEngine(32) {
 
-            private final int[] state = init(key, iv), data = new int[4];
+            private final int[] state = init(key, iv), data = new int[4], words = new int[TILE_WORDS];
             private long adlen = 0, msglen = 0;
 
             @Override
             protected void ingestOneBlock(MemorySegment aad, long offset) {
-                round(state, aad, offset);
-                adlen++;
+                ingestBlocks(aad, offset, 1);
+            }
+
+            @Override
+            protected void ingestBlocks(MemorySegment aad, long offset, long blocks) {
+                ingestTiles(state, words, aad, offset, blocks);
+                adlen += blocks;
             }
 
             @Override
             protected void ingestLastBlock(MemorySegment aad, int length) {
-                if (length == 16) {
+                if (length == 32) {
                     ingestOneBlock(aad, 0);
                     adlen = Long.reverseBytes(adlen << 8);
                 } else if (length > 0) {
@@ -233,33 +313,13 @@ public enum Rocca implements AuthenticatedCipher {
 
             @Override
             protected void decryptOneBlock(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset) {
+                decryptBlocks(ciphertext, cOffset, plaintext, pOffset, 1);
+            }
 
-                aesRound(state, 4, data, 0, state, 20);
-
-                int m0 = ciphertext.get(LAYOUT, cOffset + 0) ^ data[0];
-                int m1 = ciphertext.get(LAYOUT, cOffset + 4) ^ data[1];
-                int m2 = ciphertext.get(LAYOUT, cOffset + 8) ^ data[2];
-                int m3 = ciphertext.get(LAYOUT, cOffset + 12) ^ data[3];
-
-                aesRound(state[0] ^ state[16], state[1] ^ state[17], state[2] ^ state[18], state[3] ^ state[19], data, 0, state, 8);
-
-                int m4 = ciphertext.get(LAYOUT, cOffset + 16) ^ data[0];
-                int m5 = ciphertext.get(LAYOUT, cOffset + 20) ^ data[1];
-                int m6 = ciphertext.get(LAYOUT, cOffset + 24) ^ data[2];
-                int m7 = ciphertext.get(LAYOUT, cOffset + 28) ^ data[3];
-
-                plaintext.set(LAYOUT, pOffset + 0, m0);
-                plaintext.set(LAYOUT, pOffset + 4, m1);
-                plaintext.set(LAYOUT, pOffset + 8, m2);
-                plaintext.set(LAYOUT, pOffset + 12, m3);
-                plaintext.set(LAYOUT, pOffset + 16, m4);
-                plaintext.set(LAYOUT, pOffset + 20, m5);
-                plaintext.set(LAYOUT, pOffset + 24, m6);
-                plaintext.set(LAYOUT, pOffset + 28, m7);
-
-                round(state, m0, m1, m2, m3, m4, m5, m6, m7);
-
-                msglen++;
+            @Override
+            protected void decryptBlocks(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+                decryptTiles(state, data, words, ciphertext, cOffset, plaintext, pOffset, blocks);
+                msglen += blocks;
             }
 
             @Override
@@ -284,6 +344,7 @@ public enum Rocca implements AuthenticatedCipher {
                     Tools.zeropad(buffer, length);
 
                     round(state, buffer, 0);
+                    msglen = Long.reverseBytes((msglen << 8) | (length << 3));
 
                     MemorySegment.copy(buffer, 0, plaintext, 0, length);
 
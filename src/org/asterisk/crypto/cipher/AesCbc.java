@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.cipher;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import org.asterisk.crypto.Cipher;
+import org.asterisk.crypto.helper.AbstractDecryptEngine;
+import org.asterisk.crypto.helper.AbstractEncryptEngine;
+import org.asterisk.crypto.helper.Tools;
+import org.asterisk.crypto.lowlevel.AesDecApi;
+import org.asterisk.crypto.lowlevel.AesEncApi;
+
+import static org.asterisk.crypto.helper.Tools.load32BE;
+
+/**
+ * AES in cipher block chaining mode, as specified in NIST SP 800-38A, with
+ * PKCS#7 padding (the same as {@code AES/CBC/PKCS5Padding} of the JDK). The
+ * ciphertext is 1 to 16 bytes longer than the plaintext.
+ * <p>
+ * Encryption is inherently serial. Decryption of a block only depends on the
+ * block and the one before it, so it decrypts 4 blocks at a time with their
+ * rounds interleaved, and the engines of
+ * {@link #startParallelDecryption(byte[], byte[], Executor)} decrypt large
+ * inputs in batches on an executor.
+ * <p>
+ * {@code finish} of the decryption engine throws an
+ * {@link IllegalArgumentException} if the ciphertext isn't a positive multiple
+ * of 16 bytes or the padding is malformed
+ *
+ * @author Sayantan Chakraborty
+ */
+public enum AesCbc implements Cipher {
+
+    AES_128_CBC(16, AesEncApi.Aes128EncApi::new),
+    AES_192_CBC(24, AesEncApi.Aes192EncApi::new),
+    AES_256_CBC(32, AesEncApi.Aes256EncApi::new);
+
+    private static final ValueLayout.OfInt LAYOUT = Tools.BIG_ENDIAN_32_BIT;
+
+    //decryption works on 4 blocks at a time
+    private static final int STEP = 64;
+
+    //64 KiB per batch, like the counter mode stream ciphers
+    private static final int BATCH_STEPS = 1024;
+    private static final long BATCH_SIZE = (long) STEP * BATCH_STEPS;
+    private static final int BATCHES_IN_FLIGHT = 64;
+
+    private final int keyLength;
+    private final Function<byte[], AesEncApi> constructor;
+
+    private AesCbc(int keyLength, Function<byte[], AesEncApi> constructor) {
+        this.keyLength = keyLength;
+        this.constructor = constructor;
+    }
+
+    private AesEncApi start(byte[] key, byte[] iv) {
+        if (key.length < keyLength) {
+            throw new IllegalArgumentException(this + " requires a key of " + keyLength + " bytes, passed only " + key.length + " bytes");
+        }
+        if (iv.length < 16) {
+            throw new IllegalArgumentException(this + " requires an iv of 16 bytes, passed only " + iv.length + " bytes");
+        }
+        return constructor.apply(key);
+    }
+
+    @Override
+    public EncryptEngine startEncryption(byte[] key, byte[] iv) {
+        var aes = start(key, iv);
+        return new AbstractEncryptEngine(16) {
+
+            private final int[] chain = {load32BE(iv, 0), load32BE(iv, 4), load32BE(iv, 8), load32BE(iv, 12)};
+            private final int[] block = new int[4];
+
+            @Override
+            protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
+                block[0] = plaintext.get(LAYOUT, pOffset) ^ chain[0];
+                block[1] = plaintext.get(LAYOUT, pOffset + 4) ^ chain[1];
+                block[2] = plaintext.get(LAYOUT, pOffset + 8) ^ chain[2];
+                block[3] = plaintext.get(LAYOUT, pOffset + 12) ^ chain[3];
+                aes.encryptBlock(block, 0, chain, 0);
+                ciphertext.set(LAYOUT, cOffset, chain[0]);
+                ciphertext.set(LAYOUT, cOffset + 4, chain[1]);
+                ciphertext.set(LAYOUT, cOffset + 8, chain[2]);
+                ciphertext.set(LAYOUT, cOffset + 12, chain[3]);
+            }
+
+            @Override
+            protected int encryptLastBlock(MemorySegment buffer, int length, MemorySegment ciphertext) {
+                int written = 0;
+                if (length == 16) {
+                    //a whole block is followed by a whole block of padding
+                    encryptOneBlock(buffer, 0, ciphertext, 0);
+                    written = 16;
+                    length = 0;
+                }
+                buffer.asSlice(length).fill((byte) (16 - length));
+                encryptOneBlock(buffer, 0, ciphertext, written);
+                return written + 16;
+            }
+
+            @Override
+            public Cipher getAlgorithm() {
+                return AesCbc.this;
+            }
+        };
+    }
+
+    @Override
+    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
+        return new AesCbcDecrypter(start(key, iv).decrypter(), iv, null);
+    }
+
+    /**
+     * starts a decryption engine that decrypts large inputs in parallel on
+     * the {@link ForkJoinPool#commonPool() common pool}, or a serial one if
+     * the common pool has no parallelism
+     *
+     * @param key the key
+     * @param iv  the iv
+     *
+     * @return the engine
+     *
+     * @see #startParallelDecryption(byte[], byte[], Executor)
+     */
+    public DecryptEngine startParallelDecryption(byte[] key, byte[] iv) {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallelDecryption(key, iv, ForkJoinPool.commonPool()) : startDecryption(key, iv);
+    }
+
+    /**
+     * starts a decryption engine that splits long runs of ciphertext into
+     * batches and decrypts them on {@code executor}. The output is identical
+     * to that of the engine of {@link #startDecryption(byte[], byte[])}, and
+     * in-place decryption is allowed.
+     * <p>
+     * Segments passed to {@code decrypt} must be accessible from the threads
+     * of {@code executor}, i.e. they must not be confined to the calling
+     * thread
+     *
+     * @param key      the key
+     * @param iv       the iv
+     * @param executor the executor to decrypt the batches on
+     *
+     * @return the engine
+     */
+    public DecryptEngine startParallelDecryption(byte[] key, byte[] iv, Executor executor) {
+        return new AesCbcDecrypter(start(key, iv).decrypter(), iv, Objects.requireNonNull(executor));
+    }
+
+    @Override
+    public int keyLength() {
+        return keyLength;
+    }
+
+    @Override
+    public int ivLength() {
+        return 16;
+    }
+
+    private final class AesCbcDecrypter extends AbstractDecryptEngine {
+
+        private final AesDecApi aes;
+        //the ciphertext block before the next one
+        private final int[] chain;
+        private final int[] words = new int[16], decrypted = new int[16];
+
+        private final Executor executor;
+
+        private AesCbcDecrypter(AesDecApi aes, byte[] iv, Executor executor) {
+            super(STEP);
+            this.aes = aes;
+            chain = new int[]{load32BE(iv, 0), load32BE(iv, 4), load32BE(iv, 8), load32BE(iv, 12)};
+            this.executor = executor;
+        }
+
+        @Override
+        protected void decryptOneBlock(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset) {
+            decrypt(chain, words, decrypted, ciphertext, cOffset, plaintext, pOffset, 1);
+        }
+
+        @Override
+        protected void decryptBlocks(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+            if (executor == null || blocks <= 2 * BATCH_STEPS) {
+                decrypt(chain, words, decrypted, ciphertext, cOffset, plaintext, pOffset, blocks);
+                return;
+            }
+            var pending = new ArrayDeque<CompletableFuture<Void>>(BATCHES_IN_FLIGHT);
+            try {
+                while (blocks >= BATCH_STEPS) {
+                    if (pending.size() == BATCHES_IN_FLIGHT) {
+                        pending.poll().join();
+                    }
+                    int[] batchChain = chain.clone();
+                    long batchCOffset = cOffset, batchPOffset = pOffset;
+                    //the last block of the batch chains into the next one, it must be read before the batch can overwrite it
+                    long last = cOffset + BATCH_SIZE - 16;
+                    chain[0] = ciphertext.get(LAYOUT, last);
+                    chain[1] = ciphertext.get(LAYOUT, last + 4);
+                    chain[2] = ciphertext.get(LAYOUT, last + 8);
+                    chain[3] = ciphertext.get(LAYOUT, last + 12);
+                    pending.add(CompletableFuture.runAsync(() -> decrypt(batchChain, new int[16], new int[16], ciphertext, batchCOffset, plaintext, batchPOffset, BATCH_STEPS), executor));
+                    cOffset += BATCH_SIZE;
+                    pOffset += BATCH_SIZE;
+                    blocks -= BATCH_STEPS;
+                }
+                if (blocks > 0) {
+                    decrypt(chain, words, decrypted, ciphertext, cOffset, plaintext, pOffset, blocks);
+                }
+                while (!pending.isEmpty()) {
+                    pending.poll().join();
+                }
+            } finally {
+                //the batches still running would otherwise keep writing to plaintext after a failure was thrown
+                CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+            }
+        }
+
+        /**
+         * decrypts {@code steps} runs of 4 blocks, each block is read before
+         * its plaintext is written, so the plaintext may overwrite the
+         * ciphertext
+         */
+        private void decrypt(int[] chain, int[] words, int[] decrypted, MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long steps) {
+            for (; steps > 0; steps--, cOffset += STEP, pOffset += STEP) {
+                for (int i = 0; i < 16; i++) {
+                    words[i] = ciphertext.get(LAYOUT, cOffset + 4 * i);
+                }
+                aes.decrypt4Blocks(words, 0, decrypted, 0);
+                for (int i = 0; i < 4; i++) {
+                    plaintext.set(LAYOUT, pOffset + 4 * i, decrypted[i] ^ chain[i]);
+                }
+                for (int i = 4; i < 16; i++) {
+                    plaintext.set(LAYOUT, pOffset + 4 * i, decrypted[i] ^ words[i - 4]);
+                }
+                chain[0] = words[12];
+                chain[1] = words[13];
+                chain[2] = words[14];
+                chain[3] = words[15];
+            }
+        }
+
+        @Override
+        protected int decryptLastBlock(MemorySegment buffer, int length, MemorySegment plaintext) {
+            if (length == 0 || length % 16 != 0) {
+                throw new IllegalArgumentException("AES-CBC ciphertext must be a positive multiple of 16 bytes");
+            }
+            //the words past the ciphertext are decrypted as well, but never written
+            decrypt(chain, words, decrypted, buffer, 0, buffer, 0, 1);
+
+            int pad = buffer.get(ValueLayout.JAVA_BYTE, length - 1) & 0xff, bad = pad == 0 || pad > 16 ? 1 : 0;
+            for (int i = length - Math.min(pad, 16); i < length; i++) {
+                bad |= buffer.get(ValueLayout.JAVA_BYTE, i) ^ pad;
+            }
+            if (bad != 0) {
+                throw new IllegalArgumentException("Bad padding");
+            }
+            MemorySegment.copy(buffer, 0, plaintext, 0, length - pad);
+            return length - pad;
+        }
+
+        @Override
+        public Cipher getAlgorithm() {
+            return AesCbc.this;
+        }
+
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.cipher;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.function.Function;
+import org.asterisk.crypto.Cipher;
+import org.asterisk.crypto.helper.AbstractDecryptEngine;
+import org.asterisk.crypto.helper.AbstractEncryptEngine;
+import org.asterisk.crypto.helper.Tools;
+import org.asterisk.crypto.lowlevel.AesEncApi;
+
+import static org.asterisk.crypto.helper.Tools.load32BE;
+
+/**
+ * AES in 128-bit cipher feedback mode, as specified in NIST SP 800-38A (the
+ * same as {@code AES/CFB/NoPadding} of the JDK). The ciphertext has the length
+ * of the plaintext, the last block may be partial.
+ * <p>
+ * Encryption is inherently serial, but the keystream of a block is the
+ * encryption of the ciphertext block before it, so decryption encrypts 4
+ * blocks at a time with their rounds interleaved
+ *
+ * @author Sayantan Chakraborty
+ */
+public enum AesCfb implements Cipher {
+
+    AES_128_CFB(16, AesEncApi.Aes128EncApi::new),
+    AES_192_CFB(24, AesEncApi.Aes192EncApi::new),
+    AES_256_CFB(32, AesEncApi.Aes256EncApi::new);
+
+    private static final ValueLayout.OfInt LAYOUT = Tools.BIG_ENDIAN_32_BIT;
+
+    //decryption works on 4 blocks at a time
+    private static final int STEP = 64;
+
+    private final int keyLength;
+    private final Function<byte[], AesEncApi> constructor;
+
+    private AesCfb(int keyLength, Function<byte[], AesEncApi> constructor) {
+        this.keyLength = keyLength;
+        this.constructor = constructor;
+    }
+
+    private AesEncApi start(byte[] key, byte[] iv) {
+        if (key.length < keyLength) {
+            throw new IllegalArgumentException(this + " requires a key of " + keyLength + " bytes, passed only " + key.length + " bytes");
+        }
+        if (iv.length < 16) {
+            throw new IllegalArgumentException(this + " requires an iv of 16 bytes, passed only " + iv.length + " bytes");
+        }
+        return constructor.apply(key);
+    }
+
+    @Override
+    public EncryptEngine startEncryption(byte[] key, byte[] iv) {
+        var aes = start(key, iv);
+        return new AbstractEncryptEngine(16) {
+
+            //the previous block of ciphertext
+            private final int[] register = {load32BE(iv, 0), load32BE(iv, 4), load32BE(iv, 8), load32BE(iv, 12)};
+            private final int[] keystream = new int[4];
+
+            @Override
+            protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
+                aes.encryptBlock(register, 0, keystream, 0);
+                for (int i = 0; i < 4; i++) {
+                    register[i] = plaintext.get(LAYOUT, pOffset + 4 * i) ^ keystream[i];
+                    ciphertext.set(LAYOUT, cOffset + 4 * i, register[i]);
+                }
+            }
+
+            @Override
+            protected int encryptLastBlock(MemorySegment buffer, int length, MemorySegment ciphertext) {
+                if (length > 0) {
+                    encryptOneBlock(buffer, 0, buffer, 0);
+                    MemorySegment.copy(buffer, 0, ciphertext, 0, length);
+                }
+                return length;
+            }
+
+            @Override
+            public Cipher getAlgorithm() {
+                return AesCfb.this;
+            }
+        };
+    }
+
+    @Override
+    public DecryptEngine startDecryption(byte[] key, byte[] iv) {
+        var aes = start(key, iv);
+        return new AbstractDecryptEngine(STEP) {
+
+            //the previous block of ciphertext, followed by the first 3 blocks of the step
+            private final int[] registers = {load32BE(iv, 0), load32BE(iv, 4), load32BE(iv, 8), load32BE(iv, 12), 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+            private final int[] words = new int[16], keystream = new int[16];
+
+            @Override
+            protected void decryptOneBlock(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset) {
+                for (int i = 0; i < 16; i++) {
+                    words[i] = ciphertext.get(LAYOUT, cOffset + 4 * i);
+                }
+                System.arraycopy(words, 0, registers, 4, 12);
+                aes.encrypt4Blocks(registers, 0, keystream, 0);
+                for (int i = 0; i < 16; i++) {
+                    plaintext.set(LAYOUT, pOffset + 4 * i, words[i] ^ keystream[i]);
+                }
+                System.arraycopy(words, 12, registers, 0, 4);
+            }
+
+            @Override
+            protected int decryptLastBlock(MemorySegment buffer, int length, MemorySegment plaintext) {
+                //1 to 4 blocks, the last one may be partial
+                for (int offset = 0; offset < length; offset += 16) {
+                    aes.encryptBlock(registers, 0, keystream, 0);
+                    for (int i = 0; i < 4; i++) {
+                        registers[i] = buffer.get(LAYOUT, offset + 4 * i);
+                        buffer.set(LAYOUT, offset + 4 * i, registers[i] ^ keystream[i]);
+                    }
+                }
+                MemorySegment.copy(buffer, 0, plaintext, 0, length);
+                return length;
+            }
+
+            @Override
+            public Cipher getAlgorithm() {
+                return AesCfb.this;
+            }
+        };
+    }
+
+    @Override
+    public int keyLength() {
+        return keyLength;
+    }
+
+    @Override
+    public int ivLength() {
+        return 16;
+    }
+
+}
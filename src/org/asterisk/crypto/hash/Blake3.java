@@ -20,6 +20,12 @@ package org.asterisk.crypto.hash;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.SegmentScope;
 import java.lang.foreign.ValueLayout;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.asterisk.crypto.helper.Tools;
 import org.asterisk.crypto.Mac;
 import org.asterisk.crypto.Xof;
@@ -42,17 +48,29 @@ public enum Blake3 implements Xof, Mac {
 
     private static final int DEFAULT_HASH_LEN = 32;
 
-    private static final int BLOCK_LEN = 64;
-    private static final int CHUNK_LEN = 1024;
+    static final int BLOCK_LEN = 64;
+    static final int CHUNK_LEN = 1024;
 
     //flags
-    private static final int CHUNK_START = 1;
-    private static final int CHUNK_END = 2;
+    static final int CHUNK_START = 1;
+    static final int CHUNK_END = 2;
     private static final int PARENT = 4;
     private static final int ROOT = 8;
     private static final int KEYED_HASH = 16;
 
-    private static final int[] DEFAULT_IV = {
+    //parallel ingestion, in units of whole subtrees of BATCH_CHUNKS chunks
+    private static final int BATCH_HEIGHT = 6;
+    private static final int BATCH_CHUNKS = 1 << BATCH_HEIGHT;
+    private static final long BATCH_LEN = (long) BATCH_CHUNKS * CHUNK_LEN;
+    private static final int BATCHES_IN_FLIGHT = 256;
+
+    //parallel output, in slices of OUTPUT_SLICE_BLOCKS root output blocks
+    private static final int OUTPUT_SLICE_BLOCKS = 1024;
+
+    //the number of whole chunks compressed at once by Blake3Lanes, 1 if it's unavailable
+    private static final int LANES = Tools.VECTOR_API_AVAILABLE ? Blake3Lanes.LANES : 1;
+
+    static final int[] DEFAULT_IV = {
         0x6A09E667, 0xBB67AE85, 0x3C6EF372, 0xA54FF53A, 0x510E527F, 0x9B05688C, 0x1F83D9AB, 0x5BE0CD19
     };
 
@@ -171,9 +189,72 @@ public enum Blake3 implements Xof, Mac {
         return compress(keyWords, leftChild, 0, BLOCK_LEN, flags | PARENT);
     }
 
+    private static int[] chunkCV(int[] keyWords, MemorySegment input, long offset, long chunkCtr, int flags) {
+        int[] chainingValue = compress(keyWords, input, offset, chunkCtr, BLOCK_LEN, flags | CHUNK_START);
+        offset += 64;
+
+        for (int i = 64; i < 960; i += 64) {
+            chainingValue = compress(chainingValue, input, offset, chunkCtr, BLOCK_LEN, flags);
+            offset += 64;
+        }
+
+        return compress(chainingValue, input, offset, chunkCtr, BLOCK_LEN, flags | CHUNK_END);
+    }
+
+    /**
+     * the chaining value of the complete subtree of {@code BATCH_CHUNKS}
+     * chunks starting at chunk {@code chunkCtr}, which must be a multiple of
+     * {@code BATCH_CHUNKS}
+     */
+    private static int[] batchCV(int[] keyWords, MemorySegment input, long offset, long chunkCtr, int flags) {
+        int[][] stack = new int[BATCH_HEIGHT + 1][];
+        int stackLen = 0;
+        for (int i = 0; i < BATCH_CHUNKS; i += LANES) {
+            int[][] cvs = LANES > 1 ? Blake3Lanes.chunkCVs(keyWords, input, offset, chunkCtr, flags)
+                    : new int[][]{chunkCV(keyWords, input, offset, chunkCtr, flags)};
+            for (int j = 0; j < LANES; j++) {
+                int[] cv = cvs[j];
+                for (int total = i + j + 1; (total & 1) == 0; total >>>= 1) {
+                    cv = parent(stack[--stackLen], cv, keyWords, flags);
+                }
+                stack[stackLen++] = cv;
+            }
+            offset += (long) LANES * CHUNK_LEN;
+            chunkCtr += LANES;
+        }
+        return stack[0];
+    }
+
     @Override
-    public Xof.Engine start() {
-        return new Blake3Engine(DEFAULT_IV, 0);
+    public Blake3Engine start() {
+        return new Blake3Engine(DEFAULT_IV, 0, null);
+    }
+
+    /**
+     * starts a hasher that ingests large inputs in parallel on the
+     * {@link ForkJoinPool#commonPool() common pool}, or a serial one if the
+     * common pool has no parallelism
+     *
+     * @see #startParallel(java.util.concurrent.Executor)
+     */
+    public Blake3Engine startParallel() {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallel(ForkJoinPool.commonPool()) : start();
+    }
+
+    /**
+     * starts a hasher that splits large inputs into subtrees of 64 chunks and
+     * hashes them on {@code executor}. The output is identical to that of
+     * {@link #start()}.
+     * <p>
+     * Segments passed to {@code ingest} must be accessible from the threads of
+     * {@code executor}, i.e. they must not be confined to the calling thread
+     *
+     * @param executor the executor to hash the subtrees on
+     *
+     * @return the hasher
+     */
+    public Blake3Engine startParallel(Executor executor) {
+        return new Blake3Engine(DEFAULT_IV, 0, Objects.requireNonNull(executor));
     }
 
     @Override
@@ -191,7 +272,7 @@ public enum Blake3 implements Xof, Mac {
         var internal = new Blake3Engine(new int[]{
             load32LE(key, 0), load32LE(key, 4), load32LE(key, 8), load32LE(key, 12),
             load32LE(key, 16), load32LE(key, 20), load32LE(key, 24), load32LE(key, 28)
-        }, KEYED_HASH);
+        }, KEYED_HASH, null);
 
         return new Mac.Engine() {
             @Override
@@ -222,12 +303,104 @@ public enum Blake3 implements Xof, Mac {
         return 32;
     }
 
+    /**
+     * the size of the outboard encoding of a content of {@code length} bytes,
+     * an 8 byte header and a 64 byte parent node for every chunk but one
+     *
+     * @param length the length of the content
+     *
+     * @return the size of the outboard encoding
+     */
+    public long outboardSize(long length) {
+        return 8 + 64 * (Math.max(1, (length + CHUNK_LEN - 1) / CHUNK_LEN) - 1);
+    }
+
+    /**
+     * writes the Bao-style outboard encoding of {@code content} to
+     * {@code outboard}: the content length as an 8 byte little-endian integer
+     * followed by the parent nodes of the hash tree, each the concatenation of
+     * the chaining values of its children, in pre-order. The content itself is
+     * not copied, so it can be verified in pieces later with an
+     * {@link OutboardVerifier}
+     *
+     * @param content  the content
+     * @param outboard the destination, of at least
+     *                 {@link #outboardSize(long) outboardSize(content.byteSize())}
+     *                 bytes
+     *
+     * @return the BLAKE3 hash of {@code content}
+     */
+    public byte[] encodeOutboard(MemorySegment content, MemorySegment outboard) {
+        long length = content.byteSize();
+        Objects.checkFromIndexSize(0, outboardSize(length), outboard.byteSize());
+        outboard.set(Tools.LITTLE_ENDIAN_64_BIT, 0, length);
+
+        byte[] hash = new byte[DEFAULT_HASH_LEN];
+        if (length <= CHUNK_LEN) {
+            chunkOutput(DEFAULT_IV, 0, content, 0, length, 0).rootOutputBytes(hash, 0, DEFAULT_HASH_LEN);
+        } else {
+            long left = leftLength(length);
+            int[] leftCV = encodeSubtree(content, 0, left, 0, outboard, 8 + 64);
+            int[] rightCV = encodeSubtree(content, left, length - left, left / CHUNK_LEN, outboard, 8 + 64 * (left / CHUNK_LEN));
+            storeNode(leftCV, rightCV, outboard, 8);
+            parentOutput(leftCV, rightCV, DEFAULT_IV, 0).rootOutputBytes(hash, 0, DEFAULT_HASH_LEN);
+        }
+        return hash;
+    }
+
+    private static int[] encodeSubtree(MemorySegment content, long offset, long length, long chunkCtr, MemorySegment outboard, long position) {
+        if (length <= CHUNK_LEN) {
+            return chunkOutput(DEFAULT_IV, 0, content, offset, length, chunkCtr).chain();
+        }
+        long left = leftLength(length);
+        int[] leftCV = encodeSubtree(content, offset, left, chunkCtr, outboard, position + 64);
+        int[] rightCV = encodeSubtree(content, offset + left, length - left, chunkCtr + left / CHUNK_LEN, outboard, position + 64 * (left / CHUNK_LEN));
+        storeNode(leftCV, rightCV, outboard, position);
+        return parent(leftCV, rightCV, DEFAULT_IV, 0);
+    }
+
+    private static void storeNode(int[] leftCV, int[] rightCV, MemorySegment outboard, long position) {
+        for (int i = 0; i < 8; i++) {
+            outboard.set(LAYOUT, position + 4 * i, leftCV[i]);
+            outboard.set(LAYOUT, position + 32 + 4 * i, rightCV[i]);
+        }
+    }
+
+    /**
+     * the number of bytes in the left subtree of a node covering
+     * {@code length > CHUNK_LEN} bytes, the largest power of two number of
+     * chunks that leaves at least one byte for the right subtree
+     */
+    private static long leftLength(long length) {
+        return Long.highestOneBit((length - 1) / CHUNK_LEN) * CHUNK_LEN;
+    }
+
+    private static Node chunkOutput(int[] keyWords, int flags, MemorySegment content, long offset, long length, long chunkCtr) {
+        var chunk = new ChunkState(keyWords, chunkCtr, flags);
+        chunk.ingest(content, offset, length);
+        return chunk.output();
+    }
+
+    /**
+     * starts verifying pieces of a content against its hash and
+     * {@link #encodeOutboard(java.lang.foreign.MemorySegment, java.lang.foreign.MemorySegment) outboard encoding}
+     *
+     * @param hash     the trusted 32 byte BLAKE3 hash of the content
+     * @param outboard the outboard encoding of the content, which need not be
+     *                 trusted
+     *
+     * @return the verifier
+     */
+    public OutboardVerifier startVerifying(byte[] hash, MemorySegment outboard) {
+        return new OutboardVerifier(hash, outboard);
+    }
+
     private static class Node {
 
         private final int[] inputCV, blockWords;
         private final long counter;
         private final int blockLen, flags;
-        private int outputCounter = 0;
+        private long outputCounter = 0;
         private final byte[] outputBuffer = new byte[64];
         private int outputPosition = 0;
 
@@ -243,6 +416,14 @@ public enum Blake3 implements Xof, Mac {
             return compress(inputCV, blockWords, counter, blockLen, flags);
         }
 
+        private void outputBlock(long outputCounter, MemorySegment output, long offset) {
+            int[] words = compress(inputCV, blockWords, outputCounter, blockLen, flags | ROOT);
+
+            for (int i = 0; i < 16; i++) {
+                output.set(LAYOUT, offset + 4 * i, words[i]);
+            }
+        }
+
         private void outputOneBlock(byte[] output, int offset) {
             int[] words = compress(inputCV, blockWords, outputCounter++, blockLen, flags | ROOT);
 
@@ -285,6 +466,57 @@ public enum Blake3 implements Xof, Mac {
             }
         }
 
+        private void rootOutputBytes(MemorySegment output, Executor executor) {
+            long offset = 0, length = output.byteSize();
+            if (outputPosition > 0) {
+                int take = (int) Math.min(length, 64 - outputPosition);
+                MemorySegment.copy(outputBuffer, outputPosition, output, ValueLayout.JAVA_BYTE, offset, take);
+                offset += take;
+                length -= take;
+                outputPosition = (outputPosition + take) & 0x3f;
+            }
+            long blocks = length >>> 6;
+            if (executor != null && blocks >= 2 * OUTPUT_SLICE_BLOCKS) {
+                var slices = new CompletableFuture<?>[(int) ((blocks + OUTPUT_SLICE_BLOCKS - 1) / OUTPUT_SLICE_BLOCKS)];
+                for (int i = 0; i < slices.length; i++) {
+                    long sliceCounter = outputCounter, sliceOffset = offset, sliceBlocks = Math.min(OUTPUT_SLICE_BLOCKS, blocks);
+                    slices[i] = CompletableFuture.runAsync(() -> {
+                        for (long j = 0; j < sliceBlocks; j++) {
+                            outputBlock(sliceCounter + j, output, sliceOffset + 64 * j);
+                        }
+                    }, executor);
+                    outputCounter += sliceBlocks;
+                    offset += 64 * sliceBlocks;
+                    length -= 64 * sliceBlocks;
+                    blocks -= sliceBlocks;
+                }
+                CompletableFuture.allOf(slices).join();
+            }
+            while (length >= 64) {
+                outputBlock(outputCounter++, output, offset);
+
+                offset += 64;
+                length -= 64;
+            }
+            if (length > 0) {
+                outputOneBlock(outputBuffer, 0);
+                MemorySegment.copy(outputBuffer, 0, output, ValueLayout.JAVA_BYTE, offset, (int) length);
+                outputPosition = (int) length;
+            }
+        }
+
+        private void seek(long position) {
+            outputCounter = position >>> 6;
+            outputPosition = (int) position & 0x3f;
+            if (outputPosition > 0) {
+                outputOneBlock(outputBuffer, 0);
+            }
+        }
+
+        private long position() {
+            return outputPosition == 0 ? outputCounter << 6 : ((outputCounter - 1) << 6) + outputPosition;
+        }
+
     }
 
     private static class ChunkState {
@@ -304,15 +536,7 @@ public enum Blake3 implements Xof, Mac {
         }
 
         public int[] ingestFullChunk(MemorySegment input, long offset) {
-            chainingValue = compress(chainingValue, input, offset, chunkCtr, BLOCK_LEN, flags | CHUNK_START);
-            offset += 64;
-
-            for (int i = 64; i < 960; i += 64) {
-                chainingValue = compress(chainingValue, input, offset, chunkCtr, BLOCK_LEN, flags);
-                offset += 64;
-            }
-
-            return compress(chainingValue, input, offset, chunkCtr, BLOCK_LEN, flags | CHUNK_END);
+            return chunkCV(chainingValue, input, offset, chunkCtr, flags);
         }
 
         public void ingest(MemorySegment input, long offset, long length) {
@@ -360,8 +584,12 @@ public enum Blake3 implements Xof, Mac {
         }
 
         private void reset(int[] keyWords) {
+            skip(keyWords, 1);
+        }
+
+        private void skip(int[] keyWords, long chunks) {
             chainingValue = keyWords;
-            chunkCtr++;
+            chunkCtr += chunks;
             position = 0;
             startFlag = CHUNK_START;
         }
@@ -376,13 +604,15 @@ public enum Blake3 implements Xof, Mac {
         private final int flags;
         private final ChunkState state;
         private int position = 0;
+        private final Executor executor;
 
         private Node out = null;
 
-        private Blake3Engine(int[] keyWords, int flags) {
+        private Blake3Engine(int[] keyWords, int flags, Executor executor) {
             this.keyWords = keyWords;
             this.flags = flags;
             this.state = new ChunkState(this.keyWords, 0, flags);
+            this.executor = executor;
         }
 
         private void addChunkCV(int[] newCV, long totalChunks) {
@@ -421,6 +651,30 @@ public enum Blake3 implements Xof, Mac {
                     position = 0;
                 }
             }
+            if (executor != null && length > 2 * BATCH_LEN) {
+                while ((state.chunkCtr & (BATCH_CHUNKS - 1)) != 0) {
+                    addChunkCV(state.ingestFullChunk(input, offset), state.chunkCtr + 1);
+                    state.reset(keyWords);
+
+                    offset += CHUNK_LEN;
+                    length -= CHUNK_LEN;
+                }
+                long batches = (length - 1) / BATCH_LEN;
+                ingestBatches(input, offset, batches);
+                offset += batches * BATCH_LEN;
+                length -= batches * BATCH_LEN;
+            }
+            if (LANES > 1) {
+                while (length > LANES * CHUNK_LEN) {
+                    for (int[] cv : Blake3Lanes.chunkCVs(keyWords, input, offset, state.chunkCtr, flags)) {
+                        addChunkCV(cv, state.chunkCtr + 1);
+                        state.reset(keyWords);
+                    }
+
+                    offset += LANES * CHUNK_LEN;
+                    length -= LANES * CHUNK_LEN;
+                }
+            }
             while (length > CHUNK_LEN) {
                 addChunkCV(state.ingestFullChunk(input, offset), state.chunkCtr + 1);
                 state.reset(keyWords);
@@ -429,7 +683,34 @@ public enum Blake3 implements Xof, Mac {
                 length -= CHUNK_LEN;
             }
             state.ingest(input, offset, length);
-            position = (int) length;
+            position += (int) length;
+        }
+
+        /**
+         * hashes {@code batches} whole subtrees on the executor, keeping at
+         * most {@code BATCHES_IN_FLIGHT} of them pending, and merges their
+         * chaining values into the stack in order
+         */
+        private void ingestBatches(MemorySegment input, long offset, long batches) {
+            var pending = new ArrayDeque<CompletableFuture<int[]>>(BATCHES_IN_FLIGHT);
+            long chunkCtr = state.chunkCtr;
+            for (long i = 0; i < batches; i++) {
+                if (pending.size() == BATCHES_IN_FLIGHT) {
+                    addBatchCV(pending.poll().join());
+                }
+                long batchOffset = offset, batchCtr = chunkCtr;
+                pending.add(CompletableFuture.supplyAsync(() -> batchCV(keyWords, input, batchOffset, batchCtr, flags), executor));
+                offset += BATCH_LEN;
+                chunkCtr += BATCH_CHUNKS;
+            }
+            while (!pending.isEmpty()) {
+                addBatchCV(pending.poll().join());
+            }
+        }
+
+        private void addBatchCV(int[] batchCV) {
+            addChunkCV(batchCV, (state.chunkCtr + BATCH_CHUNKS) >>> BATCH_HEIGHT);
+            state.skip(keyWords, BATCH_CHUNKS);
         }
 
         @Override
@@ -448,10 +729,183 @@ public enum Blake3 implements Xof, Mac {
             out.rootOutputBytes(output, offset, length);
         }
 
+        /**
+         * fills {@code output} with the next {@code output.byteSize()} bytes of
+         * the output stream
+         *
+         * @param output the destination
+         */
+        public void continueDigesting(MemorySegment output) {
+            checkDigesting();
+            out.rootOutputBytes(output, null);
+        }
+
+        /**
+         * fills {@code output} with the next {@code output.byteSize()} bytes of
+         * the output stream, computing slices of 64 KiB on {@code executor}.
+         * {@code output} must be accessible from the threads of
+         * {@code executor}
+         *
+         * @param output   the destination
+         * @param executor the executor to compute the slices on
+         */
+        public void continueDigesting(MemorySegment output, Executor executor) {
+            checkDigesting();
+            out.rootOutputBytes(output, Objects.requireNonNull(executor));
+        }
+
+        /**
+         * moves to an arbitrary byte position of the output stream, so that
+         * the next output starts with that byte. Each output block is computed
+         * independently, so this costs at most one block compression
+         *
+         * @param position the position of the next output byte
+         *
+         * @throws IllegalStateException    if digesting hasn't started yet
+         * @throws IllegalArgumentException if {@code position} is negative
+         */
+        public void seek(long position) {
+            checkDigesting();
+            if (position < 0) {
+                throw new IllegalArgumentException("Negative position : " + position);
+            }
+            out.seek(position);
+        }
+
+        /**
+         * @return the position of the next output byte in the output stream
+         *
+         * @throws IllegalStateException if digesting hasn't started yet
+         */
+        public long position() {
+            checkDigesting();
+            return out.position();
+        }
+
+        private void checkDigesting() {
+            if (out == null) {
+                throw new IllegalStateException("Digesting hasn't started yet!");
+            }
+        }
+
         @Override
         public Xof getAlgorithm() {
             return BLAKE3;
         }
     }
 
+    /**
+     * Verifies arbitrary chunk-aligned slices of a content against its hash as
+     * they arrive, using the parent nodes of its outboard encoding.
+     * <p>
+     * The parent nodes on the path to the last verified chunk are remembered,
+     * so verifying a content chunk by chunk in order costs amortized one
+     * parent compression per chunk in addition to the chunk itself
+     */
+    public static final class OutboardVerifier {
+
+        private final byte[] hash;
+        private final MemorySegment outboard;
+        private final long length;
+
+        //the verified parent node at each depth of the last path taken
+        private final long[] pathPositions = new long[64];
+        private final int[][] pathNodes = new int[64][];
+
+        private OutboardVerifier(byte[] hash, MemorySegment outboard) {
+            if (hash.length != DEFAULT_HASH_LEN) {
+                throw new IllegalArgumentException("BLAKE3 hashes are " + DEFAULT_HASH_LEN + " bytes long, got " + hash.length);
+            }
+            this.hash = hash.clone();
+            this.outboard = outboard;
+            this.length = outboard.get(Tools.LITTLE_ENDIAN_64_BIT, 0);
+            if (length < 0 || outboard.byteSize() < BLAKE3.outboardSize(length)) {
+                throw new IllegalArgumentException("Malformed outboard encoding of " + outboard.byteSize() + " bytes for a content of " + length + " bytes");
+            }
+        }
+
+        /**
+         * @return the length of the content, as claimed by the outboard
+         *         encoding. If it is wrong, every verification fails
+         */
+        public long length() {
+            return length;
+        }
+
+        /**
+         * verifies that {@code slice} is the piece of the content starting at
+         * {@code offset}. The slice must start at a chunk boundary and end at
+         * a chunk boundary or the end of the content
+         *
+         * @param offset the position of the slice in the content
+         * @param slice  the piece of content to verify
+         *
+         * @return whether {@code slice} is authentic
+         *
+         * @throws IllegalArgumentException if the slice isn't aligned to
+         *                                  chunks or lies outside the content
+         */
+        public boolean verify(long offset, MemorySegment slice) {
+            long end = offset + slice.byteSize();
+            if (offset % CHUNK_LEN != 0 || (end % CHUNK_LEN != 0 && end != length) || end > length || offset < 0) {
+                throw new IllegalArgumentException("Slice [" + offset + ", " + end + ") isn't aligned to the "
+                        + CHUNK_LEN + " byte chunks of a content of " + length + " bytes");
+            }
+            if (length <= CHUNK_LEN) {
+                //an aligned slice is either the whole content or empty, an empty one covers no chunk
+                if (slice.byteSize() != length) {
+                    return true;
+                }
+                byte[] computed = new byte[DEFAULT_HASH_LEN];
+                chunkOutput(DEFAULT_IV, 0, slice, 0, length, 0).rootOutputBytes(computed, 0, DEFAULT_HASH_LEN);
+                return Tools.equals(computed, 0, hash, 0, DEFAULT_HASH_LEN);
+            }
+            return verifyNode(null, 0, length, 8, 0, offset, slice);
+        }
+
+        private boolean verifyNode(int[] expected, long start, long nodeLength, long position, int depth, long offset, MemorySegment slice) {
+            if (nodeLength <= CHUNK_LEN) {
+                if (start < offset || start >= offset + slice.byteSize()) {
+                    return true;
+                }
+                long chunkCtr = start / CHUNK_LEN;
+                int[] cv = nodeLength == CHUNK_LEN ? chunkCV(DEFAULT_IV, slice, start - offset, chunkCtr, 0)
+                        : chunkOutput(DEFAULT_IV, 0, slice, start - offset, nodeLength, chunkCtr).chain();
+                return Arrays.equals(cv, 0, 8, expected, 0, 8);
+            }
+            int[] node = pathNodes[depth];
+            if (node == null || pathPositions[depth] != position) {
+                node = new int[16];
+                for (int i = 0; i < 16; i++) {
+                    node[i] = outboard.get(LAYOUT, position + 4 * i);
+                }
+                if (!verifyParent(expected, node)) {
+                    return false;
+                }
+                pathNodes[depth] = node;
+                pathPositions[depth] = position;
+            }
+            long left = leftLength(nodeLength);
+            boolean ok = true;
+            if (offset < start + left) {
+                ok = verifyNode(Arrays.copyOfRange(node, 0, 8), start, left, position + 64, depth + 1, offset, slice);
+            }
+            if (ok && offset + slice.byteSize() > start + left) {
+                ok = verifyNode(Arrays.copyOfRange(node, 8, 16), start + left, nodeLength - left, position + 64 * (left / CHUNK_LEN), depth + 1, offset, slice);
+            }
+            return ok;
+        }
+
+        private boolean verifyParent(int[] expected, int[] node) {
+            if (expected == null) {
+                byte[] computed = new byte[DEFAULT_HASH_LEN];
+                new Node(DEFAULT_IV, node, 0, BLOCK_LEN, PARENT).rootOutputBytes(computed, 0, DEFAULT_HASH_LEN);
+                return Tools.equals(computed, 0, hash, 0, DEFAULT_HASH_LEN);
+            }
+            int[] cv = compress(DEFAULT_IV, node, 0, BLOCK_LEN, PARENT);
+            return Arrays.equals(cv, 0, 8, expected, 0, 8);
+        }
+
+    }
+
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.hash;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+import org.asterisk.crypto.helper.Tools;
+
+import static jdk.incubator.vector.VectorOperators.ROR;
+import static jdk.incubator.vector.VectorOperators.XOR;
+
+/**
+ * Compresses several consecutive BLAKE3 chunks in lockstep, one chunk per
+ * {@link IntVector} lane, like the {@code hash_many} routines of the reference
+ * implementation.
+ * <p>
+ * This class uses the incubating Vector API and must only be loaded if
+ * {@link Tools#VECTOR_API_AVAILABLE} is {@code true}
+ *
+ * @author Sayantan Chakraborty
+ */
+final class Blake3Lanes {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private static final ValueLayout.OfInt LAYOUT = Tools.LITTLE_ENDIAN_32_BIT;
+
+    /**
+     * the number of chunks compressed at once, or 1 if the platform has no
+     * SIMD registers worth using
+     */
+    static final int LANES = SPECIES.length() >= 4 ? SPECIES.length() : 1;
+
+    /**
+     * computes the chaining values of {@link #LANES} whole chunks
+     *
+     * @param keyWords the key words, used as the chaining value of the first
+     *                 block of each chunk
+     * @param input    the input
+     * @param offset   the offset of the first chunk in {@code input}
+     * @param chunkCtr the counter of the first chunk
+     * @param flags    the domain flags
+     *
+     * @return the chaining values of the chunks, in the first 8 words of
+     *         arrays of 16 words each, just like those returned by
+     *         {@link Blake3#compress(int[], int[], long, int, int) compress}
+     */
+    static int[][] chunkCVs(int[] keyWords, MemorySegment input, long offset, long chunkCtr, int flags) {
+        final int lanes = LANES;
+        int[] words = new int[16 * lanes];
+
+        for (int j = 0; j < lanes; j++) {
+            words[j] = (int) (chunkCtr + j);
+            words[lanes + j] = (int) ((chunkCtr + j) >>> 32);
+        }
+        final IntVector counterLow = IntVector.fromArray(SPECIES, words, 0);
+        final IntVector counterHigh = IntVector.fromArray(SPECIES, words, lanes);
+        final IntVector iv0 = IntVector.broadcast(SPECIES, Blake3.DEFAULT_IV[0]);
+        final IntVector iv1 = IntVector.broadcast(SPECIES, Blake3.DEFAULT_IV[1]);
+        final IntVector iv2 = IntVector.broadcast(SPECIES, Blake3.DEFAULT_IV[2]);
+        final IntVector iv3 = IntVector.broadcast(SPECIES, Blake3.DEFAULT_IV[3]);
+        final IntVector blockLen = IntVector.broadcast(SPECIES, Blake3.BLOCK_LEN);
+
+        IntVector cv0 = IntVector.broadcast(SPECIES, keyWords[0]);
+        IntVector cv1 = IntVector.broadcast(SPECIES, keyWords[1]);
+        IntVector cv2 = IntVector.broadcast(SPECIES, keyWords[2]);
+        IntVector cv3 = IntVector.broadcast(SPECIES, keyWords[3]);
+        IntVector cv4 = IntVector.broadcast(SPECIES, keyWords[4]);
+        IntVector cv5 = IntVector.broadcast(SPECIES, keyWords[5]);
+        IntVector cv6 = IntVector.broadcast(SPECIES, keyWords[6]);
+        IntVector cv7 = IntVector.broadcast(SPECIES, keyWords[7]);
+
+        for (int block = 0; block < Blake3.CHUNK_LEN; block += Blake3.BLOCK_LEN) {
+            //transpose the block of each chunk into the lanes
+            for (int j = 0; j < lanes; j++) {
+                long base = offset + (long) j * Blake3.CHUNK_LEN + block;
+                for (int w = 0; w < 16; w++) {
+                    words[w * lanes + j] = input.get(LAYOUT, base + 4 * w);
+                }
+            }
+            IntVector m0 = IntVector.fromArray(SPECIES, words, 0);
+            IntVector m1 = IntVector.fromArray(SPECIES, words, lanes);
+            IntVector m2 = IntVector.fromArray(SPECIES, words, 2 * lanes);
+            IntVector m3 = IntVector.fromArray(SPECIES, words, 3 * lanes);
+            IntVector m4 = IntVector.fromArray(SPECIES, words, 4 * lanes);
+            IntVector m5 = IntVector.fromArray(SPECIES, words, 5 * lanes);
+            IntVector m6 = IntVector.fromArray(SPECIES, words, 6 * lanes);
+            IntVector m7 = IntVector.fromArray(SPECIES, words, 7 * lanes);
+            IntVector m8 = IntVector.fromArray(SPECIES, words, 8 * lanes);
+            IntVector m9 = IntVector.fromArray(SPECIES, words, 9 * lanes);
+            IntVector m10 = IntVector.fromArray(SPECIES, words, 10 * lanes);
+            IntVector m11 = IntVector.fromArray(SPECIES, words, 11 * lanes);
+            IntVector m12 = IntVector.fromArray(SPECIES, words, 12 * lanes);
+            IntVector m13 = IntVector.fromArray(SPECIES, words, 13 * lanes);
+            IntVector m14 = IntVector.fromArray(SPECIES, words, 14 * lanes);
+            IntVector m15 = IntVector.fromArray(SPECIES, words, 15 * lanes);
+
+            int blockFlags = flags;
+            if (block == 0) {
+                blockFlags |= Blake3.CHUNK_START;
+            }
+            if (block == Blake3.CHUNK_LEN - Blake3.BLOCK_LEN) {
+                blockFlags |= Blake3.CHUNK_END;
+            }
+
+            IntVector v0 = cv0, v1 = cv1, v2 = cv2, v3 = cv3, v4 = cv4, v5 = cv5, v6 = cv6, v7 = cv7;
+            IntVector v8 = iv0, v9 = iv1, v10 = iv2, v11 = iv3;
+            IntVector v12 = counterLow, v13 = counterHigh, v14 = blockLen, v15 = IntVector.broadcast(SPECIES, blockFlags);
+
+            for (int round = 0; round < 7; round++) {
+                //mix columns
+                v0 = v0.add(v4).add(m0);
+                v12 = v12.lanewise(XOR, v0).lanewise(ROR, 16);
+                v8 = v8.add(v12);
+                v4 = v4.lanewise(XOR, v8).lanewise(ROR, 12);
+                v0 = v0.add(v4).add(m1);
+                v12 = v12.lanewise(XOR, v0).lanewise(ROR, 8);
+                v8 = v8.add(v12);
+                v4 = v4.lanewise(XOR, v8).lanewise(ROR, 7);
+                v1 = v1.add(v5).add(m2);
+                v13 = v13.lanewise(XOR, v1).lanewise(ROR, 16);
+                v9 = v9.add(v13);
+                v5 = v5.lanewise(XOR, v9).lanewise(ROR, 12);
+                v1 = v1.add(v5).add(m3);
+                v13 = v13.lanewise(XOR, v1).lanewise(ROR, 8);
+                v9 = v9.add(v13);
+                v5 = v5.lanewise(XOR, v9).lanewise(ROR, 7);
+                v2 = v2.add(v6).add(m4);
+                v14 = v14.lanewise(XOR, v2).lanewise(ROR, 16);
+                v10 = v10.add(v14);
+                v6 = v6.lanewise(XOR, v10).lanewise(ROR, 12);
+                v2 = v2.add(v6).add(m5);
+                v14 = v14.lanewise(XOR, v2).lanewise(ROR, 8);
+                v10 = v10.add(v14);
+                v6 = v6.lanewise(XOR, v10).lanewise(ROR, 7);
+                v3 = v3.add(v7).add(m6);
+                v15 = v15.lanewise(XOR, v3).lanewise(ROR, 16);
+                v11 = v11.add(v15);
+                v7 = v7.lanewise(XOR, v11).lanewise(ROR, 12);
+                v3 = v3.add(v7).add(m7);
+                v15 = v15.lanewise(XOR, v3).lanewise(ROR, 8);
+                v11 = v11.add(v15);
+                v7 = v7.lanewise(XOR, v11).lanewise(ROR, 7);
+                //mix diagonals
+                v0 = v0.add(v5).add(m8);
+                v15 = v15.lanewise(XOR, v0).lanewise(ROR, 16);
+                v10 = v10.add(v15);
+                v5 = v5.lanewise(XOR, v10).lanewise(ROR, 12);
+                v0 = v0.add(v5).add(m9);
+                v15 = v15.lanewise(XOR, v0).lanewise(ROR, 8);
+                v10 = v10.add(v15);
+                v5 = v5.lanewise(XOR, v10).lanewise(ROR, 7);
+                v1 = v1.add(v6).add(m10);
+                v12 = v12.lanewise(XOR, v1).lanewise(ROR, 16);
+                v11 = v11.add(v12);
+                v6 = v6.lanewise(XOR, v11).lanewise(ROR, 12);
+                v1 = v1.add(v6).add(m11);
+                v12 = v12.lanewise(XOR, v1).lanewise(ROR, 8);
+                v11 = v11.add(v12);
+                v6 = v6.lanewise(XOR, v11).lanewise(ROR, 7);
+                v2 = v2.add(v7).add(m12);
+                v13 = v13.lanewise(XOR, v2).lanewise(ROR, 16);
+                v8 = v8.add(v13);
+                v7 = v7.lanewise(XOR, v8).lanewise(ROR, 12);
+                v2 = v2.add(v7).add(m13);
+                v13 = v13.lanewise(XOR, v2).lanewise(ROR, 8);
+                v8 = v8.add(v13);
+                v7 = v7.lanewise(XOR, v8).lanewise(ROR, 7);
+                v3 = v3.add(v4).add(m14);
+                v14 = v14.lanewise(XOR, v3).lanewise(ROR, 16);
+                v9 = v9.add(v14);
+                v4 = v4.lanewise(XOR, v9).lanewise(ROR, 12);
+                v3 = v3.add(v4).add(m15);
+                v14 = v14.lanewise(XOR, v3).lanewise(ROR, 8);
+                v9 = v9.add(v14);
+                v4 = v4.lanewise(XOR, v9).lanewise(ROR, 7);
+
+                //permute the message words for the next round
+                IntVector p0 = m2, p1 = m6, p2 = m3, p3 = m10, p4 = m7, p5 = m0, p6 = m4, p7 = m13;
+                IntVector p8 = m1, p9 = m11, p10 = m12, p11 = m5, p12 = m9, p13 = m14, p14 = m15, p15 = m8;
+                m0 = p0; m1 = p1; m2 = p2; m3 = p3; m4 = p4; m5 = p5; m6 = p6; m7 = p7;
+                m8 = p8; m9 = p9; m10 = p10; m11 = p11; m12 = p12; m13 = p13; m14 = p14; m15 = p15;
+            }
+
+            cv0 = v0.lanewise(XOR, v8);
+            cv1 = v1.lanewise(XOR, v9);
+            cv2 = v2.lanewise(XOR, v10);
+            cv3 = v3.lanewise(XOR, v11);
+            cv4 = v4.lanewise(XOR, v12);
+            cv5 = v5.lanewise(XOR, v13);
+            cv6 = v6.lanewise(XOR, v14);
+            cv7 = v7.lanewise(XOR, v15);
+        }
+
+        cv0.intoArray(words, 0);
+        cv1.intoArray(words, lanes);
+        cv2.intoArray(words, 2 * lanes);
+        cv3.intoArray(words, 3 * lanes);
+        cv4.intoArray(words, 4 * lanes);
+        cv5.intoArray(words, 5 * lanes);
+        cv6.intoArray(words, 6 * lanes);
+        cv7.intoArray(words, 7 * lanes);
+
+        int[][] ret = new int[lanes][16];
+        for (int j = 0; j < lanes; j++) {
+            for (int w = 0; w < 8; w++) {
+                ret[j][w] = words[w * lanes + j];
+            }
+        }
+        return ret;
+    }
+
+    private Blake3Lanes() {
+    }
+
+}
@@ -7,10 +7,15 @@ package org.asterisk.crypto.hash;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.SegmentScope;
 import java.lang.foreign.ValueLayout;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.asterisk.crypto.Tested;
 import org.asterisk.crypto.helper.Tools;
+import org.asterisk.crypto.lowlevel.KeccakP;
 import org.asterisk.crypto.Xof;
 
 import static org.asterisk.crypto.helper.Tools.store64LE;
@@ -24,6 +29,14 @@ public class KangarooTwelve implements Xof {
 
     private static final int BLOCK_SIZE = 168, CHUNK_SIZE = 8192;
 
+    //parallel ingestion, in batches of BATCH_CHUNKS leaves
+    private static final int BATCH_CHUNKS = 8;
+    private static final long BATCH_SIZE = (long) BATCH_CHUNKS * CHUNK_SIZE;
+    private static final int BATCHES_IN_FLIGHT = 256;
+
+    //the number of leaves hashed in lockstep by the interleaved permutation, 1 if it's unavailable
+    private static final int LEAF_LANES = Math.min(KeccakP.INTERLEAVED_LANES, 8);
+
     @Tested
     public static final KangarooTwelve DEFAULT = new KangarooTwelve(new byte[0]);
 
@@ -50,6 +63,37 @@ public class KangarooTwelve implements Xof {
 
     @Override
     public Engine start() {
+        return start(null);
+    }
+
+    /**
+     * starts a hasher that hashes the leaves of large inputs in parallel on
+     * the {@link ForkJoinPool#commonPool() common pool}, or a serial one if
+     * the common pool has no parallelism
+     *
+     * @see #startParallel(java.util.concurrent.Executor)
+     */
+    public Engine startParallel() {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallel(ForkJoinPool.commonPool()) : start();
+    }
+
+    /**
+     * starts a hasher that hashes the leaves of large inputs in batches of 8
+     * on {@code executor} and feeds their chaining values to the final node
+     * in order. The output is identical to that of {@link #start()}.
+     * <p>
+     * Segments passed to {@code ingest} must be accessible from the threads of
+     * {@code executor}, i.e. they must not be confined to the calling thread
+     *
+     * @param executor the executor to hash the leaves on
+     *
+     * @return the hasher
+     */
+    public Engine startParallel(Executor executor) {
+        return start(Objects.requireNonNull(executor));
+    }
+
+    private Engine start(Executor executor) {
         return new Xof.Engine() {
 
             private final Node root = new Node();
@@ -83,6 +127,31 @@ public class KangarooTwelve implements Xof {
                         chunkPos = 0;
                     }
                 }
+                if (chunkCtr == 0 && chunkPos == 0 && length > CHUNK_SIZE) {
+                    root.ingest(input, offset, CHUNK_SIZE);
+                    current = new Node();
+                    root.star();
+                    chunkCtr++;
+
+                    offset += CHUNK_SIZE;
+                    length -= CHUNK_SIZE;
+                }
+                if (executor != null && length > 2 * BATCH_SIZE) {
+                    long batches = (length - 1) / BATCH_SIZE;
+                    ingestBatches(input, offset, batches);
+                    offset += batches * BATCH_SIZE;
+                    length -= batches * BATCH_SIZE;
+                }
+                if (LEAF_LANES > 1 && length > LEAF_LANES * CHUNK_SIZE) {
+                    long[] outputs = new long[4 * LEAF_LANES];
+                    while (length > LEAF_LANES * CHUNK_SIZE) {
+                        hashLeaves(input, offset, outputs, 0);
+                        chainLeaves(outputs);
+
+                        offset += LEAF_LANES * CHUNK_SIZE;
+                        length -= LEAF_LANES * CHUNK_SIZE;
+                    }
+                }
                 while (length > CHUNK_SIZE) {
 
                     current.ingestWholeChunk(input, offset, 0x0b, output);
@@ -101,6 +170,34 @@ public class KangarooTwelve implements Xof {
                 }
             }
 
+            /**
+             * hashes {@code batches} batches of leaves on the executor, keeping
+             * at most {@code BATCHES_IN_FLIGHT} of them pending, and chains
+             * their outputs into the final node in order
+             */
+            private void ingestBatches(MemorySegment input, long offset, long batches) {
+                var pending = new ArrayDeque<CompletableFuture<long[]>>(BATCHES_IN_FLIGHT);
+                for (long i = 0; i < batches; i++) {
+                    if (pending.size() == BATCHES_IN_FLIGHT) {
+                        chainLeaves(pending.poll().join());
+                    }
+                    long batchOffset = offset;
+                    pending.add(CompletableFuture.supplyAsync(() -> hashBatch(input, batchOffset), executor));
+                    offset += BATCH_SIZE;
+                }
+                while (!pending.isEmpty()) {
+                    chainLeaves(pending.poll().join());
+                }
+            }
+
+            private void chainLeaves(long[] outputs) {
+                for (int i = 0; i < outputs.length; i += 4) {
+                    System.arraycopy(outputs, i, output, 0, 4);
+                    root.chain(output);
+                }
+                chunkCtr += outputs.length / 4;
+            }
+
             @Override
             public void startDigesting() {
                 ingest(customization);
@@ -161,6 +258,66 @@ public class KangarooTwelve implements Xof {
         return BLOCK_SIZE;
     }
 
+    private static long[] hashBatch(MemorySegment input, long offset) {
+        long[] outputs = new long[4 * BATCH_CHUNKS];
+        if (LEAF_LANES > 1) {
+            for (int i = 0; i < BATCH_CHUNKS; i += LEAF_LANES) {
+                hashLeaves(input, offset, outputs, 4 * i);
+                offset += LEAF_LANES * CHUNK_SIZE;
+            }
+            return outputs;
+        }
+        var leaf = new Node();
+        long[] output = new long[4];
+        for (int i = 0; i < BATCH_CHUNKS; i++) {
+            leaf.ingestWholeChunk(input, offset, 0x0b, output);
+            leaf.reset();
+            System.arraycopy(output, 0, outputs, 4 * i, 4);
+            offset += CHUNK_SIZE;
+        }
+        return outputs;
+    }
+
+    /**
+     * hashes {@code LEAF_LANES} consecutive whole leaves in lockstep, writing
+     * their 4 word chaining values one after another to {@code outputs}
+     */
+    private static void hashLeaves(MemorySegment input, long offset, long[] outputs, int outOffset) {
+        final int n = LEAF_LANES;
+        long[] states = new long[25 * n];
+        for (int block = 0; block < 48; block++) {
+            for (int j = 0; j < n; j++) {
+                long base = offset + (long) j * CHUNK_SIZE + block * BLOCK_SIZE;
+                for (int i = 0; i < 21; i++) {
+                    states[n * i + j] ^= input.get(Node.LAYOUT, base + 8 * i);
+                }
+            }
+            permuteLeaves(states);
+        }
+        for (int j = 0; j < n; j++) {
+            long base = offset + (long) j * CHUNK_SIZE + 48 * BLOCK_SIZE;
+            for (int i = 0; i < 16; i++) {
+                states[n * i + j] ^= input.get(Node.LAYOUT, base + 8 * i);
+            }
+            states[n * 16 + j] ^= 0x0b;
+            states[n * 20 + j] ^= 0x8000000000000000L;
+        }
+        permuteLeaves(states);
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < 4; i++) {
+                outputs[outOffset + 4 * j + i] = states[n * i + j];
+            }
+        }
+    }
+
+    private static void permuteLeaves(long[] states) {
+        if (LEAF_LANES == 8) {
+            KeccakP.keccak_p1600_x8(states, 12);
+        } else {
+            KeccakP.keccak_p1600_x4(states, 12);
+        }
+    }
+
     private static class Node {
 
         private static final ValueLayout.OfLong LAYOUT = Tools.LITTLE_ENDIAN_64_BIT;
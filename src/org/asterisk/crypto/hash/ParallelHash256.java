@@ -7,7 +7,12 @@ package org.asterisk.crypto.hash;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.SegmentScope;
 import java.lang.foreign.ValueLayout;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.asterisk.crypto.helper.Tools;
 import org.asterisk.crypto.Digest;
 import org.asterisk.crypto.lowlevel.KeccakP;
@@ -22,6 +27,9 @@ public class ParallelHash256 implements Digest {
 
     private static final int BLOCK_SIZE = 136, DIGEST_LEN = 64;
 
+    //parallel ingestion: every task hashes whole chunks worth at least TASK_SIZE bytes
+    private static final long TASK_SIZE = 1 << 16, DEFAULT_IN_FLIGHT = 1 << 26;
+
     private static final ValueLayout.OfLong LAYOUT = Tools.LITTLE_ENDIAN_64_BIT;
 
     private static final long PREFIX_0 = 0x01a8010c50617261L, PREFIX_1 = 0x6c6c656c48617368L;
@@ -62,6 +70,55 @@ public class ParallelHash256 implements Digest {
 
     @Override
     public Digest.Engine start() {
+        return start(null, 0);
+    }
+
+    /**
+     * starts a hasher that hashes the chunks of large inputs in parallel on
+     * the {@link ForkJoinPool#commonPool() common pool}, or a serial one if
+     * the common pool has no parallelism
+     *
+     * @see #startParallel(java.util.concurrent.Executor, long)
+     */
+    public Digest.Engine startParallel() {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallel(ForkJoinPool.commonPool()) : start();
+    }
+
+    /**
+     * starts a hasher that hashes chunks on {@code executor} with at most 64
+     * MiB of input in flight
+     *
+     * @see #startParallel(java.util.concurrent.Executor, long)
+     */
+    public Digest.Engine startParallel(Executor executor) {
+        return startParallel(executor, DEFAULT_IN_FLIGHT);
+    }
+
+    /**
+     * starts a hasher that hashes the chunks of large inputs concurrently on
+     * {@code executor} and feeds their chaining values to the root in order.
+     * The output is identical to that of {@link #start()}.
+     * <p>
+     * At most {@code maxInFlight} bytes of input are being hashed or waiting
+     * to be fed to the root at any time, and every call to {@code ingest}
+     * returns only after all of its input has been consumed. Segments passed to
+     * {@code ingest} must be accessible from the threads of
+     * {@code executor}, i.e. they must not be confined to the calling thread
+     *
+     * @param executor    the executor to hash the chunks on
+     * @param maxInFlight the maximum number of input bytes in flight, at least
+     *                    one chunk
+     *
+     * @return the hasher
+     */
+    public Digest.Engine startParallel(Executor executor, long maxInFlight) {
+        if (maxInFlight < chunkSize) {
+            throw new IllegalArgumentException("At least one chunk must be allowed in flight, got " + maxInFlight + " bytes");
+        }
+        return start(Objects.requireNonNull(executor), maxInFlight);
+    }
+
+    private Digest.Engine start(Executor executor, long maxInFlight) {
         return new Digest.Engine() {
 
             private final Chunk current = new Chunk();
@@ -76,6 +133,13 @@ public class ParallelHash256 implements Digest {
             public void ingest(MemorySegment input) {
                 long length = input.byteSize(), offset = 0;
                 while (length + chunkPos >= chunkSize) {
+                    if (executor != null && chunkPos == 0 && length >= 2 * chunkSize) {
+                        long chunks = length / chunkSize;
+                        ingestChunks(input, offset, chunks);
+                        offset += chunks * chunkSize;
+                        length -= chunks * chunkSize;
+                        continue;
+                    }
                     long take = chunkSize - chunkPos;
 
                     current.ingest(input, offset, take);
@@ -95,6 +159,39 @@ public class ParallelHash256 implements Digest {
                 }
             }
 
+            /**
+             * hashes {@code chunks} whole chunks in tasks of at least
+             * {@code TASK_SIZE} bytes, keeping no more than
+             * {@code maxInFlight} bytes pending, and chains their outputs in
+             * order
+             */
+            private void ingestChunks(MemorySegment input, long offset, long chunks) {
+                int perTask = (int) Math.max(1, Math.min(chunks, TASK_SIZE / chunkSize));
+                long tasksInFlight = Math.max(1, maxInFlight / (perTask * chunkSize));
+                var pending = new ArrayDeque<CompletableFuture<long[]>>();
+                while (chunks > 0) {
+                    if (pending.size() == tasksInFlight) {
+                        chainAll(pending.poll().join());
+                    }
+                    int count = (int) Math.min(chunks, perTask);
+                    long taskOffset = offset;
+                    pending.add(CompletableFuture.supplyAsync(() -> hashChunks(input, taskOffset, count), executor));
+                    offset += count * chunkSize;
+                    chunks -= count;
+                }
+                while (!pending.isEmpty()) {
+                    chainAll(pending.poll().join());
+                }
+            }
+
+            private void chainAll(long[] outputs) {
+                for (int i = 0; i < outputs.length; i += chaining.length) {
+                    System.arraycopy(outputs, i, chaining, 0, chaining.length);
+                    root.chain(chaining);
+                    nChunks++;
+                }
+            }
+
             @Override
             public void digestTo(byte[] dest, int offset) {
                 if (chunkPos > 0) {
@@ -113,6 +210,19 @@ public class ParallelHash256 implements Digest {
         };
     }
 
+    private long[] hashChunks(MemorySegment input, long offset, int count) {
+        var chunk = new Chunk();
+        long[] chaining = new long[DIGEST_LEN / 8], outputs = new long[count * chaining.length];
+        for (int i = 0; i < count; i++) {
+            chunk.ingest(input, offset, chunkSize);
+            chunk.finish(chaining);
+            chunk.reset();
+            System.arraycopy(chaining, 0, outputs, i * chaining.length, chaining.length);
+            offset += chunkSize;
+        }
+        return outputs;
+    }
+
     @Override
     public int digestSize() {
         return DIGEST_LEN;
@@ -175,6 +285,7 @@ public class ParallelHash256 implements Digest {
 
         public void reset() {
             Arrays.fill(state, 0);
+            position = 0;
         }
     }
 
@@ -6,6 +6,7 @@ package org.asterisk.crypto.hash;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.util.Objects;
 import org.asterisk.crypto.Digest;
 import org.asterisk.crypto.Tested;
 import org.asterisk.crypto.helper.AbstractDigestEngine;
@@ -23,13 +24,10 @@ public enum Sha2 implements Digest {
         private static final ValueLayout.OfInt LAYOUT = Tools.BIG_ENDIAN_32_BIT;
 
         @Override
-        public Engine start() {
-            return new AbstractDigestEngine(64) {
+        public Sha2Engine start() {
+            return new AbstractSha2Engine(64) {
 
-                private final int[] state = {
-                    0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a,
-                    0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
-                }, expand = new int[64];
+                private final int[] state = IV_256.clone(), expand = new int[64];
 
                 private long msglen = 0;
 
@@ -173,6 +171,22 @@ public enum Sha2 implements Digest {
                     Tools.store32BE(state[7], dest, offset + 28);
                 }
 
+                @Override
+                long save(long[] words) {
+                    for (int i = 0; i < 8; i++) {
+                        words[i] = state[i];
+                    }
+                    return msglen;
+                }
+
+                @Override
+                void load(long[] words, long ingested) {
+                    for (int i = 0; i < 8; i++) {
+                        state[i] = (int) words[i];
+                    }
+                    msglen = ingested;
+                }
+
                 @Override
                 public Digest getAlgorithm() {
                     return Sha2.SHA_256;
@@ -197,13 +211,10 @@ public enum Sha2 implements Digest {
         private static final ValueLayout.OfInt LAYOUT = Tools.BIG_ENDIAN_32_BIT;
 
         @Override
-        public Engine start() {
-            return new AbstractDigestEngine(64) {
+        public Sha2Engine start() {
+            return new AbstractSha2Engine(64) {
 
-                private final int[] state = {
-                    0xc1059ed8, 0x367cd507, 0x3070dd17, 0xf70e5939,
-                    0xffc00b31, 0x68581511, 0x64f98fa7, 0xbefa4fa4
-                }, expand = new int[64];
+                private final int[] state = IV_224.clone(), expand = new int[64];
 
                 private long msglen = 0;
 
@@ -346,6 +357,22 @@ public enum Sha2 implements Digest {
                     Tools.store32BE(state[6], dest, offset + 24);
                 }
 
+                @Override
+                long save(long[] words) {
+                    for (int i = 0; i < 8; i++) {
+                        words[i] = state[i];
+                    }
+                    return msglen;
+                }
+
+                @Override
+                void load(long[] words, long ingested) {
+                    for (int i = 0; i < 8; i++) {
+                        state[i] = (int) words[i];
+                    }
+                    msglen = ingested;
+                }
+
                 @Override
                 public Digest getAlgorithm() {
                     return Sha2.SHA_224;
@@ -371,13 +398,10 @@ public enum Sha2 implements Digest {
         private static final ValueLayout.OfLong LAYOUT = Tools.BIG_ENDIAN_64_BIT;
 
         @Override
-        public Engine start() {
-            return new AbstractDigestEngine(128) {
+        public Sha2Engine start() {
+            return new AbstractSha2Engine(128) {
 
-                private final long[] state = {
-                    0x6a09e667f3bcc908L, 0xbb67ae8584caa73bL, 0x3c6ef372fe94f82bL, 0xa54ff53a5f1d36f1L,
-                    0x510e527fade682d1L, 0x9b05688c2b3e6c1fL, 0x1f83d9abfb41bd6bL, 0x5be0cd19137e2179L
-                }, expand = new long[80];
+                private final long[] state = IV_512.clone(), expand = new long[80];
 
                 private long msglen = 0;
 
@@ -521,6 +545,22 @@ public enum Sha2 implements Digest {
                     Tools.store64BE(state[7], dest, offset + 56);
                 }
 
+                @Override
+                long save(long[] words) {
+                    for (int i = 0; i < 8; i++) {
+                        words[i] = state[i];
+                    }
+                    return msglen;
+                }
+
+                @Override
+                void load(long[] words, long ingested) {
+                    for (int i = 0; i < 8; i++) {
+                        state[i] = words[i];
+                    }
+                    msglen = ingested;
+                }
+
                 @Override
                 public Digest getAlgorithm() {
                     return Sha2.SHA_512;
@@ -544,13 +584,10 @@ public enum Sha2 implements Digest {
         private static final ValueLayout.OfLong LAYOUT = Tools.BIG_ENDIAN_64_BIT;
 
         @Override
-        public Engine start() {
-            return new AbstractDigestEngine(128) {
+        public Sha2Engine start() {
+            return new AbstractSha2Engine(128) {
 
-                private final long[] state = {
-                    0xcbbb9d5dc1059ed8L, 0x629a292a367cd507L, 0x9159015a3070dd17L, 0x152fecd8f70e5939L,
-                    0x67332667ffc00b31L, 0x8eb44a8768581511L, 0xdb0c2e0d64f98fa7L, 0x47b5481dbefa4fa4L
-                }, expand = new long[80];
+                private final long[] state = IV_384.clone(), expand = new long[80];
 
                 private long msglen = 0;
 
@@ -692,6 +729,22 @@ public enum Sha2 implements Digest {
                     Tools.store64BE(state[5], dest, offset + 40);
                 }
 
+                @Override
+                long save(long[] words) {
+                    for (int i = 0; i < 8; i++) {
+                        words[i] = state[i];
+                    }
+                    return msglen;
+                }
+
+                @Override
+                void load(long[] words, long ingested) {
+                    for (int i = 0; i < 8; i++) {
+                        state[i] = words[i];
+                    }
+                    msglen = ingested;
+                }
+
                 @Override
                 public Digest getAlgorithm() {
                     return Sha2.SHA_384;
@@ -711,7 +764,147 @@ public enum Sha2 implements Digest {
         }
     };
 
-    private static final int[] RCON_32 = {
+    @Override
+    public abstract Sha2Engine start();
+
+    /**
+     * starts an engine from a previously taken snapshot, as if everything
+     * ingested before the snapshot had been ingested again
+     *
+     * @param midstate the snapshot, of an engine of this algorithm
+     *
+     * @return the engine
+     *
+     * @throws IllegalArgumentException if {@code midstate} was taken from an
+     *                                  engine of a different algorithm
+     */
+    public Sha2Engine start(Midstate midstate) {
+        if (midstate.algorithm != this) {
+            throw new IllegalArgumentException("Midstate of " + midstate.algorithm + " cannot be used with " + this);
+        }
+        var engine = (AbstractSha2Engine) start();
+        engine.resume(midstate);
+        return engine;
+    }
+
+    /**
+     * A SHA-2 engine whose progress can be saved with {@link #snapshot()} and
+     * resumed any number of times later, e.g. to hash many messages sharing a
+     * long common prefix without ingesting the prefix every time
+     */
+    public static interface Sha2Engine extends Digest.Engine {
+
+        /**
+         * saves everything ingested so far. A whole block still buffered is
+         * compressed first, so engines resumed from the snapshot only
+         * compress what is ingested after it. Taking a snapshot does not
+         * otherwise affect this engine, which may continue to be used
+         *
+         * @return the snapshot
+         */
+        Midstate snapshot();
+
+    }
+
+    private static abstract class AbstractSha2Engine extends AbstractDigestEngine implements Sha2Engine {
+
+        private AbstractSha2Engine(int blockSize) {
+            super(blockSize);
+        }
+
+        @Override
+        public final Midstate snapshot() {
+            //SHA-2 padding starts a new block after a whole one, so a full buffer can always be compressed
+            compressFullBuffer();
+            long[] words = new long[8];
+            long compressed = save(words);
+            return new Midstate((Sha2) getAlgorithm(), words, compressed, bufferedInput());
+        }
+
+        private void resume(Midstate midstate) {
+            load(midstate.chainingValue, midstate.compressed);
+            restoreBufferedInput(midstate.buffered);
+        }
+
+        /**
+         * copies the chaining value to {@code words}, returning the number of
+         * bytes compressed into it
+         */
+        abstract long save(long[] words);
+
+        abstract void load(long[] words, long ingested);
+
+    }
+
+    /**
+     * An immutable snapshot of a {@link Sha2Engine}: the chaining value, the
+     * number of bytes compressed into it and the input buffered but not yet
+     * compressed. New engines are started from it in constant time with
+     * {@link Sha2#start(Midstate)} or {@link #start()}
+     */
+    public static final class Midstate {
+
+        private final Sha2 algorithm;
+        private final long[] chainingValue;
+        private final long compressed;
+        private final byte[] buffered;
+
+        private Midstate(Sha2 algorithm, long[] chainingValue, long compressed, byte[] buffered) {
+            this.algorithm = algorithm;
+            this.chainingValue = chainingValue;
+            this.compressed = compressed;
+            this.buffered = buffered;
+        }
+
+        public Sha2 algorithm() {
+            return algorithm;
+        }
+
+        /**
+         * @return the number of bytes compressed into the chaining value,
+         *         always a multiple of the block size
+         */
+        public long compressed() {
+            return compressed;
+        }
+
+        /**
+         * @return the total number of bytes ingested before the snapshot
+         */
+        public long length() {
+            return compressed + buffered.length;
+        }
+
+        /**
+         * @return a new engine resuming from this snapshot
+         */
+        public Sha2Engine start() {
+            return algorithm.start(this);
+        }
+
+    }
+
+    private static final int[] IV_256 = {
+        0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a,
+        0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+    };
+
+    private static final int[] IV_224 = {
+        0xc1059ed8, 0x367cd507, 0x3070dd17, 0xf70e5939,
+        0xffc00b31, 0x68581511, 0x64f98fa7, 0xbefa4fa4
+    };
+
+    private static final long[] IV_512 = {
+        0x6a09e667f3bcc908L, 0xbb67ae8584caa73bL, 0x3c6ef372fe94f82bL, 0xa54ff53a5f1d36f1L,
+        0x510e527fade682d1L, 0x9b05688c2b3e6c1fL, 0x1f83d9abfb41bd6bL, 0x5be0cd19137e2179L
+    };
+
+    private static final long[] IV_384 = {
+        0xcbbb9d5dc1059ed8L, 0x629a292a367cd507L, 0x9159015a3070dd17L, 0x152fecd8f70e5939L,
+        0x67332667ffc00b31L, 0x8eb44a8768581511L, 0xdb0c2e0d64f98fa7L, 0x47b5481dbefa4fa4L
+    };
+
+    static final int[] RCON_32 = {
         0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
         0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
         0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
@@ -722,7 +915,7 @@ public enum Sha2 implements Digest {
         0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
     };
 
-    private static final long[] RCON_64 = {
+    static final long[] RCON_64 = {
         0x428a2f98d728ae22L, 0x7137449123ef65cdL, 0xb5c0fbcfec4d3b2fL, 0xe9b5dba58189dbbcL,
         0x3956c25bf348b538L, 0x59f111f1b605d019L, 0x923f82a4af194f9bL, 0xab1c5ed5da6d8118L,
         0xd807aa98a3030242L, 0x12835b0145706fbeL, 0x243185be4ee4b28cL, 0x550c7dc3d5ffb4e2L,
@@ -745,6 +938,223 @@ public enum Sha2 implements Digest {
         0x4cc5d4becb3e42b6L, 0x597f299cfc657e2aL, 0x5fcb6fab3ad6faecL, 0x6c44198c4a475817L
     };
 
+    //multi-buffer hashing, LANES_* messages at a time
+    private static final int LANES_32 = Tools.VECTOR_API_AVAILABLE ? Sha2Lanes.LANES_32 : 1;
+    private static final int LANES_64 = Tools.VECTOR_API_AVAILABLE ? Sha2Lanes.LANES_64 : 1;
+
+    /**
+     * computes the digests of all of {@code inputs} at once, storing the
+     * digest of {@code inputs[i]} at offset {@code i * digestSize()} of
+     * {@code outputs}.
+     * <p>
+     * If the Vector API is available the messages are hashed in groups, one
+     * message per vector lane, so a group takes about as long as its longest
+     * message and inputs of similar lengths should be passed together.
+     * Nothing is allocated per message, making this much faster than a
+     * separate {@link #start() engine} per message for many short inputs
+     *
+     * @param inputs  the messages to hash
+     * @param outputs the segment to store the digests in, at least
+     *                {@code inputs.length * digestSize()} bytes long
+     */
+    public void digestMany(MemorySegment[] inputs, MemorySegment outputs) {
+        Objects.checkFromIndexSize(0, (long) inputs.length * digestSize(), outputs.byteSize());
+        switch (this) {
+            case SHA_256 ->
+                digestMany32(IV_256, 8, inputs, outputs);
+            case SHA_224 ->
+                digestMany32(IV_224, 7, inputs, outputs);
+            case SHA_512 ->
+                digestMany64(IV_512, 8, inputs, outputs);
+            case SHA_384 ->
+                digestMany64(IV_384, 6, inputs, outputs);
+        }
+    }
+
+    private static void digestMany32(int[] iv, int digestWords, MemorySegment[] inputs, MemorySegment outputs) {
+        final int lanes = LANES_32;
+        int[] state = new int[8 * lanes], schedule = new int[64 * lanes];
+        long[] blocks = new long[lanes];
+        boolean[] active = new boolean[lanes];
+
+        for (int first = 0; first < inputs.length; first += lanes) {
+            int count = Math.min(lanes, inputs.length - first);
+            long maxBlocks = 0;
+            for (int j = 0; j < lanes; j++) {
+                for (int i = 0; i < 8; i++) {
+                    state[i * lanes + j] = iv[i];
+                }
+                //at least 9 bytes of padding
+                blocks[j] = j < count ? (inputs[first + j].byteSize() + 9 + 63) / 64 : 0;
+                maxBlocks = Math.max(maxBlocks, blocks[j]);
+            }
+
+            for (long k = 0; k < maxBlocks; k++) {
+                for (int j = 0; j < lanes; j++) {
+                    active[j] = k < blocks[j];
+                    if (active[j]) {
+                        loadBlock32(inputs[first + j], k, k == blocks[j] - 1, schedule, lanes, j);
+                    }
+                }
+                if (lanes > 1) {
+                    Sha2Lanes.compress32(state, schedule, active);
+                } else {
+                    compress32(state, schedule);
+                }
+            }
+
+            for (int j = 0; j < count; j++) {
+                long base = 4L * digestWords * (first + j);
+                for (int i = 0; i < digestWords; i++) {
+                    outputs.set(Tools.BIG_ENDIAN_32_BIT, base + 4 * i, state[i * lanes + j]);
+                }
+            }
+        }
+    }
+
+    private static void digestMany64(long[] iv, int digestWords, MemorySegment[] inputs, MemorySegment outputs) {
+        final int lanes = LANES_64;
+        long[] state = new long[8 * lanes], schedule = new long[80 * lanes];
+        long[] blocks = new long[lanes];
+        boolean[] active = new boolean[lanes];
+
+        for (int first = 0; first < inputs.length; first += lanes) {
+            int count = Math.min(lanes, inputs.length - first);
+            long maxBlocks = 0;
+            for (int j = 0; j < lanes; j++) {
+                for (int i = 0; i < 8; i++) {
+                    state[i * lanes + j] = iv[i];
+                }
+                //at least 17 bytes of padding
+                blocks[j] = j < count ? (inputs[first + j].byteSize() + 17 + 127) / 128 : 0;
+                maxBlocks = Math.max(maxBlocks, blocks[j]);
+            }
+
+            for (long k = 0; k < maxBlocks; k++) {
+                for (int j = 0; j < lanes; j++) {
+                    active[j] = k < blocks[j];
+                    if (active[j]) {
+                        loadBlock64(inputs[first + j], k, k == blocks[j] - 1, schedule, lanes, j);
+                    }
+                }
+                if (lanes > 1) {
+                    Sha2Lanes.compress64(state, schedule, active);
+                } else {
+                    compress64(state, schedule);
+                }
+            }
+
+            for (int j = 0; j < count; j++) {
+                long base = 8L * digestWords * (first + j);
+                for (int i = 0; i < digestWords; i++) {
+                    outputs.set(Tools.BIG_ENDIAN_64_BIT, base + 8 * i, state[i * lanes + j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * stores the words of the {@code block}-th padded block of {@code input}
+     * at {@code words[i * stride + lane]}
+     */
+    private static void loadBlock32(MemorySegment input, long block, boolean last, int[] words, int stride, int lane) {
+        long offset = 64 * block, length = input.byteSize();
+        for (int i = 0; i < 16; i++, offset += 4) {
+            int word;
+            if (offset + 4 <= length) {
+                word = input.get(Tools.BIG_ENDIAN_32_BIT, offset);
+            } else {
+                word = 0;
+                for (long p = offset; p < offset + 4; p++) {
+                    word = word << 8 | (p < length ? input.get(ValueLayout.JAVA_BYTE, p) & 0xff : p == length ? 0x80 : 0);
+                }
+            }
+            words[i * stride + lane] = word;
+        }
+        if (last) {
+            words[14 * stride + lane] = (int) (length >>> 29);
+            words[15 * stride + lane] = (int) (length << 3);
+        }
+    }
+
+    private static void loadBlock64(MemorySegment input, long block, boolean last, long[] words, int stride, int lane) {
+        long offset = 128 * block, length = input.byteSize();
+        for (int i = 0; i < 16; i++, offset += 8) {
+            long word;
+            if (offset + 8 <= length) {
+                word = input.get(Tools.BIG_ENDIAN_64_BIT, offset);
+            } else {
+                word = 0;
+                for (long p = offset; p < offset + 8; p++) {
+                    word = word << 8 | (p < length ? input.get(ValueLayout.JAVA_BYTE, p) & 0xff : p == length ? 0x80 : 0);
+                }
+            }
+            words[i * stride + lane] = word;
+        }
+        if (last) {
+            words[14 * stride + lane] = length >>> 61;
+            words[15 * stride + lane] = length << 3;
+        }
+    }
+
+    /**
+     * expands the block in the first 16 words of {@code schedule} and
+     * compresses it into {@code state}
+     */
+    private static void compress32(int[] state, int[] schedule) {
+        for (int i = 16; i < 64; i++) {
+            schedule[i] = gamma1(schedule[i - 2]) + schedule[i - 7] + gamma0(schedule[i - 15]) + schedule[i - 16];
+        }
+        int a = state[0], b = state[1], c = state[2], d = state[3], e = state[4], f = state[5], g = state[6], h = state[7];
+        for (int r = 0; r < 64; r++) {
+            int t0 = h + sigma1(e) + ch(e, f, g) + RCON_32[r] + schedule[r];
+            int t1 = sigma0(a) + maj(a, b, c);
+            h = g;
+            g = f;
+            f = e;
+            e = d + t0;
+            d = c;
+            c = b;
+            b = a;
+            a = t0 + t1;
+        }
+        state[0] += a;
+        state[1] += b;
+        state[2] += c;
+        state[3] += d;
+        state[4] += e;
+        state[5] += f;
+        state[6] += g;
+        state[7] += h;
+    }
+
+    private static void compress64(long[] state, long[] schedule) {
+        for (int i = 16; i < 80; i++) {
+            schedule[i] = gamma1(schedule[i - 2]) + schedule[i - 7] + gamma0(schedule[i - 15]) + schedule[i - 16];
+        }
+        long a = state[0], b = state[1], c = state[2], d = state[3], e = state[4], f = state[5], g = state[6], h = state[7];
+        for (int r = 0; r < 80; r++) {
+            long t0 = h + sigma1(e) + ch(e, f, g) + RCON_64[r] + schedule[r];
+            long t1 = sigma0(a) + maj(a, b, c);
+            h = g;
+            g = f;
+            f = e;
+            e = d + t0;
+            d = c;
+            c = b;
+            b = a;
+            a = t0 + t1;
+        }
+        state[0] += a;
+        state[1] += b;
+        state[2] += c;
+        state[3] += d;
+        state[4] += e;
+        state[5] += f;
+        state[6] += g;
+        state[7] += h;
+    }
+
     private static long ch(long x, long y, long z) {
         return z ^ (x & (y ^ z));
     }
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.hash;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+import org.asterisk.crypto.helper.Tools;
+
+import static jdk.incubator.vector.VectorOperators.LSHR;
+import static jdk.incubator.vector.VectorOperators.ROR;
+import static jdk.incubator.vector.VectorOperators.XOR;
+
+/**
+ * Compresses one block of each of several independent SHA-2 messages in
+ * lockstep, one message per vector lane, for
+ * {@link Sha2#digestMany(java.lang.foreign.MemorySegment[], java.lang.foreign.MemorySegment) digestMany}.
+ * <p>
+ * All arrays are lane-major: word {@code i} of message {@code j} is at index
+ * {@code i * LANES + j}.
+ * <p>
+ * This class uses the incubating Vector API and must only be loaded if
+ * {@link Tools#VECTOR_API_AVAILABLE} is {@code true}
+ *
+ * @author Sayantan Chakraborty
+ */
+final class Sha2Lanes {
+
+    private static final VectorSpecies<Integer> SPECIES_32 = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> SPECIES_64 = LongVector.SPECIES_PREFERRED;
+
+    /**
+     * the number of SHA-224/256 messages hashed at once, or 1 if the platform
+     * has no SIMD registers worth using
+     */
+    static final int LANES_32 = SPECIES_32.length() >= 4 ? SPECIES_32.length() : 1;
+
+    /**
+     * the number of SHA-384/512 messages hashed at once, or 1 if the platform
+     * has no SIMD registers worth using
+     */
+    static final int LANES_64 = SPECIES_64.length() >= 4 ? SPECIES_64.length() : 1;
+
+    /**
+     * expands the blocks in the first 16 rows of {@code schedule} and
+     * compresses them into {@code state}, leaving the lanes that are not
+     * {@code active} unchanged
+     */
+    static void compress32(int[] state, int[] schedule, boolean[] active) {
+        final int lanes = LANES_32;
+        for (int i = 16; i < 64; i++) {
+            IntVector w2 = IntVector.fromArray(SPECIES_32, schedule, (i - 2) * lanes);
+            IntVector w15 = IntVector.fromArray(SPECIES_32, schedule, (i - 15) * lanes);
+            w2.lanewise(ROR, 17).lanewise(XOR, w2.lanewise(ROR, 19)).lanewise(XOR, w2.lanewise(LSHR, 10))
+                    .add(IntVector.fromArray(SPECIES_32, schedule, (i - 7) * lanes))
+                    .add(w15.lanewise(ROR, 7).lanewise(XOR, w15.lanewise(ROR, 18)).lanewise(XOR, w15.lanewise(LSHR, 3)))
+                    .add(IntVector.fromArray(SPECIES_32, schedule, (i - 16) * lanes))
+                    .intoArray(schedule, i * lanes);
+        }
+
+        IntVector a = IntVector.fromArray(SPECIES_32, state, 0);
+        IntVector b = IntVector.fromArray(SPECIES_32, state, lanes);
+        IntVector c = IntVector.fromArray(SPECIES_32, state, 2 * lanes);
+        IntVector d = IntVector.fromArray(SPECIES_32, state, 3 * lanes);
+        IntVector e = IntVector.fromArray(SPECIES_32, state, 4 * lanes);
+        IntVector f = IntVector.fromArray(SPECIES_32, state, 5 * lanes);
+        IntVector g = IntVector.fromArray(SPECIES_32, state, 6 * lanes);
+        IntVector h = IntVector.fromArray(SPECIES_32, state, 7 * lanes);
+
+        for (int r = 0; r < 64; r++) {
+            IntVector t0 = h.add(e.lanewise(ROR, 6).lanewise(XOR, e.lanewise(ROR, 11)).lanewise(XOR, e.lanewise(ROR, 25)))
+                    .add(g.lanewise(XOR, e.and(f.lanewise(XOR, g))))
+                    .add(Sha2.RCON_32[r])
+                    .add(IntVector.fromArray(SPECIES_32, schedule, r * lanes));
+            IntVector t1 = a.lanewise(ROR, 2).lanewise(XOR, a.lanewise(ROR, 13)).lanewise(XOR, a.lanewise(ROR, 22))
+                    .add(a.or(b).and(c).or(a.and(b)));
+            h = g;
+            g = f;
+            f = e;
+            e = d.add(t0);
+            d = c;
+            c = b;
+            b = a;
+            a = t0.add(t1);
+        }
+
+        var mask = VectorMask.fromArray(SPECIES_32, active, 0);
+        IntVector.fromArray(SPECIES_32, state, 0).add(a, mask).intoArray(state, 0);
+        IntVector.fromArray(SPECIES_32, state, lanes).add(b, mask).intoArray(state, lanes);
+        IntVector.fromArray(SPECIES_32, state, 2 * lanes).add(c, mask).intoArray(state, 2 * lanes);
+        IntVector.fromArray(SPECIES_32, state, 3 * lanes).add(d, mask).intoArray(state, 3 * lanes);
+        IntVector.fromArray(SPECIES_32, state, 4 * lanes).add(e, mask).intoArray(state, 4 * lanes);
+        IntVector.fromArray(SPECIES_32, state, 5 * lanes).add(f, mask).intoArray(state, 5 * lanes);
+        IntVector.fromArray(SPECIES_32, state, 6 * lanes).add(g, mask).intoArray(state, 6 * lanes);
+        IntVector.fromArray(SPECIES_32, state, 7 * lanes).add(h, mask).intoArray(state, 7 * lanes);
+    }
+
+    /**
+     * the SHA-384/512 counterpart of
+     * {@link #compress32(int[], int[], boolean[]) compress32}
+     */
+    static void compress64(long[] state, long[] schedule, boolean[] active) {
+        final int lanes = LANES_64;
+        for (int i = 16; i < 80; i++) {
+            LongVector w2 = LongVector.fromArray(SPECIES_64, schedule, (i - 2) * lanes);
+            LongVector w15 = LongVector.fromArray(SPECIES_64, schedule, (i - 15) * lanes);
+            w2.lanewise(ROR, 19).lanewise(XOR, w2.lanewise(ROR, 61)).lanewise(XOR, w2.lanewise(LSHR, 6))
+                    .add(LongVector.fromArray(SPECIES_64, schedule, (i - 7) * lanes))
+                    .add(w15.lanewise(ROR, 1).lanewise(XOR, w15.lanewise(ROR, 8)).lanewise(XOR, w15.lanewise(LSHR, 7)))
+                    .add(LongVector.fromArray(SPECIES_64, schedule, (i - 16) * lanes))
+                    .intoArray(schedule, i * lanes);
+        }
+
+        LongVector a = LongVector.fromArray(SPECIES_64, state, 0);
+        LongVector b = LongVector.fromArray(SPECIES_64, state, lanes);
+        LongVector c = LongVector.fromArray(SPECIES_64, state, 2 * lanes);
+        LongVector d = LongVector.fromArray(SPECIES_64, state, 3 * lanes);
+        LongVector e = LongVector.fromArray(SPECIES_64, state, 4 * lanes);
+        LongVector f = LongVector.fromArray(SPECIES_64, state, 5 * lanes);
+        LongVector g = LongVector.fromArray(SPECIES_64, state, 6 * lanes);
+        LongVector h = LongVector.fromArray(SPECIES_64, state, 7 * lanes);
+
+        for (int r = 0; r < 80; r++) {
+            LongVector t0 = h.add(e.lanewise(ROR, 14).lanewise(XOR, e.lanewise(ROR, 18)).lanewise(XOR, e.lanewise(ROR, 41)))
+                    .add(g.lanewise(XOR, e.and(f.lanewise(XOR, g))))
+                    .add(Sha2.RCON_64[r])
+                    .add(LongVector.fromArray(SPECIES_64, schedule, r * lanes));
+            LongVector t1 = a.lanewise(ROR, 28).lanewise(XOR, a.lanewise(ROR, 34)).lanewise(XOR, a.lanewise(ROR, 39))
+                    .add(a.or(b).and(c).or(a.and(b)));
+            h = g;
+            g = f;
+            f = e;
+            e = d.add(t0);
+            d = c;
+            c = b;
+            b = a;
+            a = t0.add(t1);
+        }
+
+        var mask = VectorMask.fromArray(SPECIES_64, active, 0);
+        LongVector.fromArray(SPECIES_64, state, 0).add(a, mask).intoArray(state, 0);
+        LongVector.fromArray(SPECIES_64, state, lanes).add(b, mask).intoArray(state, lanes);
+        LongVector.fromArray(SPECIES_64, state, 2 * lanes).add(c, mask).intoArray(state, 2 * lanes);
+        LongVector.fromArray(SPECIES_64, state, 3 * lanes).add(d, mask).intoArray(state, 3 * lanes);
+        LongVector.fromArray(SPECIES_64, state, 4 * lanes).add(e, mask).intoArray(state, 4 * lanes);
+        LongVector.fromArray(SPECIES_64, state, 5 * lanes).add(f, mask).intoArray(state, 5 * lanes);
+        LongVector.fromArray(SPECIES_64, state, 6 * lanes).add(g, mask).intoArray(state, 6 * lanes);
+        LongVector.fromArray(SPECIES_64, state, 7 * lanes).add(h, mask).intoArray(state, 7 * lanes);
+    }
+
+    private Sha2Lanes() {
+    }
+
+}
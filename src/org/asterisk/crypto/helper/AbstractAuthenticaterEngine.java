@@ -42,6 +42,33 @@ public abstract class AbstractAuthenticaterEngine implements AuthenticatedCipher
 
     protected abstract int encryptLastBlock(MemorySegment buffer, int length, MemorySegment ciphertext);
 
+    /**
+     * ingests {@code blocks} consecutive whole blocks of {@code aad}
+     * starting at {@code offset}. None of them is the last block. The default
+     * implementation calls {@link #ingestOneBlock} for each block, engines
+     * that can process several blocks at once should override it
+     */
+    protected void ingestBlocks(MemorySegment aad, long offset, long blocks) {
+        while (blocks-- > 0) {
+            ingestOneBlock(aad, offset);
+            offset += aadBlockSize;
+        }
+    }
+
+    /**
+     * encrypts {@code blocks} consecutive whole blocks of {@code plaintext}.
+     * None of them is the last block. The default implementation calls
+     * {@link #encryptOneBlock} for each block, engines that can encrypt several
+     * blocks at once should override it
+     */
+    protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+        while (blocks-- > 0) {
+            encryptOneBlock(plaintext, pOffset, ciphertext, cOffset);
+            pOffset += msgBlockSize;
+            cOffset += msgBlockSize;
+        }
+    }
+
     protected abstract void finalizeState();
 
     protected abstract void generateTag(byte[] dest);
@@ -63,10 +90,11 @@ public abstract class AbstractAuthenticaterEngine implements AuthenticatedCipher
                 position = 0;
             }
         }
-        while (length > aadBlockSize) {
-            ingestOneBlock(input, offset);
-            offset += aadBlockSize;
-            length -= aadBlockSize;
+        if (length > aadBlockSize) {
+            long blocks = (length - 1) / aadBlockSize;
+            ingestBlocks(input, offset, blocks);
+            offset += blocks * aadBlockSize;
+            length -= blocks * aadBlockSize;
         }
         if (length > 0) {
             MemorySegment.copy(input, offset, buffer, 0, length);
@@ -94,11 +122,13 @@ public abstract class AbstractAuthenticaterEngine implements AuthenticatedCipher
                 position = 0;
             }
         }
-        while (length > msgBlockSize) {
-            encryptOneBlock(plaintext, pOffset, ciphertext, cOffset);
-            pOffset += msgBlockSize;
-            length -= msgBlockSize;
-            cOffset += msgBlockSize;
+        if (length > msgBlockSize) {
+            //the last block is always kept for encryptLastBlock
+            long blocks = (length - 1) / msgBlockSize;
+            encryptBlocks(plaintext, pOffset, ciphertext, cOffset, blocks);
+            pOffset += blocks * msgBlockSize;
+            length -= blocks * msgBlockSize;
+            cOffset += blocks * msgBlockSize;
         }
         if (length > 0) {
             MemorySegment.copy(plaintext, pOffset, buffer, 0, length);
@@ -28,6 +28,20 @@ public abstract class AbstractDecryptEngine implements Cipher.DecryptEngine {
 
     protected abstract int decryptLastBlock(MemorySegment buffer, int length, MemorySegment plaintext);
 
+    /**
+     * decrypts {@code blocks} consecutive whole blocks of {@code ciphertext}.
+     * The default implementation calls {@link #decryptOneBlock} for each
+     * block, engines that can decrypt several blocks at once should override
+     * it
+     */
+    protected void decryptBlocks(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+        while (blocks-- > 0) {
+            decryptOneBlock(ciphertext, cOffset, plaintext, pOffset);
+            cOffset += blockSize;
+            pOffset += blockSize;
+        }
+    }
+
     @Override
     public long decrypt(MemorySegment ciphertext, MemorySegment plaintext) {
         long cOffset = 0, length = ciphertext.byteSize(), pOffset = 0;
@@ -43,11 +57,13 @@ public abstract class AbstractDecryptEngine implements Cipher.DecryptEngine {
                 position = 0;
             }
         }
-        while (length > blockSize) {
-            decryptOneBlock(ciphertext, cOffset, plaintext, pOffset);
-            cOffset += blockSize;
-            length -= blockSize;
-            pOffset += blockSize;
+        if (length > blockSize) {
+            //the last block is always kept for decryptLastBlock
+            long blocks = (length - 1) / blockSize;
+            decryptBlocks(ciphertext, cOffset, plaintext, pOffset, blocks);
+            cOffset += blocks * blockSize;
+            length -= blocks * blockSize;
+            pOffset += blocks * blockSize;
         }
         if (length > 0) {
             MemorySegment.copy(ciphertext, cOffset, buffer, 0, length);
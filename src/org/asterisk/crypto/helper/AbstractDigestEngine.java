@@ -6,6 +6,7 @@ package org.asterisk.crypto.helper;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.SegmentScope;
+import java.lang.foreign.ValueLayout;
 import java.util.Objects;
 import org.asterisk.crypto.Digest;
 
@@ -67,4 +68,37 @@ public abstract class AbstractDigestEngine implements Digest.Engine {
         this.position = Objects.checkFromIndexSize(position, 0, blockSize);
     }
 
+    /**
+     * compresses the buffered input if it is a whole block, which is otherwise
+     * held back until more input arrives. Only valid for engines whose
+     * {@link #ingestLastBlock(java.lang.foreign.MemorySegment, int) ingestLastBlock}
+     * accepts an empty last block after a whole one, like the Merkle-Damgard
+     * hashes
+     */
+    protected void compressFullBuffer() {
+        if (position == blockSize) {
+            ingestOneBlock(buffer, 0);
+            position = 0;
+        }
+    }
+
+    /**
+     * @return a copy of the input buffered but not yet passed to
+     *         {@link #ingestOneBlock(java.lang.foreign.MemorySegment, long) ingestOneBlock}
+     */
+    protected byte[] bufferedInput() {
+        return buffer.asSlice(0, position).toArray(ValueLayout.JAVA_BYTE);
+    }
+
+    /**
+     * replaces the buffered input with {@code input}, which must be no longer
+     * than a block
+     *
+     * @param input
+     */
+    protected void restoreBufferedInput(byte[] input) {
+        setBufferPosition(input.length);
+        MemorySegment.copy(input, 0, buffer, ValueLayout.JAVA_BYTE, 0, input.length);
+    }
+
 }
@@ -29,6 +29,19 @@ public abstract class AbstractMacEngine implements Mac.Engine {
 
     protected abstract void ingestLastBlock(MemorySegment input, int length);
 
+    /**
+     * ingests {@code blocks} consecutive whole blocks of {@code input}
+     * starting at {@code offset}. None of them is the last block. The default
+     * implementation calls {@link #ingestOneBlock} for each block, engines
+     * that can process several blocks at once should override it
+     */
+    protected void ingestBlocks(MemorySegment input, long offset, long blocks) {
+        while (blocks-- > 0) {
+            ingestOneBlock(input, offset);
+            offset += blockSize;
+        }
+    }
+
     protected abstract void getTag(byte[] buffer, int offset);
 
     @Override
@@ -45,10 +58,11 @@ public abstract class AbstractMacEngine implements Mac.Engine {
                 position = 0;
             }
         }
-        while (length > blockSize) {
-            ingestOneBlock(input, offset);
-            offset += blockSize;
-            length -= blockSize;
+        if (length > blockSize) {
+            long blocks = (length - 1) / blockSize;
+            ingestBlocks(input, offset, blocks);
+            offset += blocks * blockSize;
+            length -= blocks * blockSize;
         }
         if (length > 0) {
             MemorySegment.copy(input, offset, buffer, 0, length);
@@ -6,6 +6,7 @@ package org.asterisk.crypto.helper;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.SegmentScope;
+import java.util.Objects;
 import org.asterisk.crypto.Cipher;
 
 /**
@@ -16,6 +17,8 @@ public abstract class AbstractStreamEncrypter implements Cipher.EncryptEngine {
 
     private final MemorySegment buffer;
     private int position = 0;
+    //leading bytes of the buffered block that precede the position sought to, they are never output
+    private int skip = 0;
 
     private final int blockSize;
 
@@ -24,8 +27,34 @@ public abstract class AbstractStreamEncrypter implements Cipher.EncryptEngine {
         this.blockSize = blockSize;
     }
 
+    /**
+     * discards any buffered input and makes the next byte of plaintext be
+     * encrypted with byte {@code skip} of the next block of keystream.
+     * Engines with random access keystream call this after moving their block
+     * counter to the block holding the position sought to
+     *
+     * @param skip the offset of the position sought to within its block
+     */
+    protected final void seekInBlock(int skip) {
+        position = this.skip = Objects.checkIndex(skip, blockSize);
+    }
+
     protected abstract void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset);
 
+    /**
+     * encrypts {@code blocks} consecutive whole blocks of {@code plaintext}.
+     * The default implementation calls {@link #encryptOneBlock} for each
+     * block, engines that can generate several blocks of keystream at once
+     * should override it
+     */
+    protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+        while (blocks-- > 0) {
+            encryptOneBlock(plaintext, pOffset, ciphertext, cOffset);
+            pOffset += blockSize;
+            cOffset += blockSize;
+        }
+    }
+
     @Override
     public long encrypt(MemorySegment plaintext, MemorySegment ciphertext) {
         long pOffset = 0, length = plaintext.byteSize(), cOffset = 0;
@@ -36,16 +65,19 @@ public abstract class AbstractStreamEncrypter implements Cipher.EncryptEngine {
             length -= take;
             position += take;
             if (position == blockSize) {
-                encryptOneBlock(buffer, 0, ciphertext, cOffset);
-                cOffset += blockSize;
+                encryptOneBlock(buffer, 0, buffer, 0);
+                MemorySegment.copy(buffer, skip, ciphertext, cOffset, blockSize - skip);
+                cOffset += blockSize - skip;
                 position = 0;
+                skip = 0;
             }
         }
-        while (length >= blockSize) {
-            encryptOneBlock(plaintext, pOffset, ciphertext, cOffset);
-            pOffset += blockSize;
-            length -= blockSize;
-            cOffset += blockSize;
+        if (length >= blockSize) {
+            long blocks = length / blockSize;
+            encryptBlocks(plaintext, pOffset, ciphertext, cOffset, blocks);
+            pOffset += blocks * blockSize;
+            length -= blocks * blockSize;
+            cOffset += blocks * blockSize;
         }
         if (length > 0) {
             MemorySegment.copy(plaintext, pOffset, buffer, 0, length);
@@ -57,8 +89,11 @@ public abstract class AbstractStreamEncrypter implements Cipher.EncryptEngine {
     @Override
     public int finish(MemorySegment ciphertext) {
         encryptOneBlock(buffer, 0, buffer, 0);
-        MemorySegment.copy(buffer, 0, ciphertext, 0, position);
-        return position;
+        int length = position - skip;
+        MemorySegment.copy(buffer, skip, ciphertext, 0, length);
+        position = 0;
+        skip = 0;
+        return length;
     }
 
 }
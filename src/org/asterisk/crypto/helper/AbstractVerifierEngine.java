@@ -41,6 +41,33 @@ public abstract class AbstractVerifierEngine implements AuthenticatedCipher.Decr
 
     protected abstract int decryptLastBlock(MemorySegment input, int length, MemorySegment plaintext);
 
+    /**
+     * ingests {@code blocks} consecutive whole blocks of {@code aad}
+     * starting at {@code offset}. None of them is the last block. The default
+     * implementation calls {@link #ingestOneBlock} for each block, engines
+     * that can process several blocks at once should override it
+     */
+    protected void ingestBlocks(MemorySegment aad, long offset, long blocks) {
+        while (blocks-- > 0) {
+            ingestOneBlock(aad, offset);
+            offset += aadBlockSize;
+        }
+    }
+
+    /**
+     * decrypts {@code blocks} consecutive whole blocks of {@code ciphertext}.
+     * None of them is the last block. The default implementation calls
+     * {@link #decryptOneBlock} for each block, engines that can decrypt several
+     * blocks at once should override it
+     */
+    protected void decryptBlocks(MemorySegment ciphertext, long cOffset, MemorySegment plaintext, long pOffset, long blocks) {
+        while (blocks-- > 0) {
+            decryptOneBlock(ciphertext, cOffset, plaintext, pOffset);
+            cOffset += msgBlockSize;
+            pOffset += msgBlockSize;
+        }
+    }
+
     protected abstract void finalizeState();
 
     protected abstract void generateTag(byte[] dest);
@@ -62,10 +89,11 @@ public abstract class AbstractVerifierEngine implements AuthenticatedCipher.Decr
                 position = 0;
             }
         }
-        while (length > aadBlockSize) {
-            ingestOneBlock(input, offset);
-            offset += aadBlockSize;
-            length -= aadBlockSize;
+        if (length > aadBlockSize) {
+            long blocks = (length - 1) / aadBlockSize;
+            ingestBlocks(input, offset, blocks);
+            offset += blocks * aadBlockSize;
+            length -= blocks * aadBlockSize;
         }
         if (length > 0) {
             MemorySegment.copy(input, offset, buffer, 0, length);
@@ -93,17 +121,19 @@ public abstract class AbstractVerifierEngine implements AuthenticatedCipher.Decr
                 position = 0;
             }
         }
-        while (length > msgBlockSize) {
-            decryptOneBlock(ciphertext, cOffset, plaintext, pOffset);
-            cOffset += msgBlockSize;
-            length -= msgBlockSize;
-            pOffset += msgBlockSize;
+        if (length > msgBlockSize) {
+            //the last block is always kept for decryptLastBlock
+            long blocks = (length - 1) / msgBlockSize;
+            decryptBlocks(ciphertext, cOffset, plaintext, pOffset, blocks);
+            cOffset += blocks * msgBlockSize;
+            length -= blocks * msgBlockSize;
+            pOffset += blocks * msgBlockSize;
         }
         if (length > 0) {
             MemorySegment.copy(ciphertext, cOffset, buffer, 0, length);
             position = (int) length;
         }
-        return cOffset;
+        return pOffset;
     }
 
     @Override
@@ -25,19 +25,33 @@ public class GfHelper {
 
     private static final int POLY = 0x87;
 
+    //the reduction of the 4 bits shifted out of a GHASH product by one step of the 4-bit method
+    private static final long[] GHASH_REM_4BIT = new long[16];
+
+    static {
+        for (int i = 0; i < 16; i++) {
+            long[] v = {0, i};
+            for (int j = 0; j < 4; j++) {
+                ghashTimesX(v);
+            }
+            GHASH_REM_4BIT[i] = v[0];
+        }
+    }
+
     public static void x2(int[] src) {
         int x = src[0] >> 31;
         src[0] = (src[0] << 1) | (src[1] >>> 31);
         src[1] = (src[1] << 1) | (src[2] >>> 31);
         src[2] = (src[2] << 1) | (src[3] >>> 31);
-        src[3] = (src[3] << 1) | (x & POLY);
+        src[3] = (src[3] << 1) ^ (x & POLY);
     }
 
     public static void x2(int[] src, int[] dst) {
+        int x = src[0] >> 31;
         dst[0] = (src[0] << 1) | (src[1] >>> 31);
         dst[1] = (src[1] << 1) | (src[2] >>> 31);
         dst[2] = (src[2] << 1) | (src[3] >>> 31);
-        dst[3] = (src[3] << 1) | (src[0] & POLY);
+        dst[3] = (src[3] << 1) ^ (x & POLY);
     }
 
     public static void x3(int[] src, int[] dst) {
@@ -45,38 +59,98 @@ public class GfHelper {
         dst[0] = ((src[0] << 1) | (src[1] >>> 31)) ^ src[0];
         dst[1] = ((src[1] << 1) | (src[2] >>> 31)) ^ src[1];
         dst[2] = ((src[2] << 1) | (src[3] >>> 31)) ^ src[2];
-        dst[3] = ((src[3] << 1) | (x & POLY)) ^ src[3];
+        dst[3] = ((src[3] << 1) ^ (x & POLY)) ^ src[3];
     }
 
     public static void x7(int[] src) {
+        x7(src, src);
+    }
 
+    public static void x7(int[] src, int[] dst) {
         final int src0 = src[0], src1 = src[1], src2 = src[2], src3 = src[3];
 
         //7=3*2+1
-        src[0] = (src0 << 1) | (src1 >>> 31);
-        src[1] = (src1 << 1) | (src2 >>> 31);
-        src[2] = (src2 << 1) | (src3 >>> 31);
-        src[3] = (src3 << 1) | ((src0 >> 31) & POLY);
+        int d0 = (src0 << 1) | (src1 >>> 31);
+        int d1 = (src1 << 1) | (src2 >>> 31);
+        int d2 = (src2 << 1) | (src3 >>> 31);
+        int d3 = (src3 << 1) ^ ((src0 >> 31) & POLY);
 
-        src[0] ^= ((src[0] << 1) | (src[1] >>> 31)) ^ src0;
-        src[1] ^= ((src[1] << 1) | (src[2] >>> 31)) ^ src1;
-        src[2] ^= ((src[2] << 1) | (src[3] >>> 31)) ^ src2;
-        src[3] ^= ((src[3] << 1) | ((src[0] >> 31) & POLY)) ^ src3;
+        dst[0] = ((d0 << 1) | (d1 >>> 31)) ^ d0 ^ src0;
+        dst[1] = ((d1 << 1) | (d2 >>> 31)) ^ d1 ^ src1;
+        dst[2] = ((d2 << 1) | (d3 >>> 31)) ^ d2 ^ src2;
+        dst[3] = ((d3 << 1) ^ ((d0 >> 31) & POLY)) ^ d3 ^ src3;
 
     }
 
-    public static void x7(int[] src, int[] dst) {
-        //7=3*2+1
-        dst[0] = (src[0] << 1) | (src[1] >>> 31);
-        dst[1] = (src[1] << 1) | (src[2] >>> 31);
-        dst[2] = (src[2] << 1) | (src[3] >>> 31);
-        dst[3] = (src[3] << 1) | ((src[0] >> 31) & POLY);
+    /**
+     * multiplies {@code v} by x in the field of GHASH, where an element is a
+     * pair of big endian words {high, low} and x is the most significant bit
+     * of the high word
+     */
+    public static void ghashTimesX(long[] v) {
+        long carry = -(v[1] & 1);
+        v[1] = (v[1] >>> 1) | (v[0] << 63);
+        v[0] = (v[0] >>> 1) ^ (carry & 0xe100000000000000L);
+    }
 
-        dst[0] ^= ((dst[0] << 1) | (dst[1] >>> 31)) ^ src[0];
-        dst[1] ^= ((dst[1] << 1) | (dst[2] >>> 31)) ^ src[1];
-        dst[2] ^= ((dst[2] << 1) | (dst[3] >>> 31)) ^ src[2];
-        dst[3] ^= ((dst[3] << 1) | ((dst[0] >> 31) & POLY)) ^ src[3];
+    /**
+     * builds Shoup's 4-bit table for multiplying by the GHASH key
+     * {@code h}: the 16 multiples of {@code h} by every polynomial of degree
+     * less than 4, as {high, low} pairs
+     *
+     * @param high the first 8 bytes of the key, big endian
+     * @param low  the last 8 bytes of the key, big endian
+     *
+     * @return the table, 32 words
+     */
+    public static long[] ghashTable(long high, long low) {
+        long[] table = new long[32], v = {high, low};
+        for (int i = 8; i > 0; i >>= 1) {
+            table[2 * i] = v[0];
+            table[2 * i + 1] = v[1];
+            ghashTimesX(v);
+        }
+        for (int i = 2; i < 16; i <<= 1) {
+            for (int j = 1; j < i; j++) {
+                table[2 * (i + j)] = table[2 * i] ^ table[2 * j];
+                table[2 * (i + j) + 1] = table[2 * i + 1] ^ table[2 * j + 1];
+            }
+        }
+        return table;
+    }
 
+    /**
+     * multiplies {@code x}, a {high, low} pair, by the key of
+     * {@code table} in the field of GHASH, 4 bits at a time starting from the
+     * least significant ones. The table lookups depend on {@code x}
+     *
+     * @param table the table built by {@link #ghashTable(long, long)}
+     * @param x     the multiplicand, replaced by the product
+     */
+    public static void ghashMultiply(long[] table, long[] x) {
+        long zHigh = 0, zLow = 0;
+        long w = x[1];
+        for (int i = 0; i < 16; i++) {
+            int rem = (int) zLow & 0xf;
+            zLow = (zHigh << 60) | (zLow >>> 4);
+            zHigh = (zHigh >>> 4) ^ GHASH_REM_4BIT[rem];
+            int n = 2 * ((int) w & 0xf);
+            zHigh ^= table[n];
+            zLow ^= table[n + 1];
+            w >>>= 4;
+        }
+        w = x[0];
+        for (int i = 0; i < 16; i++) {
+            int rem = (int) zLow & 0xf;
+            zLow = (zHigh << 60) | (zLow >>> 4);
+            zHigh = (zHigh >>> 4) ^ GHASH_REM_4BIT[rem];
+            int n = 2 * ((int) w & 0xf);
+            zHigh ^= table[n];
+            zLow ^= table[n + 1];
+            w >>>= 4;
+        }
+        x[0] = zHigh;
+        x[1] = zLow;
     }
 
     private GfHelper() {
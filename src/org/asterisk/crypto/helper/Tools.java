@@ -25,6 +25,19 @@ public class Tools {
 
     public static final ValueLayout.OfLong LITTLE_ENDIAN_64_BIT = ValueLayout.JAVA_LONG.withBitAlignment(8).withOrder(LITTLE_ENDIAN);
 
+    /**
+     * Whether the incubating {@code jdk.incubator.vector} module has been
+     * resolved at startup (e.g. with {@code --add-modules jdk.incubator.vector})
+     * and may be used by the implementations. Classes using the Vector API must
+     * only be loaded when this is {@code true}.
+     * <p>
+     * Setting the system property {@code org.asterisk.crypto.vector} to
+     * {@code false} disables the vectorized code paths even if the module is
+     * present
+     */
+    public static final boolean VECTOR_API_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && !"false".equals(System.getProperty("org.asterisk.crypto.vector"));
+
     public static boolean equals(byte[] arr1, int off1, byte[] arr2, int off2, int len) {
         Objects.checkFromIndexSize(off1, len, arr1.length);
         Objects.checkFromIndexSize(off2, len, arr2.length);
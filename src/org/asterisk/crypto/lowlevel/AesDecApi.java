@@ -4,11 +4,11 @@
  */
 package org.asterisk.crypto.lowlevel;
 
-import static org.asterisk.crypto.lowlevel.AesPermutation.invAesRound;
-import static org.asterisk.crypto.lowlevel.AesPermutation.invAesRoundLast;
 import static org.asterisk.crypto.lowlevel.AesPermutation.invMixColumns;
 
 /**
+ * An expanded AES decryption key. Like {@link AesEncApi}, instances are
+ * immutable and can be shared between threads
  *
  * @author Sayantan Chakraborty
  */
@@ -16,9 +16,20 @@ public abstract sealed class AesDecApi {
 
     public abstract void decryptBlock(int[] ciphertext, int cOffset, int[] plaintext, int pOffset);
 
+    /**
+     * decrypts 4 consecutive blocks at once with their rounds interleaved,
+     * see {@link AesPermutation#decrypt4(int[], int, int[], int, int[], int)}
+     *
+     * @param ciphertext 16 words of ciphertext
+     * @param cOffset    the offset of the first word
+     * @param plaintext  the destination, may be the same as the ciphertext
+     * @param pOffset    the offset of the first word of the destination
+     */
+    public abstract void decrypt4Blocks(int[] ciphertext, int cOffset, int[] plaintext, int pOffset);
+
     public static final class Aes128DecApi extends AesDecApi {
 
-        private final int[] drk = new int[44], data = new int[8];
+        private final int[] drk = new int[44];
 
         Aes128DecApi(int[] rk) {
             System.arraycopy(rk, 40, drk, 0, 4);
@@ -35,23 +46,19 @@ public abstract sealed class AesDecApi {
 
         @Override
         public void decryptBlock(int[] ciphertext, int cOffset, int[] plaintext, int pOffset) {
-            invAesRound(ciphertext[cOffset + 0] ^ drk[0], ciphertext[cOffset + 1] ^ drk[1], ciphertext[cOffset + 2] ^ drk[2], ciphertext[cOffset + 3] ^ drk[3], data, 4, drk, 4);
-            invAesRound(data, 4, data, 0, drk, 8);
-            invAesRound(data, 0, data, 4, drk, 12);
-            invAesRound(data, 4, data, 0, drk, 16);
-            invAesRound(data, 0, data, 4, drk, 20);
-            invAesRound(data, 4, data, 0, drk, 24);
-            invAesRound(data, 0, data, 4, drk, 28);
-            invAesRound(data, 4, data, 0, drk, 32);
-            invAesRound(data, 0, data, 4, drk, 36);
-            invAesRoundLast(data, 4, plaintext, pOffset, drk, 40);
+            AesPermutation.decrypt(ciphertext, cOffset, plaintext, pOffset, drk, 10);
+        }
+
+        @Override
+        public void decrypt4Blocks(int[] ciphertext, int cOffset, int[] plaintext, int pOffset) {
+            AesPermutation.decrypt4(ciphertext, cOffset, plaintext, pOffset, drk, 10);
         }
 
     }
 
     public static final class Aes192DecApi extends AesDecApi {
 
-        private final int[] drk = new int[52], data = new int[8];
+        private final int[] drk = new int[52];
 
         Aes192DecApi(int[] rk) {
             System.arraycopy(rk, 48, drk, 0, 4);
@@ -68,25 +75,19 @@ public abstract sealed class AesDecApi {
 
         @Override
         public void decryptBlock(int[] ciphertext, int cOffset, int[] plaintext, int pOffset) {
-            invAesRound(ciphertext[cOffset + 0] ^ drk[0], ciphertext[cOffset + 1] ^ drk[1], ciphertext[cOffset + 2] ^ drk[2], ciphertext[cOffset + 3] ^ drk[3], data, 4, drk, 4);
-            invAesRound(data, 4, data, 0, drk, 8);
-            invAesRound(data, 0, data, 4, drk, 12);
-            invAesRound(data, 4, data, 0, drk, 16);
-            invAesRound(data, 0, data, 4, drk, 20);
-            invAesRound(data, 4, data, 0, drk, 24);
-            invAesRound(data, 0, data, 4, drk, 28);
-            invAesRound(data, 4, data, 0, drk, 32);
-            invAesRound(data, 0, data, 4, drk, 36);
-            invAesRound(data, 4, data, 0, drk, 40);
-            invAesRound(data, 0, data, 4, drk, 44);
-            invAesRoundLast(data, 4, plaintext, pOffset, drk, 44);
+            AesPermutation.decrypt(ciphertext, cOffset, plaintext, pOffset, drk, 12);
+        }
+
+        @Override
+        public void decrypt4Blocks(int[] ciphertext, int cOffset, int[] plaintext, int pOffset) {
+            AesPermutation.decrypt4(ciphertext, cOffset, plaintext, pOffset, drk, 12);
         }
 
     }
 
     public static final class Aes256DecApi extends AesDecApi {
 
-        private final int[] drk = new int[60], data = new int[8];
+        private final int[] drk = new int[60];
 
         Aes256DecApi(int[] rk) {
             System.arraycopy(rk, 56, drk, 0, 4);
@@ -103,20 +104,12 @@ public abstract sealed class AesDecApi {
 
         @Override
         public void decryptBlock(int[] ciphertext, int cOffset, int[] plaintext, int pOffset) {
-            invAesRound(ciphertext[cOffset + 0] ^ drk[0], ciphertext[cOffset + 1] ^ drk[1], ciphertext[cOffset + 2] ^ drk[2], ciphertext[cOffset + 3] ^ drk[3], data, 4, drk, 4);
-            invAesRound(data, 4, data, 0, drk, 8);
-            invAesRound(data, 0, data, 4, drk, 12);
-            invAesRound(data, 4, data, 0, drk, 16);
-            invAesRound(data, 0, data, 4, drk, 20);
-            invAesRound(data, 4, data, 0, drk, 24);
-            invAesRound(data, 0, data, 4, drk, 28);
-            invAesRound(data, 4, data, 0, drk, 32);
-            invAesRound(data, 0, data, 4, drk, 36);
-            invAesRound(data, 4, data, 0, drk, 40);
-            invAesRound(data, 0, data, 4, drk, 44);
-            invAesRound(data, 4, data, 0, drk, 48);
-            invAesRound(data, 0, data, 4, drk, 52);
-            invAesRoundLast(data, 4, plaintext, pOffset, drk, 56);
+            AesPermutation.decrypt(ciphertext, cOffset, plaintext, pOffset, drk, 14);
+        }
+
+        @Override
+        public void decrypt4Blocks(int[] ciphertext, int cOffset, int[] plaintext, int pOffset) {
+            AesPermutation.decrypt4(ciphertext, cOffset, plaintext, pOffset, drk, 14);
         }
 
     }
@@ -5,11 +5,11 @@
 package org.asterisk.crypto.lowlevel;
 
 import static org.asterisk.crypto.helper.Tools.load32BE;
-import static org.asterisk.crypto.lowlevel.AesPermutation.aesRound;
-import static org.asterisk.crypto.lowlevel.AesPermutation.aesRoundLast;
 import static org.asterisk.crypto.lowlevel.AesPermutation.shiftSub;
 
 /**
+ * An expanded AES key. Instances are immutable once constructed, so a key
+ * expanded once can be shared by any number of threads and engines
  *
  * @author Sayantan Chakraborty
  */
@@ -22,11 +22,22 @@ public abstract sealed class AesEncApi {
 
     public abstract void encryptBlock(int[] plaintext, int pOffset, int[] ciphertext, int cOffset);
 
+    /**
+     * encrypts 4 consecutive blocks at once with their rounds interleaved,
+     * see {@link AesPermutation#encrypt4(int[], int, int[], int, int[], int)}
+     *
+     * @param plaintext  16 words of plaintext
+     * @param pOffset    the offset of the first word
+     * @param ciphertext the destination, may be the same as the plaintext
+     * @param cOffset    the offset of the first word of the destination
+     */
+    public abstract void encrypt4Blocks(int[] plaintext, int pOffset, int[] ciphertext, int cOffset);
+
     public abstract AesDecApi decrypter();
 
     public static final class Aes128EncApi extends AesEncApi {
 
-        private final int[] rk = new int[44], data = new int[8];
+        private final int[] rk = new int[44];
 
         public Aes128EncApi(byte[] key) {
             rk[0] = load32BE(key, 0);
@@ -55,16 +66,12 @@ public abstract sealed class AesEncApi {
 
         @Override
         public void encryptBlock(int[] plaintext, int pOffset, int[] ciphertext, int cOffset) {
-            aesRound(plaintext[pOffset + 0] ^ rk[0], plaintext[pOffset + 1] ^ rk[1], plaintext[pOffset + 2] ^ rk[2], plaintext[pOffset + 3] ^ rk[3], data, 4, rk, 4);
-            aesRound(data, 4, data, 0, rk, 8);
-            aesRound(data, 0, data, 4, rk, 12);
-            aesRound(data, 4, data, 0, rk, 16);
-            aesRound(data, 0, data, 4, rk, 20);
-            aesRound(data, 4, data, 0, rk, 24);
-            aesRound(data, 0, data, 4, rk, 28);
-            aesRound(data, 4, data, 0, rk, 32);
-            aesRound(data, 0, data, 4, rk, 36);
-            aesRoundLast(data, 4, ciphertext, cOffset, rk, 40);
+            AesPermutation.encrypt(plaintext, pOffset, ciphertext, cOffset, rk, 10);
+        }
+
+        @Override
+        public void encrypt4Blocks(int[] plaintext, int pOffset, int[] ciphertext, int cOffset) {
+            AesPermutation.encrypt4(plaintext, pOffset, ciphertext, cOffset, rk, 10);
         }
 
         @Override
@@ -76,7 +83,7 @@ public abstract sealed class AesEncApi {
 
     public static final class Aes192EncApi extends AesEncApi {
 
-        private final int[] rk = new int[52], data = new int[8];
+        private final int[] rk = new int[52];
 
         public Aes192EncApi(byte[] key) {
             rk[0] = load32BE(key, 0);
@@ -86,7 +93,7 @@ public abstract sealed class AesEncApi {
             rk[4] = load32BE(key, 16);
             rk[5] = load32BE(key, 20);
 
-            for (int i = 0, j = 0; j < 7; j++, i += 7) {
+            for (int i = 0, j = 0; j < 7; j++, i += 6) {
                 rk[i + 6] = rk[i] ^ shiftSub(rk[i + 5]) ^ RCON[j];
                 rk[i + 7] = rk[i + 1] ^ rk[i + 6];
                 rk[i + 8] = rk[i + 2] ^ rk[i + 7];
@@ -103,7 +110,7 @@ public abstract sealed class AesEncApi {
         public Aes192EncApi(int[] key, int offset) {
             System.arraycopy(key, offset, rk, 0, 6);
 
-            for (int i = 0, j = 0; j < 7; j++, i += 7) {
+            for (int i = 0, j = 0; j < 7; j++, i += 6) {
                 rk[i + 6] = rk[i] ^ shiftSub(rk[i + 5]) ^ RCON[j];
                 rk[i + 7] = rk[i + 1] ^ rk[i + 6];
                 rk[i + 8] = rk[i + 2] ^ rk[i + 7];
@@ -119,18 +126,12 @@ public abstract sealed class AesEncApi {
 
         @Override
         public void encryptBlock(int[] plaintext, int pOffset, int[] ciphertext, int cOffset) {
-            aesRound(plaintext[pOffset + 0] ^ rk[0], plaintext[pOffset + 1] ^ rk[1], plaintext[pOffset + 2] ^ rk[2], plaintext[pOffset + 3] ^ rk[3], data, 4, rk, 4);
-            aesRound(data, 4, data, 0, rk, 8);
-            aesRound(data, 0, data, 4, rk, 12);
-            aesRound(data, 4, data, 0, rk, 16);
-            aesRound(data, 0, data, 4, rk, 20);
-            aesRound(data, 4, data, 0, rk, 24);
-            aesRound(data, 0, data, 4, rk, 28);
-            aesRound(data, 4, data, 0, rk, 32);
-            aesRound(data, 0, data, 4, rk, 36);
-            aesRound(data, 4, data, 0, rk, 40);
-            aesRound(data, 0, data, 4, rk, 44);
-            aesRoundLast(data, 4, ciphertext, cOffset, rk, 48);
+            AesPermutation.encrypt(plaintext, pOffset, ciphertext, cOffset, rk, 12);
+        }
+
+        @Override
+        public void encrypt4Blocks(int[] plaintext, int pOffset, int[] ciphertext, int cOffset) {
+            AesPermutation.encrypt4(plaintext, pOffset, ciphertext, cOffset, rk, 12);
         }
 
         @Override
@@ -142,7 +143,7 @@ public abstract sealed class AesEncApi {
 
     public static final class Aes256EncApi extends AesEncApi {
 
-        private final int[] rk = new int[60], data = new int[8];
+        private final int[] rk = new int[60];
 
         public Aes256EncApi(byte[] key) {
             rk[0] = load32BE(key, 0);
@@ -191,20 +192,12 @@ public abstract sealed class AesEncApi {
 
         @Override
         public void encryptBlock(int[] plaintext, int pOffset, int[] ciphertext, int cOffset) {
-            aesRound(plaintext[pOffset + 0] ^ rk[0], plaintext[pOffset + 1] ^ rk[1], plaintext[pOffset + 2] ^ rk[2], plaintext[pOffset + 3] ^ rk[3], data, 4, rk, 4);
-            aesRound(data, 4, data, 0, rk, 8);
-            aesRound(data, 0, data, 4, rk, 12);
-            aesRound(data, 4, data, 0, rk, 16);
-            aesRound(data, 0, data, 4, rk, 20);
-            aesRound(data, 4, data, 0, rk, 24);
-            aesRound(data, 0, data, 4, rk, 28);
-            aesRound(data, 4, data, 0, rk, 32);
-            aesRound(data, 0, data, 4, rk, 36);
-            aesRound(data, 4, data, 0, rk, 40);
-            aesRound(data, 0, data, 4, rk, 44);
-            aesRound(data, 4, data, 0, rk, 48);
-            aesRound(data, 0, data, 4, rk, 52);
-            aesRoundLast(data, 4, ciphertext, cOffset, rk, 56);
+            AesPermutation.encrypt(plaintext, pOffset, ciphertext, cOffset, rk, 14);
+        }
+
+        @Override
+        public void encrypt4Blocks(int[] plaintext, int pOffset, int[] ciphertext, int cOffset) {
+            AesPermutation.encrypt4(plaintext, pOffset, ciphertext, cOffset, rk, 14);
         }
 
         @Override
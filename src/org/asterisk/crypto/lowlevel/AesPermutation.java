@@ -683,6 +683,225 @@ public class AesPermutation {
                 ^ drk[kOffset + 3];
     }
 
+    /**
+     * encrypts one block with the expanded key {@code rk} of {@code rounds}
+     * rounds. The state is kept in local variables, so this can be called
+     * concurrently, and {@code input} may be the same as {@code output}
+     *
+     * @param input   the block, as 4 big-endian columns
+     * @param iOffset the offset of the first column of {@code input}
+     * @param output  the destination of the block
+     * @param oOffset the offset of the first column of {@code output}
+     * @param rk      the expanded key, {@code 4 * rounds + 4} words
+     * @param rounds  the number of rounds
+     */
+    public static void encrypt(int[] input, int iOffset, int[] output, int oOffset, int[] rk, int rounds) {
+        int a0 = input[iOffset + 0] ^ rk[0], a1 = input[iOffset + 1] ^ rk[1], a2 = input[iOffset + 2] ^ rk[2], a3 = input[iOffset + 3] ^ rk[3];
+
+        int k = 4;
+        for (int last = 4 * rounds; k < last; k += 4) {
+            int t0 = column(a0, a1, a2, a3, rk[k]), t1 = column(a1, a2, a3, a0, rk[k + 1]), t2 = column(a2, a3, a0, a1, rk[k + 2]), t3 = column(a3, a0, a1, a2, rk[k + 3]);
+            a0 = t0;
+            a1 = t1;
+            a2 = t2;
+            a3 = t3;
+        }
+
+        output[oOffset + 0] = lastColumn(a0, a1, a2, a3, rk[k]);
+        output[oOffset + 1] = lastColumn(a1, a2, a3, a0, rk[k + 1]);
+        output[oOffset + 2] = lastColumn(a2, a3, a0, a1, rk[k + 2]);
+        output[oOffset + 3] = lastColumn(a3, a0, a1, a2, rk[k + 3]);
+    }
+
+    /**
+     * decrypts one block with the decryption key {@code drk} of
+     * {@code rounds} rounds. This can be called concurrently, and
+     * {@code input} may be the same as {@code output}
+     *
+     * @param input   the block, as 4 big-endian columns
+     * @param iOffset the offset of the first column of {@code input}
+     * @param output  the destination of the block
+     * @param oOffset the offset of the first column of {@code output}
+     * @param drk     the decryption key, {@code 4 * rounds + 4} words
+     * @param rounds  the number of rounds
+     */
+    public static void decrypt(int[] input, int iOffset, int[] output, int oOffset, int[] drk, int rounds) {
+        int a0 = input[iOffset + 0] ^ drk[0], a1 = input[iOffset + 1] ^ drk[1], a2 = input[iOffset + 2] ^ drk[2], a3 = input[iOffset + 3] ^ drk[3];
+
+        int k = 4;
+        for (int last = 4 * rounds; k < last; k += 4) {
+            int t0 = invColumn(a0, a3, a2, a1, drk[k]), t1 = invColumn(a1, a0, a3, a2, drk[k + 1]), t2 = invColumn(a2, a1, a0, a3, drk[k + 2]), t3 = invColumn(a3, a2, a1, a0, drk[k + 3]);
+            a0 = t0;
+            a1 = t1;
+            a2 = t2;
+            a3 = t3;
+        }
+
+        output[oOffset + 0] = invLastColumn(a0, a3, a2, a1, drk[k]);
+        output[oOffset + 1] = invLastColumn(a1, a0, a3, a2, drk[k + 1]);
+        output[oOffset + 2] = invLastColumn(a2, a1, a0, a3, drk[k + 2]);
+        output[oOffset + 3] = invLastColumn(a3, a2, a1, a0, drk[k + 3]);
+    }
+
+    /**
+     * encrypts 4 independent blocks with the expanded key {@code rk} of
+     * {@code rounds} rounds. The rounds of the 4 blocks are interleaved, so
+     * the table lookups of one block overlap with those of the others instead
+     * of waiting on each other like in a chain of {@link #aesRound} calls.
+     * <p>
+     * The state is kept in local variables, so this can be called
+     * concurrently, and {@code input} may be the same as {@code output}
+     *
+     * @param input   4 blocks, as 16 big-endian columns
+     * @param iOffset the offset of the first column of {@code input}
+     * @param output  the destination of the 4 blocks
+     * @param oOffset the offset of the first column of {@code output}
+     * @param rk      the expanded key, {@code 4 * rounds + 4} words
+     * @param rounds  the number of rounds
+     */
+    public static void encrypt4(int[] input, int iOffset, int[] output, int oOffset, int[] rk, int rounds) {
+        int a0 = input[iOffset + 0] ^ rk[0], a1 = input[iOffset + 1] ^ rk[1], a2 = input[iOffset + 2] ^ rk[2], a3 = input[iOffset + 3] ^ rk[3];
+        int b0 = input[iOffset + 4] ^ rk[0], b1 = input[iOffset + 5] ^ rk[1], b2 = input[iOffset + 6] ^ rk[2], b3 = input[iOffset + 7] ^ rk[3];
+        int c0 = input[iOffset + 8] ^ rk[0], c1 = input[iOffset + 9] ^ rk[1], c2 = input[iOffset + 10] ^ rk[2], c3 = input[iOffset + 11] ^ rk[3];
+        int d0 = input[iOffset + 12] ^ rk[0], d1 = input[iOffset + 13] ^ rk[1], d2 = input[iOffset + 14] ^ rk[2], d3 = input[iOffset + 15] ^ rk[3];
+
+        int k = 4;
+        for (int last = 4 * rounds; k < last; k += 4) {
+            int k0 = rk[k], k1 = rk[k + 1], k2 = rk[k + 2], k3 = rk[k + 3];
+
+            int ta0 = column(a0, a1, a2, a3, k0), ta1 = column(a1, a2, a3, a0, k1), ta2 = column(a2, a3, a0, a1, k2), ta3 = column(a3, a0, a1, a2, k3);
+            int tb0 = column(b0, b1, b2, b3, k0), tb1 = column(b1, b2, b3, b0, k1), tb2 = column(b2, b3, b0, b1, k2), tb3 = column(b3, b0, b1, b2, k3);
+            int tc0 = column(c0, c1, c2, c3, k0), tc1 = column(c1, c2, c3, c0, k1), tc2 = column(c2, c3, c0, c1, k2), tc3 = column(c3, c0, c1, c2, k3);
+            int td0 = column(d0, d1, d2, d3, k0), td1 = column(d1, d2, d3, d0, k1), td2 = column(d2, d3, d0, d1, k2), td3 = column(d3, d0, d1, d2, k3);
+
+            a0 = ta0;
+            a1 = ta1;
+            a2 = ta2;
+            a3 = ta3;
+            b0 = tb0;
+            b1 = tb1;
+            b2 = tb2;
+            b3 = tb3;
+            c0 = tc0;
+            c1 = tc1;
+            c2 = tc2;
+            c3 = tc3;
+            d0 = td0;
+            d1 = td1;
+            d2 = td2;
+            d3 = td3;
+        }
+
+        int k0 = rk[k], k1 = rk[k + 1], k2 = rk[k + 2], k3 = rk[k + 3];
+        output[oOffset + 0] = lastColumn(a0, a1, a2, a3, k0);
+        output[oOffset + 1] = lastColumn(a1, a2, a3, a0, k1);
+        output[oOffset + 2] = lastColumn(a2, a3, a0, a1, k2);
+        output[oOffset + 3] = lastColumn(a3, a0, a1, a2, k3);
+        output[oOffset + 4] = lastColumn(b0, b1, b2, b3, k0);
+        output[oOffset + 5] = lastColumn(b1, b2, b3, b0, k1);
+        output[oOffset + 6] = lastColumn(b2, b3, b0, b1, k2);
+        output[oOffset + 7] = lastColumn(b3, b0, b1, b2, k3);
+        output[oOffset + 8] = lastColumn(c0, c1, c2, c3, k0);
+        output[oOffset + 9] = lastColumn(c1, c2, c3, c0, k1);
+        output[oOffset + 10] = lastColumn(c2, c3, c0, c1, k2);
+        output[oOffset + 11] = lastColumn(c3, c0, c1, c2, k3);
+        output[oOffset + 12] = lastColumn(d0, d1, d2, d3, k0);
+        output[oOffset + 13] = lastColumn(d1, d2, d3, d0, k1);
+        output[oOffset + 14] = lastColumn(d2, d3, d0, d1, k2);
+        output[oOffset + 15] = lastColumn(d3, d0, d1, d2, k3);
+    }
+
+    /**
+     * decrypts 4 independent blocks with the decryption key {@code drk} of
+     * {@code rounds} rounds, interleaving their rounds like
+     * {@link #encrypt4(int[], int, int[], int, int[], int)}. This can be
+     * called concurrently, and {@code input} may be the same as
+     * {@code output}
+     *
+     * @param input   4 blocks, as 16 big-endian columns
+     * @param iOffset the offset of the first column of {@code input}
+     * @param output  the destination of the 4 blocks
+     * @param oOffset the offset of the first column of {@code output}
+     * @param drk     the decryption key, {@code 4 * rounds + 4} words
+     * @param rounds  the number of rounds
+     */
+    public static void decrypt4(int[] input, int iOffset, int[] output, int oOffset, int[] drk, int rounds) {
+        int a0 = input[iOffset + 0] ^ drk[0], a1 = input[iOffset + 1] ^ drk[1], a2 = input[iOffset + 2] ^ drk[2], a3 = input[iOffset + 3] ^ drk[3];
+        int b0 = input[iOffset + 4] ^ drk[0], b1 = input[iOffset + 5] ^ drk[1], b2 = input[iOffset + 6] ^ drk[2], b3 = input[iOffset + 7] ^ drk[3];
+        int c0 = input[iOffset + 8] ^ drk[0], c1 = input[iOffset + 9] ^ drk[1], c2 = input[iOffset + 10] ^ drk[2], c3 = input[iOffset + 11] ^ drk[3];
+        int d0 = input[iOffset + 12] ^ drk[0], d1 = input[iOffset + 13] ^ drk[1], d2 = input[iOffset + 14] ^ drk[2], d3 = input[iOffset + 15] ^ drk[3];
+
+        int k = 4;
+        for (int last = 4 * rounds; k < last; k += 4) {
+            int k0 = drk[k], k1 = drk[k + 1], k2 = drk[k + 2], k3 = drk[k + 3];
+
+            int ta0 = invColumn(a0, a3, a2, a1, k0), ta1 = invColumn(a1, a0, a3, a2, k1), ta2 = invColumn(a2, a1, a0, a3, k2), ta3 = invColumn(a3, a2, a1, a0, k3);
+            int tb0 = invColumn(b0, b3, b2, b1, k0), tb1 = invColumn(b1, b0, b3, b2, k1), tb2 = invColumn(b2, b1, b0, b3, k2), tb3 = invColumn(b3, b2, b1, b0, k3);
+            int tc0 = invColumn(c0, c3, c2, c1, k0), tc1 = invColumn(c1, c0, c3, c2, k1), tc2 = invColumn(c2, c1, c0, c3, k2), tc3 = invColumn(c3, c2, c1, c0, k3);
+            int td0 = invColumn(d0, d3, d2, d1, k0), td1 = invColumn(d1, d0, d3, d2, k1), td2 = invColumn(d2, d1, d0, d3, k2), td3 = invColumn(d3, d2, d1, d0, k3);
+
+            a0 = ta0;
+            a1 = ta1;
+            a2 = ta2;
+            a3 = ta3;
+            b0 = tb0;
+            b1 = tb1;
+            b2 = tb2;
+            b3 = tb3;
+            c0 = tc0;
+            c1 = tc1;
+            c2 = tc2;
+            c3 = tc3;
+            d0 = td0;
+            d1 = td1;
+            d2 = td2;
+            d3 = td3;
+        }
+
+        int k0 = drk[k], k1 = drk[k + 1], k2 = drk[k + 2], k3 = drk[k + 3];
+        output[oOffset + 0] = invLastColumn(a0, a3, a2, a1, k0);
+        output[oOffset + 1] = invLastColumn(a1, a0, a3, a2, k1);
+        output[oOffset + 2] = invLastColumn(a2, a1, a0, a3, k2);
+        output[oOffset + 3] = invLastColumn(a3, a2, a1, a0, k3);
+        output[oOffset + 4] = invLastColumn(b0, b3, b2, b1, k0);
+        output[oOffset + 5] = invLastColumn(b1, b0, b3, b2, k1);
+        output[oOffset + 6] = invLastColumn(b2, b1, b0, b3, k2);
+        output[oOffset + 7] = invLastColumn(b3, b2, b1, b0, k3);
+        output[oOffset + 8] = invLastColumn(c0, c3, c2, c1, k0);
+        output[oOffset + 9] = invLastColumn(c1, c0, c3, c2, k1);
+        output[oOffset + 10] = invLastColumn(c2, c1, c0, c3, k2);
+        output[oOffset + 11] = invLastColumn(c3, c2, c1, c0, k3);
+        output[oOffset + 12] = invLastColumn(d0, d3, d2, d1, k0);
+        output[oOffset + 13] = invLastColumn(d1, d0, d3, d2, k1);
+        output[oOffset + 14] = invLastColumn(d2, d1, d0, d3, k2);
+        output[oOffset + 15] = invLastColumn(d3, d2, d1, d0, k3);
+    }
+
+    //one output column of a round, from the columns its 4 bytes are taken from
+    private static int column(int w0, int w1, int w2, int w3, int k) {
+        return Te0[(w0 >>> 24) & 0xff] ^ Te1[(w1 >>> 16) & 0xff] ^ Te2[(w2 >>> 8) & 0xff] ^ Te3[(w3) & 0xff] ^ k;
+    }
+
+    private static int lastColumn(int w0, int w1, int w2, int w3, int k) {
+        return (Te4[(w0 >>> 24) & 0xff] & 0xff000000)
+                ^ (Te4[(w1 >>> 16) & 0xff] & 0x00ff0000)
+                ^ (Te4[(w2 >>> 8) & 0xff] & 0x0000ff00)
+                ^ (Te4[(w3) & 0xff] & 0x000000ff)
+                ^ k;
+    }
+
+    private static int invColumn(int w0, int w1, int w2, int w3, int k) {
+        return Td0[(w0 >>> 24) & 0xff] ^ Td1[(w1 >>> 16) & 0xff] ^ Td2[(w2 >>> 8) & 0xff] ^ Td3[(w3) & 0xff] ^ k;
+    }
+
+    private static int invLastColumn(int w0, int w1, int w2, int w3, int k) {
+        return (Td4[(w0 >>> 24) & 0xff] & 0xff000000)
+                ^ (Td4[(w1 >>> 16) & 0xff] & 0x00ff0000)
+                ^ (Td4[(w2 >>> 8) & 0xff] & 0x0000ff00)
+                ^ (Td4[(w3) & 0xff] & 0x000000ff)
+                ^ k;
+    }
+
     private AesPermutation() {
     }
 
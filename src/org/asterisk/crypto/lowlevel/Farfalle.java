@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.lowlevel;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import org.asterisk.crypto.helper.Tools;
+
+/**
+ * The Farfalle construction as instantiated by Kravatte: every permutation is
+ * Keccak-p[1600] with 6 rounds, the compression mask is rolled with
+ * {@link #rollc(long[])} and the expansion state with {@link #rolle(long[])}.
+ * <p>
+ * A Farfalle instance is described by a mask (the rolled key) and an
+ * accumulator, both of 25 words. Strings are compressed into the accumulator
+ * block by block, each block being masked with the current rolled key. The
+ * output of the function is expanded from the permuted accumulator, one 200
+ * byte block per roll of the expansion state. Since every block only depends
+ * on its own roll of the key or of the expansion state, blocks are processed
+ * {@link #LANES} at a time with the interleaved permutation where it's
+ * available
+ *
+ * @author Sayantan Chakraborty
+ */
+public final class Farfalle {
+
+    public static final int BLOCK_SIZE = 200;
+
+    //the number of blocks permuted in lockstep by the interleaved permutation, 1 if it's unavailable
+    public static final int LANES = Math.min(KeccakP.INTERLEAVED_LANES, 8);
+
+    private static final ValueLayout.OfLong LAYOUT = Tools.LITTLE_ENDIAN_64_BIT;
+
+    public static void permute(long[] state) {
+        KeccakP.keccak_p1600(state, 6);
+    }
+
+    public static void rollc(long[] state) {
+        long temp = Long.rotateLeft(state[20], 7) ^ state[21] ^ (state[21] >>> 3);
+        state[20] = state[21];
+        state[21] = state[22];
+        state[22] = state[23];
+        state[23] = state[24];
+        state[24] = temp;
+    }
+
+    public static void rolle(long[] state) {
+        long temp = Long.rotateLeft(state[20], 7) ^ Long.rotateLeft(state[21], 18) ^ (state[22] & (state[21] >>> 1));
+        state[20] = state[21];
+        state[21] = state[22];
+        state[22] = state[23];
+        state[23] = state[24];
+        state[24] = state[15];
+        state[15] = state[16];
+        state[16] = state[17];
+        state[17] = state[18];
+        state[18] = state[19];
+        state[19] = temp;
+    }
+
+    /**
+     * derives the initial mask from {@code key}, i.e. the permutation of the
+     * key padded with a single 1 bit
+     *
+     * @param key the key, shorter than a block
+     *
+     * @return the mask
+     */
+    public static long[] mask(byte[] key) {
+        if (key.length >= BLOCK_SIZE) {
+            throw new IllegalArgumentException("Keys must be shorter than " + BLOCK_SIZE + " bytes, got " + key.length + " bytes");
+        }
+        byte[] padded = new byte[BLOCK_SIZE];
+        System.arraycopy(key, 0, padded, 0, key.length);
+        padded[key.length] = 0x01;
+        long[] mask = new long[25];
+        for (int i = 0; i < 25; i++) {
+            mask[i] = Tools.load64LE(padded, 8 * i);
+        }
+        permute(mask);
+        return mask;
+    }
+
+    /**
+     * compresses {@code blocks} consecutive blocks of {@code input} into
+     * {@code accumulator}, rolling {@code rolledKey} once for every block.
+     * Blocks are masked and permuted {@code LANES} at a time with the
+     * interleaved permutation; the result is the same as compressing them one
+     * by one
+     *
+     * @param input       the string being compressed
+     * @param offset      the offset of the first block in {@code input}
+     * @param blocks      the number of whole blocks to compress
+     * @param rolledKey   the mask for the first block, rolled past the last
+     * @param accumulator the accumulator
+     */
+    public static void compress(MemorySegment input, long offset, long blocks, long[] rolledKey, long[] accumulator) {
+        if (LANES > 1 && blocks >= LANES) {
+            final int n = LANES;
+            long[] states = new long[25 * n];
+            while (blocks >= n) {
+                for (int j = 0; j < n; j++) {
+                    for (int i = 0; i < 25; i++) {
+                        states[n * i + j] = input.get(LAYOUT, offset + 8 * i) ^ rolledKey[i];
+                    }
+                    rollc(rolledKey);
+                    offset += BLOCK_SIZE;
+                }
+                permuteLanes(states);
+                for (int i = 0; i < 25; i++) {
+                    long sum = accumulator[i];
+                    for (int j = 0; j < n; j++) {
+                        sum ^= states[n * i + j];
+                    }
+                    accumulator[i] = sum;
+                }
+                blocks -= n;
+            }
+        }
+        if (blocks > 0) {
+            long[] buffer = new long[25];
+            while (blocks-- > 0) {
+                for (int i = 0; i < 25; i++) {
+                    buffer[i] = input.get(LAYOUT, offset + 8 * i) ^ rolledKey[i];
+                }
+                permute(buffer);
+                for (int i = 0; i < 25; i++) {
+                    accumulator[i] ^= buffer[i];
+                }
+                rollc(rolledKey);
+                offset += BLOCK_SIZE;
+            }
+        }
+    }
+
+    /**
+     * compresses the last {@code length} bytes of a string, which are at the
+     * start of the writable block {@code buffer}, followed by
+     * {@code delimiter} and zero padding. {@code delimiter} holds the suffix
+     * bits of the string, if any, followed by the first bit of the padding.
+     * The key is rolled once more after the string, separating it from the
+     * next one
+     *
+     * @param buffer      a block sized buffer holding the end of the string,
+     *                    overwritten by the padding
+     * @param length      the number of bytes of the string in
+     *                    {@code buffer}, at most a block
+     * @param delimiter   the byte appended to the string
+     * @param rolledKey   the mask
+     * @param accumulator the accumulator
+     */
+    public static void compressLast(MemorySegment buffer, int length, byte delimiter, long[] rolledKey, long[] accumulator) {
+        if (length == BLOCK_SIZE) {
+            compress(buffer, 0, 1, rolledKey, accumulator);
+            length = 0;
+        }
+        buffer.set(ValueLayout.JAVA_BYTE, length, delimiter);
+        Tools.zeropad(buffer.asSlice(0, BLOCK_SIZE), length + 1);
+        compress(buffer, 0, 1, rolledKey, accumulator);
+
+        rollc(rolledKey);
+    }
+
+    /**
+     * expands {@code blocks} output blocks into {@code output}, one after
+     * another. Every block is the permutation of the next roll of the
+     * expansion state {@code y}, masked with {@code mask}
+     *
+     * @param y      the expansion state, rolled past the last block
+     * @param mask   the output mask
+     * @param output the destination of the blocks, as 25 words each
+     * @param blocks the number of blocks to expand
+     */
+    public static void expand(long[] y, long[] mask, long[] output, int blocks) {
+        int block = 0;
+        if (LANES > 1 && blocks >= LANES) {
+            final int n = LANES;
+            long[] states = new long[25 * n];
+            for (; block + n <= blocks; block += n) {
+                for (int j = 0; j < n; j++) {
+                    rolle(y);
+                    for (int i = 0; i < 25; i++) {
+                        states[n * i + j] = y[i];
+                    }
+                }
+                permuteLanes(states);
+                for (int j = 0; j < n; j++) {
+                    for (int i = 0; i < 25; i++) {
+                        output[25 * (block + j) + i] = states[n * i + j] ^ mask[i];
+                    }
+                }
+            }
+        }
+        if (block < blocks) {
+            long[] state = new long[25];
+            for (; block < blocks; block++) {
+                rolle(y);
+                System.arraycopy(y, 0, state, 0, 25);
+                permute(state);
+                for (int i = 0; i < 25; i++) {
+                    output[25 * block + i] = state[i] ^ mask[i];
+                }
+            }
+        }
+    }
+
+    private static void permuteLanes(long[] states) {
+        if (LANES == 8) {
+            KeccakP.keccak_p1600_x8(states, 6);
+        } else {
+            KeccakP.keccak_p1600_x4(states, 6);
+        }
+    }
+
+    private Farfalle() {
+    }
+
+}
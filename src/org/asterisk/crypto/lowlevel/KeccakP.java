@@ -4,6 +4,9 @@
  */
 package org.asterisk.crypto.lowlevel;
 
+import java.util.Objects;
+import org.asterisk.crypto.helper.Tools;
+
 /**
  *
  * @author Sayantan Chakraborty
@@ -32,6 +35,14 @@ public class KeccakP {
         0x00008080
     };
 
+    /**
+     * the number of states {@link #keccak_p1600_x4(long[], int)} and
+     * {@link #keccak_p1600_x8(long[], int)} actually permute in lockstep, 1 if
+     * the Vector API is unavailable and they permute the states one by one.
+     * Callers with a choice should only batch states if this is more than 1
+     */
+    public static final int INTERLEAVED_LANES = Tools.VECTOR_API_AVAILABLE ? KeccakPLanes.LANES : 1;
+
     /**
      * performs the 24-round Keccak-f[1600] permutation on the state
      *
@@ -242,6 +253,48 @@ public class KeccakP {
 
     }
 
+    /**
+     * performs {@code rounds} iterations of the Keccak-p[1600] permutation on
+     * 4 independent states stored lane-major, i.e. lane {@code i} of state
+     * {@code j} is {@code states[4 * i + j]}
+     *
+     * @param states
+     * @param rounds
+     */
+    public static void keccak_p1600_x4(long[] states, int rounds) {
+        keccak_p1600_xn(states, 4, rounds);
+    }
+
+    /**
+     * performs {@code rounds} iterations of the Keccak-p[1600] permutation on
+     * 8 independent states stored lane-major, i.e. lane {@code i} of state
+     * {@code j} is {@code states[8 * i + j]}
+     *
+     * @param states
+     * @param rounds
+     */
+    public static void keccak_p1600_x8(long[] states, int rounds) {
+        keccak_p1600_xn(states, 8, rounds);
+    }
+
+    private static void keccak_p1600_xn(long[] states, int n, int rounds) {
+        Objects.checkFromIndexSize(0, 25 * n, states.length);
+        if (INTERLEAVED_LANES > 1) {
+            KeccakPLanes.keccak_p1600(states, n, rounds);
+        } else {
+            long[] state = new long[25];
+            for (int j = 0; j < n; j++) {
+                for (int i = 0; i < 25; i++) {
+                    state[i] = states[n * i + j];
+                }
+                keccak_p1600(state, rounds);
+                for (int i = 0; i < 25; i++) {
+                    states[n * i + j] = state[i];
+                }
+            }
+        }
+    }
+
     /**
      * performs a single round of the Keccak-p[1600] permutation. This is
      * equivalent to the last round of the Keccak-f[1600] permutation
@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.lowlevel;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import static jdk.incubator.vector.VectorOperators.AND_NOT;
+import static jdk.incubator.vector.VectorOperators.ROL;
+import static jdk.incubator.vector.VectorOperators.XOR;
+
+/**
+ * Keccak-p[1600] on several independent states at once, one state per
+ * {@link LongVector} lane.
+ * <p>
+ * This class uses the incubating Vector API and must only be loaded if
+ * {@link org.asterisk.crypto.helper.Tools#VECTOR_API_AVAILABLE} is
+ * {@code true}
+ *
+ * @author Sayantan Chakraborty
+ */
+final class KeccakPLanes {
+
+    private static final long[] RNDC_1600 = {
+        0x0000000000000001L, 0x0000000000008082L, 0x800000000000808aL,
+        0x8000000080008000L, 0x000000000000808bL, 0x0000000080000001L,
+        0x8000000080008081L, 0x8000000000008009L, 0x000000000000008aL,
+        0x0000000000000088L, 0x0000000080008009L, 0x000000008000000aL,
+        0x000000008000808bL, 0x800000000000008bL, 0x8000000000008089L,
+        0x8000000000008003L, 0x8000000000008002L, 0x8000000000000080L,
+        0x000000000000800aL, 0x800000008000000aL, 0x8000000080008081L,
+        0x8000000000008080L, 0x0000000080000001L, 0x8000000080008008L
+    };
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_256;
+
+    /**
+     * the number of states permuted together, or 1 if this platform has no
+     * 256 bit vectors worth using
+     */
+    static final int LANES = LongVector.SPECIES_PREFERRED.length() >= SPECIES.length() ? SPECIES.length() : 1;
+
+    /**
+     * permutes {@code n} states stored lane-major in {@code states}, i.e. lane
+     * {@code i} of state {@code j} is at index {@code n * i + j}. {@code n}
+     * must be a multiple of {@link #LANES}
+     */
+    static void keccak_p1600(long[] states, int n, int rounds) {
+        for (int offset = 0; offset < n; offset += LANES) {
+            keccak_p1600(states, n, offset, rounds);
+        }
+    }
+
+    //kept separate and with a constant species so that C2 can compile it to straight vector code
+    private static void keccak_p1600(long[] states, int stride, int offset, int rounds) {
+        LongVector t, c0, c1, c2, c3, c4;
+
+        LongVector a0 = LongVector.fromArray(SPECIES, states, 0 * stride + offset);
+        LongVector a1 = LongVector.fromArray(SPECIES, states, 1 * stride + offset);
+        LongVector a2 = LongVector.fromArray(SPECIES, states, 2 * stride + offset);
+        LongVector a3 = LongVector.fromArray(SPECIES, states, 3 * stride + offset);
+        LongVector a4 = LongVector.fromArray(SPECIES, states, 4 * stride + offset);
+        LongVector a5 = LongVector.fromArray(SPECIES, states, 5 * stride + offset);
+        LongVector a6 = LongVector.fromArray(SPECIES, states, 6 * stride + offset);
+        LongVector a7 = LongVector.fromArray(SPECIES, states, 7 * stride + offset);
+        LongVector a8 = LongVector.fromArray(SPECIES, states, 8 * stride + offset);
+        LongVector a9 = LongVector.fromArray(SPECIES, states, 9 * stride + offset);
+        LongVector a10 = LongVector.fromArray(SPECIES, states, 10 * stride + offset);
+        LongVector a11 = LongVector.fromArray(SPECIES, states, 11 * stride + offset);
+        LongVector a12 = LongVector.fromArray(SPECIES, states, 12 * stride + offset);
+        LongVector a13 = LongVector.fromArray(SPECIES, states, 13 * stride + offset);
+        LongVector a14 = LongVector.fromArray(SPECIES, states, 14 * stride + offset);
+        LongVector a15 = LongVector.fromArray(SPECIES, states, 15 * stride + offset);
+        LongVector a16 = LongVector.fromArray(SPECIES, states, 16 * stride + offset);
+        LongVector a17 = LongVector.fromArray(SPECIES, states, 17 * stride + offset);
+        LongVector a18 = LongVector.fromArray(SPECIES, states, 18 * stride + offset);
+        LongVector a19 = LongVector.fromArray(SPECIES, states, 19 * stride + offset);
+        LongVector a20 = LongVector.fromArray(SPECIES, states, 20 * stride + offset);
+        LongVector a21 = LongVector.fromArray(SPECIES, states, 21 * stride + offset);
+        LongVector a22 = LongVector.fromArray(SPECIES, states, 22 * stride + offset);
+        LongVector a23 = LongVector.fromArray(SPECIES, states, 23 * stride + offset);
+        LongVector a24 = LongVector.fromArray(SPECIES, states, 24 * stride + offset);
+
+        for (int r = 24 - rounds; r < 24; r++) {
+            //theta
+            c0 = a0.lanewise(XOR, a5).lanewise(XOR, a10).lanewise(XOR, a15).lanewise(XOR, a20);
+            c1 = a1.lanewise(XOR, a6).lanewise(XOR, a11).lanewise(XOR, a16).lanewise(XOR, a21);
+            c2 = a2.lanewise(XOR, a7).lanewise(XOR, a12).lanewise(XOR, a17).lanewise(XOR, a22);
+            c3 = a3.lanewise(XOR, a8).lanewise(XOR, a13).lanewise(XOR, a18).lanewise(XOR, a23);
+            c4 = a4.lanewise(XOR, a9).lanewise(XOR, a14).lanewise(XOR, a19).lanewise(XOR, a24);
+            t = c4.lanewise(XOR, c1.lanewise(ROL, 1));
+            a0 = a0.lanewise(XOR, t);
+            a5 = a5.lanewise(XOR, t);
+            a10 = a10.lanewise(XOR, t);
+            a15 = a15.lanewise(XOR, t);
+            a20 = a20.lanewise(XOR, t);
+            t = c0.lanewise(XOR, c2.lanewise(ROL, 1));
+            a1 = a1.lanewise(XOR, t);
+            a6 = a6.lanewise(XOR, t);
+            a11 = a11.lanewise(XOR, t);
+            a16 = a16.lanewise(XOR, t);
+            a21 = a21.lanewise(XOR, t);
+            t = c1.lanewise(XOR, c3.lanewise(ROL, 1));
+            a2 = a2.lanewise(XOR, t);
+            a7 = a7.lanewise(XOR, t);
+            a12 = a12.lanewise(XOR, t);
+            a17 = a17.lanewise(XOR, t);
+            a22 = a22.lanewise(XOR, t);
+            t = c2.lanewise(XOR, c4.lanewise(ROL, 1));
+            a3 = a3.lanewise(XOR, t);
+            a8 = a8.lanewise(XOR, t);
+            a13 = a13.lanewise(XOR, t);
+            a18 = a18.lanewise(XOR, t);
+            a23 = a23.lanewise(XOR, t);
+            t = c3.lanewise(XOR, c0.lanewise(ROL, 1));
+            a4 = a4.lanewise(XOR, t);
+            a9 = a9.lanewise(XOR, t);
+            a14 = a14.lanewise(XOR, t);
+            a19 = a19.lanewise(XOR, t);
+            a24 = a24.lanewise(XOR, t);
+
+            //rho and pi
+            t = a1;
+            a1 = a6.lanewise(ROL, 44);
+            a6 = a9.lanewise(ROL, 20);
+            a9 = a22.lanewise(ROL, 61);
+            a22 = a14.lanewise(ROL, 39);
+            a14 = a20.lanewise(ROL, 18);
+            a20 = a2.lanewise(ROL, 62);
+            a2 = a12.lanewise(ROL, 43);
+            a12 = a13.lanewise(ROL, 25);
+            a13 = a19.lanewise(ROL, 8);
+            a19 = a23.lanewise(ROL, 56);
+            a23 = a15.lanewise(ROL, 41);
+            a15 = a4.lanewise(ROL, 27);
+            a4 = a24.lanewise(ROL, 14);
+            a24 = a21.lanewise(ROL, 2);
+            a21 = a8.lanewise(ROL, 55);
+            a8 = a16.lanewise(ROL, 45);
+            a16 = a5.lanewise(ROL, 36);
+            a5 = a3.lanewise(ROL, 28);
+            a3 = a18.lanewise(ROL, 21);
+            a18 = a17.lanewise(ROL, 15);
+            a17 = a11.lanewise(ROL, 10);
+            a11 = a7.lanewise(ROL, 6);
+            a7 = a10.lanewise(ROL, 3);
+            a10 = t.lanewise(ROL, 1);
+
+            //chi
+            c0 = a0;
+            c1 = a1;
+            c2 = a2;
+            c3 = a3;
+            c4 = a4;
+            a0 = c0.lanewise(XOR, c2.lanewise(AND_NOT, c1));
+            a1 = c1.lanewise(XOR, c3.lanewise(AND_NOT, c2));
+            a2 = c2.lanewise(XOR, c4.lanewise(AND_NOT, c3));
+            a3 = c3.lanewise(XOR, c0.lanewise(AND_NOT, c4));
+            a4 = c4.lanewise(XOR, c1.lanewise(AND_NOT, c0));
+            c0 = a5;
+            c1 = a6;
+            c2 = a7;
+            c3 = a8;
+            c4 = a9;
+            a5 = c0.lanewise(XOR, c2.lanewise(AND_NOT, c1));
+            a6 = c1.lanewise(XOR, c3.lanewise(AND_NOT, c2));
+            a7 = c2.lanewise(XOR, c4.lanewise(AND_NOT, c3));
+            a8 = c3.lanewise(XOR, c0.lanewise(AND_NOT, c4));
+            a9 = c4.lanewise(XOR, c1.lanewise(AND_NOT, c0));
+            c0 = a10;
+            c1 = a11;
+            c2 = a12;
+            c3 = a13;
+            c4 = a14;
+            a10 = c0.lanewise(XOR, c2.lanewise(AND_NOT, c1));
+            a11 = c1.lanewise(XOR, c3.lanewise(AND_NOT, c2));
+            a12 = c2.lanewise(XOR, c4.lanewise(AND_NOT, c3));
+            a13 = c3.lanewise(XOR, c0.lanewise(AND_NOT, c4));
+            a14 = c4.lanewise(XOR, c1.lanewise(AND_NOT, c0));
+            c0 = a15;
+            c1 = a16;
+            c2 = a17;
+            c3 = a18;
+            c4 = a19;
+            a15 = c0.lanewise(XOR, c2.lanewise(AND_NOT, c1));
+            a16 = c1.lanewise(XOR, c3.lanewise(AND_NOT, c2));
+            a17 = c2.lanewise(XOR, c4.lanewise(AND_NOT, c3));
+            a18 = c3.lanewise(XOR, c0.lanewise(AND_NOT, c4));
+            a19 = c4.lanewise(XOR, c1.lanewise(AND_NOT, c0));
+            c0 = a20;
+            c1 = a21;
+            c2 = a22;
+            c3 = a23;
+            c4 = a24;
+            a20 = c0.lanewise(XOR, c2.lanewise(AND_NOT, c1));
+            a21 = c1.lanewise(XOR, c3.lanewise(AND_NOT, c2));
+            a22 = c2.lanewise(XOR, c4.lanewise(AND_NOT, c3));
+            a23 = c3.lanewise(XOR, c0.lanewise(AND_NOT, c4));
+            a24 = c4.lanewise(XOR, c1.lanewise(AND_NOT, c0));
+
+            //iota
+            a0 = a0.lanewise(XOR, RNDC_1600[r]);
+        }
+
+        a0.intoArray(states, 0 * stride + offset);
+        a1.intoArray(states, 1 * stride + offset);
+        a2.intoArray(states, 2 * stride + offset);
+        a3.intoArray(states, 3 * stride + offset);
+        a4.intoArray(states, 4 * stride + offset);
+        a5.intoArray(states, 5 * stride + offset);
+        a6.intoArray(states, 6 * stride + offset);
+        a7.intoArray(states, 7 * stride + offset);
+        a8.intoArray(states, 8 * stride + offset);
+        a9.intoArray(states, 9 * stride + offset);
+        a10.intoArray(states, 10 * stride + offset);
+        a11.intoArray(states, 11 * stride + offset);
+        a12.intoArray(states, 12 * stride + offset);
+        a13.intoArray(states, 13 * stride + offset);
+        a14.intoArray(states, 14 * stride + offset);
+        a15.intoArray(states, 15 * stride + offset);
+        a16.intoArray(states, 16 * stride + offset);
+        a17.intoArray(states, 17 * stride + offset);
+        a18.intoArray(states, 18 * stride + offset);
+        a19.intoArray(states, 19 * stride + offset);
+        a20.intoArray(states, 20 * stride + offset);
+        a21.intoArray(states, 21 * stride + offset);
+        a22.intoArray(states, 22 * stride + offset);
+        a23.intoArray(states, 23 * stride + offset);
+        a24.intoArray(states, 24 * stride + offset);
+    }
+
+    private KeccakPLanes() {
+    }
+
+}
@@ -59,64 +59,102 @@ public enum AesCmac implements Mac {
 
     @Override
     public Engine start(byte[] key) {
-        return new AbstractMacEngine(16) {
+        return withKey(key).start();
+    }
 
-            private final int[] checksum = new int[4], xorKey = {
-                Tools.load32BE(key, 0), Tools.load32BE(key, 4), Tools.load32BE(key, 8), Tools.load32BE(key, 12)
-            };
+    /**
+     * expands {@code key} and derives the subkeys once, returning a key object
+     * that starts engines without touching the key again
+     *
+     * @param key the key
+     *
+     * @return the precomputed key
+     */
+    public Key withKey(byte[] key) {
+        if (key.length < keyLength()) {
+            throw new IllegalArgumentException(this + " requires a key of " + keyLength() + " bytes, passed only " + key.length + " bytes");
+        }
+        return new Key(constructor.apply(key));
+    }
+
+    @Override
+    public int tagLength() {
+        return 16;
+    }
+
+    /**
+     * An AES-CMAC key with its schedule expanded and the subkeys K1 and K2 of
+     * RFC 4493 derived. A key is immutable and may be used to start any number
+     * of engines, concurrently
+     */
+    public final class Key {
+
+        private final AesEncApi aes;
+        //K1 for a whole last block, K2 for a padded one
+        private final int[] k1 = new int[4], k2;
+
+        private Key(AesEncApi aes) {
+            this.aes = aes;
+            //L = AES(K, 0), K1 = 2L, K2 = 4L
+            aes.encryptBlock(k1, 0, k1, 0);
+            GfHelper.x2(k1);
+            k2 = k1.clone();
+            GfHelper.x2(k2);
+        }
 
-            private final AesEncApi aes = constructor.apply(key);
+        public AesCmac getAlgorithm() {
+            return AesCmac.this;
+        }
 
-            {
-                GfHelper.x2(xorKey);
-            }
+        public Engine start() {
+            return new AbstractMacEngine(16) {
 
-            @Override
-            protected void ingestOneBlock(MemorySegment input, long offset) {
-                checksum[0] ^= input.get(Tools.BIG_ENDIAN_32_BIT, offset + 0);
-                checksum[1] ^= input.get(Tools.BIG_ENDIAN_32_BIT, offset + 4);
-                checksum[2] ^= input.get(Tools.BIG_ENDIAN_32_BIT, offset + 8);
-                checksum[3] ^= input.get(Tools.BIG_ENDIAN_32_BIT, offset + 12);
+                private final int[] checksum = new int[4];
 
-                aes.encryptBlock(checksum, 0, checksum, 0);
+                @Override
+                protected void ingestOneBlock(MemorySegment input, long offset) {
+                    checksum[0] ^= input.get(Tools.BIG_ENDIAN_32_BIT, offset + 0);
+                    checksum[1] ^= input.get(Tools.BIG_ENDIAN_32_BIT, offset + 4);
+                    checksum[2] ^= input.get(Tools.BIG_ENDIAN_32_BIT, offset + 8);
+                    checksum[3] ^= input.get(Tools.BIG_ENDIAN_32_BIT, offset + 12);
 
-            }
+                    aes.encryptBlock(checksum, 0, checksum, 0);
 
-            @Override
-            protected void ingestLastBlock(MemorySegment input, int length) {
-                if (length != 16) {
-                    Tools.ozpad(input, length);
-                    GfHelper.x2(xorKey);
                 }
 
-                checksum[0] ^= input.get(Tools.BIG_ENDIAN_32_BIT, 0) ^ xorKey[0];
-                checksum[1] ^= input.get(Tools.BIG_ENDIAN_32_BIT, 4) ^ xorKey[1];
-                checksum[2] ^= input.get(Tools.BIG_ENDIAN_32_BIT, 8) ^ xorKey[2];
-                checksum[3] ^= input.get(Tools.BIG_ENDIAN_32_BIT, 12) ^ xorKey[3];
+                @Override
+                protected void ingestLastBlock(MemorySegment input, int length) {
+                    int[] xorKey = k1;
+                    if (length != 16) {
+                        Tools.ozpad(input, length);
+                        xorKey = k2;
+                    }
 
-                aes.encryptBlock(checksum, 0, checksum, 0);
+                    checksum[0] ^= input.get(Tools.BIG_ENDIAN_32_BIT, 0) ^ xorKey[0];
+                    checksum[1] ^= input.get(Tools.BIG_ENDIAN_32_BIT, 4) ^ xorKey[1];
+                    checksum[2] ^= input.get(Tools.BIG_ENDIAN_32_BIT, 8) ^ xorKey[2];
+                    checksum[3] ^= input.get(Tools.BIG_ENDIAN_32_BIT, 12) ^ xorKey[3];
 
-            }
+                    aes.encryptBlock(checksum, 0, checksum, 0);
 
-            @Override
-            protected void getTag(byte[] buffer, int offset) {
-                Tools.store32BE(checksum[0], buffer, offset + 0);
-                Tools.store32BE(checksum[1], buffer, offset + 4);
-                Tools.store32BE(checksum[2], buffer, offset + 8);
-                Tools.store32BE(checksum[3], buffer, offset + 12);
+                }
 
-            }
+                @Override
+                protected void getTag(byte[] buffer, int offset) {
+                    Tools.store32BE(checksum[0], buffer, offset + 0);
+                    Tools.store32BE(checksum[1], buffer, offset + 4);
+                    Tools.store32BE(checksum[2], buffer, offset + 8);
+                    Tools.store32BE(checksum[3], buffer, offset + 12);
 
-            @Override
-            public Mac getAlgorithm() {
-                return AesCmac.this;
-            }
-        };
-    }
+                }
+
+                @Override
+                public Mac getAlgorithm() {
+                    return AesCmac.this;
+                }
+            };
+        }
 
-    @Override
-    public int tagLength() {
-        return 16;
     }
 
 }
@@ -19,8 +19,11 @@ package org.asterisk.crypto.mac;
 
 import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.asterisk.crypto.Digest;
 import org.asterisk.crypto.Mac;
+import org.asterisk.crypto.hash.Sha2;
 
 /**
  *
@@ -29,84 +32,123 @@ import org.asterisk.crypto.Mac;
 public class Hmac implements Mac {
 
     public static Hmac hmac(Digest hash) {
-        return new Hmac(hash);
+        return new Hmac(hash, 0);
+    }
+
+    /**
+     * creates an HMAC that keeps the precomputed {@link Key keys} of up to
+     * {@code cacheSize} distinct key values, so that repeated calls to
+     * {@link #start(byte[]) start} with the same key skip the pad blocks.
+     * Lookups are lock free, misses are serialized and evict an arbitrary key
+     * when the cache is full.
+     * <p>
+     * The cache is indexed by a copy of each raw key value, so up to
+     * {@code cacheSize} keys stay in memory, in the clear, as long as the
+     * HMAC is reachable
+     *
+     * @param hash      the underlying hash function
+     * @param cacheSize the maximum number of keys cached, 0 to disable the
+     *                  cache
+     *
+     * @return the HMAC
+     */
+    public static Hmac hmac(Digest hash, int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Negative cache size " + cacheSize);
+        }
+        return new Hmac(hash, cacheSize);
     }
 
     private final Digest hash;
 
-    private Hmac(Digest hash) {
+    private final int cacheSize;
+    private final Map<ByteBuffer, Key> cache;
+
+    private Hmac(Digest hash, int cacheSize) {
         this.hash = hash;
+        this.cacheSize = cacheSize;
+        this.cache = cacheSize > 0 ? new ConcurrentHashMap<>() : null;
     }
 
     @Override
     public Engine start(byte[] key) {
-        int len = key.length;
+        if (cache == null) {
+            byte[] innerPad = innerPad(key);
+            return new HmacEngine(startHash(innerPad, null), outerPad(innerPad), null);
+        }
+        var cacheKey = ByteBuffer.wrap(key.clone());
+        var ret = cache.get(cacheKey);
+        if (ret == null) {
+            //misses are serialized so that the size check and the insertion are atomic, hits never lock
+            synchronized (cache) {
+                ret = cache.get(cacheKey);
+                if (ret == null) {
+                    ret = withKey(key);
+                    if (cache.size() >= cacheSize) {
+                        //evict an arbitrary key, the cache only needs to stay bounded
+                        var it = cache.keySet().iterator();
+                        it.next();
+                        it.remove();
+                    }
+                    cache.put(cacheKey, ret);
+                }
+            }
+        }
+        return ret.start();
+    }
+
+    /**
+     * absorbs the padded key blocks once, returning a key object that starts
+     * engines without touching the key again. If the underlying hash is a
+     * {@link Sha2} function the hash states after both pad blocks are saved,
+     * saving two compressions per tag
+     *
+     * @param key the key, of any length
+     *
+     * @return the precomputed key
+     */
+    public Key withKey(byte[] key) {
+        byte[] innerPad = innerPad(key);
+        return new Key(innerPad, outerPad(innerPad));
+    }
+
+    /**
+     * the key, hashed if longer than a block and zero padded to a block, xored
+     * with the inner pad
+     */
+    private byte[] innerPad(byte[] key) {
         byte[] k = new byte[hash.blockSize()];
 
-        if (len != k.length) {
+        if (key.length > k.length) {
             var eng = hash.start();
             eng.ingest(key);
             eng.digestTo(k);
-            len = hash.digestSize();
-
-            while (len < k.length) {
-                k[len++] = 0;
-            }
         } else {
-            System.arraycopy(key, 0, k, 0, len);
+            System.arraycopy(key, 0, k, 0, key.length);
         }
 
-        return new Engine() {
-
-            private final Digest.Engine inner = hash.start();
-
-            {
-                for (int i = 0; i < k.length; i++) {
-                    k[i] ^= 0x36;
-                }
-                inner.ingest(k);
-            }
-
-            @Override
-            public void authenticateTo(byte[] tag, int offset, int length) {
-                byte[] temp = new byte[hash.digestSize()];
-                inner.digestTo(temp);
-                var outer = hash.start();
-                for (int i = 0; i < k.length; i++) {
-                    k[i] ^= 0x6a;
-                }
-                outer.ingest(k);
-                outer.ingest(temp);
-                outer.digestTo(temp);
-
-                System.arraycopy(temp, 0, tag, offset, length);
-            }
-
-            @Override
-            public Mac getAlgorithm() {
-                return Hmac.this;
-            }
-
-            @Override
-            public void ingest(MemorySegment input) {
-                inner.ingest(input);
-            }
-
-            @Override
-            public void ingest(byte[] input, int offset, int length) {
-                inner.ingest(input, offset, length);
-            }
+        for (int i = 0; i < k.length; i++) {
+            k[i] ^= 0x36;
+        }
+        return k;
+    }
 
-            @Override
-            public void ingest(byte[] input) {
-                inner.ingest(input);
-            }
+    //a hash engine with a pad absorbed, started from the state after it if there is one
+    private Digest.Engine startHash(byte[] pad, Sha2.Midstate state) {
+        if (state != null) {
+            return state.start();
+        }
+        var ret = hash.start();
+        ret.ingest(pad);
+        return ret;
+    }
 
-            @Override
-            public void ingest(ByteBuffer buffer) {
-                inner.ingest(buffer);
-            }
-        };
+    private static byte[] outerPad(byte[] innerPad) {
+        byte[] k = new byte[innerPad.length];
+        for (int i = 0; i < k.length; i++) {
+            k[i] = (byte) (innerPad[i] ^ 0x6a);
+        }
+        return k;
     }
 
     @Override
@@ -119,4 +161,95 @@ public class Hmac implements Mac {
         return hash.blockSize();
     }
 
+    /**
+     * An HMAC key with its pad blocks already prepared, and if possible
+     * already absorbed. A key is immutable and may be used to start any number
+     * of engines, concurrently
+     */
+    public final class Key {
+
+        private final byte[] innerPad, outerPad;
+        private final Sha2.Midstate innerState, outerState;
+
+        private Key(byte[] innerPad, byte[] outerPad) {
+            var inner = hash.start();
+            var outer = hash.start();
+            if (inner instanceof Sha2.Sha2Engine innerSha2 && outer instanceof Sha2.Sha2Engine outerSha2) {
+                innerSha2.ingest(innerPad);
+                outerSha2.ingest(outerPad);
+                this.innerState = innerSha2.snapshot();
+                this.outerState = outerSha2.snapshot();
+                this.innerPad = this.outerPad = null;
+                //the snapshots hold the pad blocks compressed, not buffered
+                assert innerState.compressed() == hash.blockSize() && outerState.compressed() == hash.blockSize();
+            } else {
+                this.innerState = this.outerState = null;
+                this.innerPad = innerPad;
+                this.outerPad = outerPad;
+            }
+        }
+
+        public Hmac getAlgorithm() {
+            return Hmac.this;
+        }
+
+        public Engine start() {
+            return new HmacEngine(startHash(innerPad, innerState), outerPad, outerState);
+        }
+
+    }
+
+    /**
+     * the inner hash, with the inner pad already absorbed, and what the outer
+     * hash starts from: the outer pad, or the state after it
+     */
+    private final class HmacEngine implements Engine {
+
+        private final Digest.Engine inner;
+        private final byte[] outerPad;
+        private final Sha2.Midstate outerState;
+
+        private HmacEngine(Digest.Engine inner, byte[] outerPad, Sha2.Midstate outerState) {
+            this.inner = inner;
+            this.outerPad = outerPad;
+            this.outerState = outerState;
+        }
+
+        @Override
+        public void authenticateTo(byte[] tag, int offset, int length) {
+            byte[] temp = new byte[hash.digestSize()];
+            inner.digestTo(temp);
+            var outer = startHash(outerPad, outerState);
+            outer.ingest(temp);
+            outer.digestTo(temp);
+
+            System.arraycopy(temp, 0, tag, offset, length);
+        }
+
+        @Override
+        public Mac getAlgorithm() {
+            return Hmac.this;
+        }
+
+        @Override
+        public void ingest(MemorySegment input) {
+            inner.ingest(input);
+        }
+
+        @Override
+        public void ingest(byte[] input, int offset, int length) {
+            inner.ingest(input, offset, length);
+        }
+
+        @Override
+        public void ingest(byte[] input) {
+            inner.ingest(input);
+        }
+
+        @Override
+        public void ingest(ByteBuffer buffer) {
+            inner.ingest(buffer);
+        }
+    }
+
 }
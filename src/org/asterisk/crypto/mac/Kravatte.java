@@ -5,11 +5,15 @@
 package org.asterisk.crypto.mac;
 
 import java.lang.foreign.MemorySegment;
-import java.lang.foreign.ValueLayout;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.asterisk.crypto.helper.AbstractMacEngine;
 import org.asterisk.crypto.helper.Tools;
 import org.asterisk.crypto.Mac;
-import org.asterisk.crypto.lowlevel.KeccakP;
+import org.asterisk.crypto.lowlevel.Farfalle;
 
 /**
  * 5.3 cpb
@@ -20,93 +24,118 @@ public enum Kravatte implements Mac {
 
     KRAVATTE;
 
-    private static final ValueLayout.OfLong LAYOUT = Tools.LITTLE_ENDIAN_64_BIT;
+    //parallel compression, in batches of BATCH_BLOCKS blocks
+    private static final int BATCH_BLOCKS = 256;
+    private static final long BATCH_SIZE = (long) BATCH_BLOCKS * Farfalle.BLOCK_SIZE;
+    private static final int BATCHES_IN_FLIGHT = 64;
 
-    private static void permute(long[] state) {
-        KeccakP.keccak_p1600(state, 6);
+    @Override
+    public Engine start(byte[] key) {
+        return start(key, null);
     }
 
-    private static void rollc(long[] state) {
-        long temp = Long.rotateLeft(state[20], 7) ^ state[21] ^ (state[21] >>> 3);
-        state[20] = state[21];
-        state[21] = state[22];
-        state[22] = state[23];
-        state[23] = state[24];
-        state[24] = temp;
+    /**
+     * starts an engine that compresses large inputs in parallel on the
+     * {@link ForkJoinPool#commonPool() common pool}, or a serial one if the
+     * common pool has no parallelism
+     *
+     * @param key the key
+     *
+     * @return the engine
+     *
+     * @see #startParallel(byte[], java.util.concurrent.Executor)
+     */
+    public Engine startParallel(byte[] key) {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallel(key, ForkJoinPool.commonPool()) : start(key);
     }
 
-    private static void rolle(long[] state) {
-        long temp = Long.rotateLeft(state[20], 7) ^ Long.rotateLeft(state[21], 18) ^ (state[22] & (state[21] >>> 1));
-        state[20] = state[21];
-        state[21] = state[22];
-        state[22] = state[23];
-        state[23] = state[24];
-        state[24] = state[15];
-        state[15] = state[16];
-        state[16] = state[17];
-        state[17] = state[18];
-        state[18] = state[19];
-        state[19] = temp;
+    /**
+     * starts an engine that compresses large inputs in batches of blocks on
+     * {@code executor}. The rolled keys of every batch are computed ahead by
+     * the calling thread and the partial accumulators of the batches are
+     * XORed together, so the tag is identical to that of
+     * {@link #start(byte[])}.
+     * <p>
+     * Segments passed to {@code ingest} must be accessible from the threads of
+     * {@code executor}, i.e. they must not be confined to the calling thread
+     *
+     * @param key      the key
+     * @param executor the executor to compress the blocks on
+     *
+     * @return the engine
+     */
+    public Engine startParallel(byte[] key, Executor executor) {
+        return start(key, Objects.requireNonNull(executor));
     }
 
-    @Override
-    public Engine start(byte[] key) {
-        return new AbstractMacEngine(200) {
-
-            private final long[] rolledKey = new long[25], buffer = new long[25], accumulator = new long[25];
+    private Engine start(byte[] key, Executor executor) {
+        return new AbstractMacEngine(Farfalle.BLOCK_SIZE) {
 
-            {
-                rolledKey[0] = Tools.load64LE(key, 0);
-                rolledKey[1] = Tools.load64LE(key, 8);
-                rolledKey[2] = Tools.load64LE(key, 16);
-                rolledKey[3] = Tools.load64LE(key, 24);
-                rolledKey[4] = 0x01;
+            private final long[] rolledKey = Farfalle.mask(key), accumulator = new long[25];
 
-                permute(rolledKey);
+            @Override
+            protected void ingestOneBlock(MemorySegment input, long offset) {
+                Farfalle.compress(input, offset, 1, rolledKey, accumulator);
             }
 
             @Override
-            protected void ingestOneBlock(MemorySegment input, long offset) {
-                for (int i = 0; i < 25; i++) {
-                    buffer[i] = input.get(LAYOUT, offset + 8 * i) ^ rolledKey[i];
-                }
-                permute(buffer);
-                for (int i = 0; i < 25; i++) {
-                    accumulator[i] ^= buffer[i];
+            protected void ingestBlocks(MemorySegment input, long offset, long blocks) {
+                if (executor != null && blocks > 2 * BATCH_BLOCKS) {
+                    long batches = blocks / BATCH_BLOCKS;
+                    ingestBatches(input, offset, batches);
+                    offset += batches * BATCH_SIZE;
+                    blocks -= batches * BATCH_BLOCKS;
                 }
-                rollc(rolledKey);
+                Farfalle.compress(input, offset, blocks, rolledKey, accumulator);
             }
 
-            @Override
-            protected void ingestLastBlock(MemorySegment input, int length) {
-                if (length == 200) {
-                    ingestOneBlock(input, 0);
-                    length = 0;
+            /**
+             * compresses {@code batches} batches of blocks on the executor,
+             * keeping at most {@code BATCHES_IN_FLIGHT} of them pending, and
+             * folds their partial accumulators into the accumulator
+             */
+            private void ingestBatches(MemorySegment input, long offset, long batches) {
+                var pending = new ArrayDeque<CompletableFuture<long[]>>(BATCHES_IN_FLIGHT);
+                for (long i = 0; i < batches; i++) {
+                    if (pending.size() == BATCHES_IN_FLIGHT) {
+                        accumulate(pending.poll().join());
+                    }
+                    long batchOffset = offset;
+                    long[] batchKey = rolledKey.clone();
+                    pending.add(CompletableFuture.supplyAsync(() -> {
+                        long[] partial = new long[25];
+                        Farfalle.compress(input, batchOffset, BATCH_BLOCKS, batchKey, partial);
+                        return partial;
+                    }, executor));
+                    for (int k = 0; k < BATCH_BLOCKS; k++) {
+                        Farfalle.rollc(rolledKey);
+                    }
+                    offset += BATCH_SIZE;
                 }
-                input.set(ValueLayout.JAVA_BYTE, length, (byte) 0x01);
-                Tools.zeropad(input, length + 1);
-                for (int i = 0; i < 25; i++) {
-                    buffer[i] = input.get(LAYOUT, 8 * i) ^ rolledKey[i];
+                while (!pending.isEmpty()) {
+                    accumulate(pending.poll().join());
                 }
-                permute(buffer);
+            }
+
+            private void accumulate(long[] partial) {
                 for (int i = 0; i < 25; i++) {
-                    accumulator[i] ^= buffer[i];
+                    accumulator[i] ^= partial[i];
                 }
-                rollc(rolledKey);
+            }
 
-                rollc(rolledKey);
+            @Override
+            protected void ingestLastBlock(MemorySegment input, int length) {
+                Farfalle.compressLast(input, length, (byte) 0x01, rolledKey, accumulator);
             }
 
             @Override
             protected void getTag(byte[] dest, int offset) {
-                System.arraycopy(accumulator, 0, buffer, 0, 25);
-
-                permute(buffer);
-                rolle(buffer);
-                permute(buffer);
+                long[] y = accumulator.clone(), output = new long[25];
+                Farfalle.permute(y);
+                Farfalle.expand(y, rolledKey, output, 1);
 
-                Tools.store64LE(buffer[0] ^ rolledKey[0], dest, offset + 0);
-                Tools.store64LE(buffer[1] ^ rolledKey[1], dest, offset + 8);
+                Tools.store64LE(output[0], dest, offset + 0);
+                Tools.store64LE(output[1], dest, offset + 8);
             }
 
             @Override
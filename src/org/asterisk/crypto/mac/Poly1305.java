@@ -20,6 +20,7 @@ package org.asterisk.crypto.mac;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.SegmentScope;
 import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
 import java.util.Objects;
 import org.asterisk.crypto.Tested;
 import org.asterisk.crypto.helper.Tools;
@@ -65,6 +66,9 @@ public enum Poly1305 implements Mac {
 
         private final int[] r, s, pad, h = new int[5];
 
+        //limbs of r^2 and 5 times its upper limbs, computed on first use
+        private int[] rr;
+
         public Poly1305Engine(byte[] key) {
             r = new int[]{
                 Tools.load32LE(key, 0) & MASK,
@@ -88,9 +92,9 @@ public enum Poly1305 implements Mac {
             r = new int[]{
                 key[0] & MASK,
                 ((key[0] >>> 26) | ((key[1] << 8) >>> 2)) & 0x3ffff03,
-                ((key[1] >>> 28) | ((key[2] << 8) >>> 4)) & 0x3ffc0ff,
-                ((key[2] >>> 30) | ((key[3] << 8) >>> 6)) & 0x3f03fff,
-                key[4] & 0x00fffff
+                ((key[1] >>> 20) | (key[2] << 12)) & 0x3ffc0ff,
+                ((key[2] >>> 14) | (key[3] << 18)) & 0x3f03fff,
+                (key[3] >>> 8) & 0x00fffff
             };
             s = new int[]{
                 r[1] * 5, r[2] * 5, r[3] * 5, r[4] * 5
@@ -149,6 +153,56 @@ public enum Poly1305 implements Mac {
 
             long d0, d1, d2, d3, d4;
 
+            if (length >= 2 * 16) {
+                if (rr == null) {
+                    rr = square(r);
+                }
+                final int q0 = rr[0], q1 = rr[1], q2 = rr[2], q3 = rr[3], q4 = rr[4];
+                final int t1 = rr[5], t2 = rr[6], t3 = rr[7], t4 = rr[8];
+
+                //h = (h + m0) * r^2 + m1 * r, with a single carry propagation
+                while (length >= 2 * 16) {
+                    int a0 = h0 + (input.get(LAYOUT, offset + 0) & MASK);
+                    int a1 = h1 + ((input.get(LAYOUT, offset + 3) >>> 2) & MASK);
+                    int a2 = h2 + ((input.get(LAYOUT, offset + 6) >>> 4) & MASK);
+                    int a3 = h3 + ((input.get(LAYOUT, offset + 9) >>> 6) & MASK);
+                    int a4 = h4 + ((input.get(LAYOUT, offset + 12) >>> 8) | HIGH);
+
+                    int b0 = input.get(LAYOUT, offset + 16) & MASK;
+                    int b1 = (input.get(LAYOUT, offset + 19) >>> 2) & MASK;
+                    int b2 = (input.get(LAYOUT, offset + 22) >>> 4) & MASK;
+                    int b3 = (input.get(LAYOUT, offset + 25) >>> 6) & MASK;
+                    int b4 = (input.get(LAYOUT, offset + 28) >>> 8) | HIGH;
+
+                    d0 = ((long) a0 * q0) + ((long) a1 * t4) + ((long) a2 * t3) + ((long) a3 * t2) + ((long) a4 * t1)
+                            + ((long) b0 * r0) + ((long) b1 * s4) + ((long) b2 * s3) + ((long) b3 * s2) + ((long) b4 * s1);
+                    d1 = ((long) a0 * q1) + ((long) a1 * q0) + ((long) a2 * t4) + ((long) a3 * t3) + ((long) a4 * t2)
+                            + ((long) b0 * r1) + ((long) b1 * r0) + ((long) b2 * s4) + ((long) b3 * s3) + ((long) b4 * s2);
+                    d2 = ((long) a0 * q2) + ((long) a1 * q1) + ((long) a2 * q0) + ((long) a3 * t4) + ((long) a4 * t3)
+                            + ((long) b0 * r2) + ((long) b1 * r1) + ((long) b2 * r0) + ((long) b3 * s4) + ((long) b4 * s3);
+                    d3 = ((long) a0 * q3) + ((long) a1 * q2) + ((long) a2 * q1) + ((long) a3 * q0) + ((long) a4 * t4)
+                            + ((long) b0 * r3) + ((long) b1 * r2) + ((long) b2 * r1) + ((long) b3 * r0) + ((long) b4 * s4);
+                    d4 = ((long) a0 * q4) + ((long) a1 * q3) + ((long) a2 * q2) + ((long) a3 * q1) + ((long) a4 * q0)
+                            + ((long) b0 * r4) + ((long) b1 * r3) + ((long) b2 * r2) + ((long) b3 * r1) + ((long) b4 * r0);
+
+                    //the sums of 10 products may exceed 32 bits after the shifts
+                    d1 += d0 >>> 26;
+                    d2 += d1 >>> 26;
+                    h1 = (int) (d1 & MASK);
+                    d3 += d2 >>> 26;
+                    h2 = (int) (d2 & MASK);
+                    d4 += d3 >>> 26;
+                    h3 = (int) (d3 & MASK);
+                    h4 = (int) (d4 & MASK);
+                    d0 = (d0 & MASK) + 5 * (d4 >>> 26);
+                    h0 = (int) (d0 & MASK);
+                    h1 += (int) (d0 >>> 26);
+
+                    offset += 2 * 16;
+                    length -= 2 * 16;
+                }
+            }
+
             while (length >= 16) {
 
                 h0 += (input.get(LAYOUT, offset + 0)) & MASK;
@@ -189,12 +243,45 @@ public enum Poly1305 implements Mac {
             return offset - initial;
         }
 
+        /**
+         * computes r^2 for processing blocks in pairs, followed by 5 times its
+         * upper 4 limbs
+         */
+        private static int[] square(int[] r) {
+            int[] ret = Arrays.copyOf(multiply(r, r), 9);
+            for (int i = 1; i < 5; i++) {
+                ret[4 + i] = 5 * ret[i];
+            }
+            return ret;
+        }
+
+        private static int[] multiply(int[] x, int[] y) {
+            long d0 = ((long) x[0] * y[0]) + ((long) x[1] * 5 * y[4]) + ((long) x[2] * 5 * y[3]) + ((long) x[3] * 5 * y[2]) + ((long) x[4] * 5 * y[1]);
+            long d1 = ((long) x[0] * y[1]) + ((long) x[1] * y[0]) + ((long) x[2] * 5 * y[4]) + ((long) x[3] * 5 * y[3]) + ((long) x[4] * 5 * y[2]);
+            long d2 = ((long) x[0] * y[2]) + ((long) x[1] * y[1]) + ((long) x[2] * y[0]) + ((long) x[3] * 5 * y[4]) + ((long) x[4] * 5 * y[3]);
+            long d3 = ((long) x[0] * y[3]) + ((long) x[1] * y[2]) + ((long) x[2] * y[1]) + ((long) x[3] * y[0]) + ((long) x[4] * 5 * y[4]);
+            long d4 = ((long) x[0] * y[4]) + ((long) x[1] * y[3]) + ((long) x[2] * y[2]) + ((long) x[3] * y[1]) + ((long) x[4] * y[0]);
+
+            d1 += d0 >>> 26;
+            d2 += d1 >>> 26;
+            d3 += d2 >>> 26;
+            d4 += d3 >>> 26;
+            d0 = (d0 & MASK) + 5 * (d4 >>> 26);
+            return new int[]{
+                (int) (d0 & MASK),
+                (int) (d1 & MASK) + (int) (d0 >>> 26),
+                (int) (d2 & MASK),
+                (int) (d3 & MASK),
+                (int) (d4 & MASK)
+            };
+        }
+
         private void processBlock(MemorySegment input, long offset, int hibit) {
             h[0] += (input.get(LAYOUT, offset + 0)) & MASK;
             h[1] += (input.get(LAYOUT, offset + 3) >>> 2) & MASK;
             h[2] += (input.get(LAYOUT, offset + 6) >>> 4) & MASK;
             h[3] += (input.get(LAYOUT, offset + 9) >>> 6) & MASK;
-            h[0] += (input.get(LAYOUT, offset + 12) >>> 8) | hibit;
+            h[4] += (input.get(LAYOUT, offset + 12) >>> 8) | hibit;
 
             long d0 = ((long) h[0] * r[0]) + ((long) h[1] * s[3]) + ((long) h[2] * s[2]) + ((long) h[3] * s[1]) + ((long) h[4] * s[0]);
             long d1 = ((long) h[0] * r[1]) + ((long) h[1] * r[0]) + ((long) h[2] * s[3]) + ((long) h[3] * s[2]) + ((long) h[4] * s[1]);
@@ -260,7 +347,7 @@ public enum Poly1305 implements Mac {
             f = addFull((h2 >>> 12) | (h3 << 14), pad[2]) + (f >>> 32);
             Tools.store32LE((int) f, buffer, 8);
 
-            f = addFull((h2 >>> 18) | (h4 << 8), pad[3]) + (f >>> 32);
+            f = addFull((h3 >>> 18) | (h4 << 8), pad[3]) + (f >>> 32);
             Tools.store32LE((int) f, buffer, 12);
 
         }
@@ -229,6 +229,317 @@ public enum SipHash implements Mac {
         return 16;
     }
 
+    /**
+     * Computes the tag of {@code length} bytes of {@code data} starting at
+     * {@code offset} in one call. This is equivalent to starting an engine
+     * with the 16 byte key whose little-endian halves are {@code k0} and
+     * {@code k1}, ingesting the bytes and reading the tag as a little-endian
+     * long, but keeps the whole state in locals and allocates nothing, which
+     * makes it suitable as a keyed hash for hash tables
+     *
+     * @param k0     the first 8 bytes of the key, little-endian
+     * @param k1     the last 8 bytes of the key, little-endian
+     * @param data   the segment containing the message
+     * @param offset the offset of the message in {@code data}
+     * @param length the length of the message in bytes
+     *
+     * @return the 64 bit tag
+     */
+    public long hash(long k0, long k1, MemorySegment data, long offset, long length) {
+        return switch (this) {
+            case SIPHASH_2_4 ->
+                hash24(k0, k1, data, offset, length);
+            case SIPHASH_4_8 ->
+                hash48(k0, k1, data, offset, length);
+        };
+    }
+
+    /**
+     * {@link #hash(long, long, MemorySegment, long, long)} of SipHash-2-4,
+     * callable without going through the enum constant
+     *
+     * @param k0     the first 8 bytes of the key, little-endian
+     * @param k1     the last 8 bytes of the key, little-endian
+     * @param data   the segment containing the message
+     * @param offset the offset of the message in {@code data}
+     * @param length the length of the message in bytes
+     *
+     * @return the 64 bit tag
+     */
+    public static long hash24(long k0, long k1, MemorySegment data, long offset, long length) {
+        Objects.checkFromIndexSize(offset, length, data.byteSize());
+        return hash(2, 4, k0, k1, data, offset, length);
+    }
+
+    /**
+     * {@link #hash(long, long, MemorySegment, long, long)} of SipHash-4-8,
+     * callable without going through the enum constant
+     *
+     * @param k0     the first 8 bytes of the key, little-endian
+     * @param k1     the last 8 bytes of the key, little-endian
+     * @param data   the segment containing the message
+     * @param offset the offset of the message in {@code data}
+     * @param length the length of the message in bytes
+     *
+     * @return the 64 bit tag
+     */
+    public static long hash48(long k0, long k1, MemorySegment data, long offset, long length) {
+        Objects.checkFromIndexSize(offset, length, data.byteSize());
+        return hash(4, 8, k0, k1, data, offset, length);
+    }
+
+    /**
+     * Computes {@link #hash(long, long, MemorySegment, long, long)} over the
+     * whole of every segment in {@code inputs}, storing the tag of
+     * {@code inputs[i]} in {@code outputs[i]}. Messages are processed two at a
+     * time with their states interleaved so that the dependency chains of the
+     * two sets of siprounds overlap
+     *
+     * @param k0      the first 8 bytes of the key, little-endian
+     * @param k1      the last 8 bytes of the key, little-endian
+     * @param inputs  the messages to hash
+     * @param outputs the array receiving the tags, at least as long as
+     *                {@code inputs}
+     */
+    public void hashMany(long k0, long k1, MemorySegment[] inputs, long[] outputs) {
+        switch (this) {
+            case SIPHASH_2_4 ->
+                hashMany24(k0, k1, inputs, outputs);
+            case SIPHASH_4_8 ->
+                hashMany48(k0, k1, inputs, outputs);
+        }
+    }
+
+    /**
+     * {@link #hashMany(long, long, MemorySegment[], long[])} of SipHash-2-4
+     *
+     * @param k0      the first 8 bytes of the key, little-endian
+     * @param k1      the last 8 bytes of the key, little-endian
+     * @param inputs  the messages to hash
+     * @param outputs the array receiving the tags, at least as long as
+     *                {@code inputs}
+     */
+    public static void hashMany24(long k0, long k1, MemorySegment[] inputs, long[] outputs) {
+        Objects.checkFromIndexSize(0, inputs.length, outputs.length);
+        hashMany(2, 4, k0, k1, inputs, outputs);
+    }
+
+    /**
+     * {@link #hashMany(long, long, MemorySegment[], long[])} of SipHash-4-8
+     *
+     * @param k0      the first 8 bytes of the key, little-endian
+     * @param k1      the last 8 bytes of the key, little-endian
+     * @param inputs  the messages to hash
+     * @param outputs the array receiving the tags, at least as long as
+     *                {@code inputs}
+     */
+    public static void hashMany48(long k0, long k1, MemorySegment[] inputs, long[] outputs) {
+        Objects.checkFromIndexSize(0, inputs.length, outputs.length);
+        hashMany(4, 8, k0, k1, inputs, outputs);
+    }
+
+    private static long hash(int c, int d, long k0, long k1, MemorySegment data, long offset, long length) {
+        long v0 = k0 ^ CONST_0, v1 = k1 ^ CONST_1, v2 = k0 ^ CONST_2, v3 = k1 ^ CONST_3;
+
+        long end = offset + (length & ~7);
+        for (long pos = offset; pos < end; pos += 8) {
+            long m = data.get(Tools.LITTLE_ENDIAN_64_BIT, pos);
+            v3 ^= m;
+            for (int i = 0; i < c; i++) {
+                v0 += v1;
+                v2 += v3;
+                v1 = v0 ^ Long.rotateLeft(v1, 13);
+                v3 = v2 ^ Long.rotateLeft(v3, 16);
+                v2 += v1;
+                v0 = v3 + Long.rotateLeft(v0, 32);
+                v1 = v2 ^ Long.rotateLeft(v1, 17);
+                v3 = v0 ^ Long.rotateLeft(v3, 21);
+                v2 = Long.rotateLeft(v2, 32);
+            }
+            v0 ^= m;
+        }
+
+        long m = lastBlock(data, offset, length);
+        v3 ^= m;
+        for (int i = 0; i < c; i++) {
+            v0 += v1;
+            v2 += v3;
+            v1 = v0 ^ Long.rotateLeft(v1, 13);
+            v3 = v2 ^ Long.rotateLeft(v3, 16);
+            v2 += v1;
+            v0 = v3 + Long.rotateLeft(v0, 32);
+            v1 = v2 ^ Long.rotateLeft(v1, 17);
+            v3 = v0 ^ Long.rotateLeft(v3, 21);
+            v2 = Long.rotateLeft(v2, 32);
+        }
+        v0 ^= m;
+
+        v2 ^= 0xff;
+        for (int i = 0; i < d; i++) {
+            v0 += v1;
+            v2 += v3;
+            v1 = v0 ^ Long.rotateLeft(v1, 13);
+            v3 = v2 ^ Long.rotateLeft(v3, 16);
+            v2 += v1;
+            v0 = v3 + Long.rotateLeft(v0, 32);
+            v1 = v2 ^ Long.rotateLeft(v1, 17);
+            v3 = v0 ^ Long.rotateLeft(v3, 21);
+            v2 = Long.rotateLeft(v2, 32);
+        }
+
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+
+    private static void hashMany(int c, int d, long k0, long k1, MemorySegment[] inputs, long[] outputs) {
+        int n = 0;
+        for (; n + 1 < inputs.length; n += 2) {
+            MemorySegment a = inputs[n], b = inputs[n + 1];
+            long lengthA = a.byteSize(), lengthB = b.byteSize();
+            long endA = lengthA & ~7, endB = lengthB & ~7, common = Math.min(endA, endB);
+
+            long a0 = k0 ^ CONST_0, a1 = k1 ^ CONST_1, a2 = k0 ^ CONST_2, a3 = k1 ^ CONST_3;
+            long b0 = a0, b1 = a1, b2 = a2, b3 = a3;
+
+            //both lanes absorb together until the shorter message runs out of full words
+            for (long pos = 0; pos < common; pos += 8) {
+                long ma = a.get(Tools.LITTLE_ENDIAN_64_BIT, pos), mb = b.get(Tools.LITTLE_ENDIAN_64_BIT, pos);
+                a3 ^= ma;
+                b3 ^= mb;
+                for (int i = 0; i < c; i++) {
+                    a0 += a1;
+                    b0 += b1;
+                    a2 += a3;
+                    b2 += b3;
+                    a1 = a0 ^ Long.rotateLeft(a1, 13);
+                    b1 = b0 ^ Long.rotateLeft(b1, 13);
+                    a3 = a2 ^ Long.rotateLeft(a3, 16);
+                    b3 = b2 ^ Long.rotateLeft(b3, 16);
+                    a2 += a1;
+                    b2 += b1;
+                    a0 = a3 + Long.rotateLeft(a0, 32);
+                    b0 = b3 + Long.rotateLeft(b0, 32);
+                    a1 = a2 ^ Long.rotateLeft(a1, 17);
+                    b1 = b2 ^ Long.rotateLeft(b1, 17);
+                    a3 = a0 ^ Long.rotateLeft(a3, 21);
+                    b3 = b0 ^ Long.rotateLeft(b3, 21);
+                    a2 = Long.rotateLeft(a2, 32);
+                    b2 = Long.rotateLeft(b2, 32);
+                }
+                a0 ^= ma;
+                b0 ^= mb;
+            }
+
+            //at most one of these runs, finishing the longer message alone
+            for (long pos = common; pos < endA; pos += 8) {
+                long m = a.get(Tools.LITTLE_ENDIAN_64_BIT, pos);
+                a3 ^= m;
+                for (int i = 0; i < c; i++) {
+                    a0 += a1;
+                    a2 += a3;
+                    a1 = a0 ^ Long.rotateLeft(a1, 13);
+                    a3 = a2 ^ Long.rotateLeft(a3, 16);
+                    a2 += a1;
+                    a0 = a3 + Long.rotateLeft(a0, 32);
+                    a1 = a2 ^ Long.rotateLeft(a1, 17);
+                    a3 = a0 ^ Long.rotateLeft(a3, 21);
+                    a2 = Long.rotateLeft(a2, 32);
+                }
+                a0 ^= m;
+            }
+            for (long pos = common; pos < endB; pos += 8) {
+                long m = b.get(Tools.LITTLE_ENDIAN_64_BIT, pos);
+                b3 ^= m;
+                for (int i = 0; i < c; i++) {
+                    b0 += b1;
+                    b2 += b3;
+                    b1 = b0 ^ Long.rotateLeft(b1, 13);
+                    b3 = b2 ^ Long.rotateLeft(b3, 16);
+                    b2 += b1;
+                    b0 = b3 + Long.rotateLeft(b0, 32);
+                    b1 = b2 ^ Long.rotateLeft(b1, 17);
+                    b3 = b0 ^ Long.rotateLeft(b3, 21);
+                    b2 = Long.rotateLeft(b2, 32);
+                }
+                b0 ^= m;
+            }
+
+            long ma = lastBlock(a, 0, lengthA), mb = lastBlock(b, 0, lengthB);
+            a3 ^= ma;
+            b3 ^= mb;
+            for (int i = 0; i < c; i++) {
+                a0 += a1;
+                b0 += b1;
+                a2 += a3;
+                b2 += b3;
+                a1 = a0 ^ Long.rotateLeft(a1, 13);
+                b1 = b0 ^ Long.rotateLeft(b1, 13);
+                a3 = a2 ^ Long.rotateLeft(a3, 16);
+                b3 = b2 ^ Long.rotateLeft(b3, 16);
+                a2 += a1;
+                b2 += b1;
+                a0 = a3 + Long.rotateLeft(a0, 32);
+                b0 = b3 + Long.rotateLeft(b0, 32);
+                a1 = a2 ^ Long.rotateLeft(a1, 17);
+                b1 = b2 ^ Long.rotateLeft(b1, 17);
+                a3 = a0 ^ Long.rotateLeft(a3, 21);
+                b3 = b0 ^ Long.rotateLeft(b3, 21);
+                a2 = Long.rotateLeft(a2, 32);
+                b2 = Long.rotateLeft(b2, 32);
+            }
+            a0 ^= ma;
+            b0 ^= mb;
+
+            a2 ^= 0xff;
+            b2 ^= 0xff;
+            for (int i = 0; i < d; i++) {
+                a0 += a1;
+                b0 += b1;
+                a2 += a3;
+                b2 += b3;
+                a1 = a0 ^ Long.rotateLeft(a1, 13);
+                b1 = b0 ^ Long.rotateLeft(b1, 13);
+                a3 = a2 ^ Long.rotateLeft(a3, 16);
+                b3 = b2 ^ Long.rotateLeft(b3, 16);
+                a2 += a1;
+                b2 += b1;
+                a0 = a3 + Long.rotateLeft(a0, 32);
+                b0 = b3 + Long.rotateLeft(b0, 32);
+                a1 = a2 ^ Long.rotateLeft(a1, 17);
+                b1 = b2 ^ Long.rotateLeft(b1, 17);
+                a3 = a0 ^ Long.rotateLeft(a3, 21);
+                b3 = b0 ^ Long.rotateLeft(b3, 21);
+                a2 = Long.rotateLeft(a2, 32);
+                b2 = Long.rotateLeft(b2, 32);
+            }
+
+            outputs[n] = a0 ^ a1 ^ a2 ^ a3;
+            outputs[n + 1] = b0 ^ b1 ^ b2 ^ b3;
+        }
+        if (n < inputs.length) {
+            outputs[n] = hash(c, d, k0, k1, inputs[n], 0, inputs[n].byteSize());
+        }
+    }
+
+    /**
+     * Returns the final message word of a SipHash input, the partial tail of
+     * the message with the low byte of its length in the top byte
+     */
+    private static long lastBlock(MemorySegment data, long offset, long length) {
+        int tail = (int) (length & 7);
+        long m = length << 56;
+        if (tail == 0) {
+            return m;
+        }
+        if (length >= 8) {
+            //the tail is the top of the last full word of the message
+            return m | data.get(Tools.LITTLE_ENDIAN_64_BIT, offset + length - 8) >>> ((8 - tail) << 3);
+        }
+        for (int i = 0; i < tail; i++) {
+            m |= (data.get(ValueLayout.JAVA_BYTE, offset + i) & 0xffL) << (i << 3);
+        }
+        return m;
+    }
+
     private abstract static class SipHashEngine implements Engine {
 
         protected final long[] state;
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.stream;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import org.asterisk.crypto.Cipher;
+import org.asterisk.crypto.StreamCipher;
+import org.asterisk.crypto.helper.AbstractStreamEncrypter;
+import org.asterisk.crypto.helper.Tools;
+import org.asterisk.crypto.lowlevel.AesEncApi;
+
+import static org.asterisk.crypto.helper.Tools.load64BE;
+
+/**
+ * AES in counter mode, as specified in NIST SP 800-38A. The 16 byte iv is the
+ * initial counter block, which is incremented as a 128-bit big-endian integer
+ * (the same as {@code AES/CTR/NoPadding} of the JDK).
+ * <p>
+ * The keystream is generated 4 counter blocks at a time with
+ * {@link AesEncApi#encrypt4Blocks(int[], int, int[], int)}, so the rounds of
+ * the blocks are interleaved
+ *
+ * @author Sayantan Chakraborty
+ */
+public enum AesCtr implements StreamCipher {
+
+    AES_128_CTR(16, AesEncApi.Aes128EncApi::new),
+    AES_192_CTR(24, AesEncApi.Aes192EncApi::new),
+    AES_256_CTR(32, AesEncApi.Aes256EncApi::new);
+
+    private static final ValueLayout.OfInt LAYOUT = Tools.BIG_ENDIAN_32_BIT;
+
+    //4 counter blocks, the unit of the engines and of the parallel batches
+    private static final int STEP = 64;
+
+    private final int keyLength;
+    private final Function<byte[], AesEncApi> constructor;
+
+    private AesCtr(int keyLength, Function<byte[], AesEncApi> constructor) {
+        this.keyLength = keyLength;
+        this.constructor = constructor;
+    }
+
+    @Override
+    public AesCtrEngine startEncryption(byte[] key, byte[] iv) {
+        return new AesCtrEncrypter(this, key, iv, null);
+    }
+
+    /**
+     * starts an engine that encrypts large inputs in parallel on the
+     * {@link ForkJoinPool#commonPool() common pool}, or a serial one if the
+     * common pool has no parallelism
+     *
+     * @param key the key
+     * @param iv  the iv
+     *
+     * @return the engine
+     *
+     * @see #startParallel(byte[], byte[], java.util.concurrent.Executor)
+     */
+    public AesCtrEngine startParallel(byte[] key, byte[] iv) {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallel(key, iv, ForkJoinPool.commonPool()) : startEncryption(key, iv);
+    }
+
+    /**
+     * starts an engine that splits long runs of whole blocks into batches of
+     * consecutive counters and encrypts them on {@code executor}. The output
+     * is identical to that of the engine of
+     * {@link #startEncryption(byte[], byte[])}.
+     * <p>
+     * Segments passed to {@code encrypt} must be accessible from the threads
+     * of {@code executor}, i.e. they must not be confined to the calling
+     * thread
+     *
+     * @param key      the key
+     * @param iv       the iv
+     * @param executor the executor to encrypt the blocks on
+     *
+     * @return the engine
+     */
+    public AesCtrEngine startParallel(byte[] key, byte[] iv, Executor executor) {
+        return new AesCtrEncrypter(this, key, iv, Objects.requireNonNull(executor));
+    }
+
+    /**
+     * encrypts {@code input} with the keystream starting at byte
+     * {@code offset}, i.e. as the part of a message encrypted with
+     * {@code key} and {@code iv} that starts at {@code offset}. The counter is
+     * set directly, so nothing before {@code offset} is generated. Encryption
+     * and decryption being the same operation, this decrypts any range of a
+     * ciphertext as well; disjoint ranges can be processed concurrently
+     *
+     * @param key    the key
+     * @param iv     the iv
+     * @param offset the position of {@code input} in the message
+     * @param input  the plaintext or ciphertext
+     * @param output the destination, at least as large as {@code input}
+     *
+     * @return the number of bytes written, i.e. the size of {@code input}
+     */
+    public long encryptAt(byte[] key, byte[] iv, long offset, MemorySegment input, MemorySegment output) {
+        var engine = startEncryption(key, iv);
+        engine.seek(offset);
+        long length = engine.encrypt(input, output);
+        return length + engine.finish(output.asSlice(length));
+    }
+
+    @Override
+    public int keyLength() {
+        return keyLength;
+    }
+
+    @Override
+    public int ivLength() {
+        return 16;
+    }
+
+    /**
+     * An AES-CTR engine with a random access keystream
+     */
+    public static interface AesCtrEngine extends EncryptEngine {
+
+        /**
+         * moves the engine to byte {@code offset} of its keystream, counted
+         * from the initial counter block. Input buffered since the last block
+         * boundary is discarded, so {@link #finish} should be called first if
+         * it's needed
+         *
+         * @param offset the position of the next byte of input in the message
+         */
+        void seek(long offset);
+
+    }
+
+    private static final class AesCtrEncrypter extends AbstractStreamEncrypter implements AesCtrEngine {
+
+        private final AesCtr cipher;
+        private final AesEncApi aes;
+        //the initial counter block
+        private final long high, low;
+        private final int[] counters = new int[16], keystream = new int[16];
+        //the number of steps of 4 blocks since the initial counter block
+        private long step = 0;
+
+        private final Executor executor;
+
+        private AesCtrEncrypter(AesCtr cipher, byte[] key, byte[] iv, Executor executor) {
+            super(STEP);
+            if (key.length < cipher.keyLength) {
+                throw new IllegalArgumentException(cipher + " requires a key of " + cipher.keyLength + " bytes, passed only " + key.length + " bytes");
+            }
+            if (iv.length < 16) {
+                throw new IllegalArgumentException(cipher + " requires an iv of 16 bytes, passed only " + iv.length + " bytes");
+            }
+            this.cipher = cipher;
+            aes = cipher.constructor.apply(key);
+            high = load64BE(iv, 0);
+            low = load64BE(iv, 8);
+            this.executor = executor;
+        }
+
+        @Override
+        public void seek(long offset) {
+            if (offset < 0) {
+                throw new IllegalArgumentException("Negative offset " + offset);
+            }
+            step = offset >>> 6;
+            seekInBlock((int) (offset & 63));
+        }
+
+        @Override
+        protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
+            keystream(counters, keystream, step++, plaintext, pOffset, ciphertext, cOffset, 1);
+        }
+
+        @Override
+        protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+            if (CounterBatches.worthSplitting(executor, blocks)) {
+                step = CounterBatches.encrypt(executor, this::keystream, step, plaintext, pOffset, ciphertext, cOffset, blocks);
+            } else {
+                keystream(counters, keystream, step, plaintext, pOffset, ciphertext, cOffset, blocks);
+                step += blocks;
+            }
+        }
+
+        //for the batches, which run concurrently and need their own buffers
+        private void keystream(long step, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long steps) {
+            keystream(new int[16], new int[16], step, plaintext, pOffset, ciphertext, cOffset, steps);
+        }
+
+        private void keystream(int[] counters, int[] keystream, long step, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long steps) {
+            for (; steps > 0; steps--, step++, pOffset += STEP, cOffset += STEP) {
+                for (int i = 0; i < 4; i++) {
+                    //the 128-bit sum of the initial block and the block index
+                    long lo = low + 4 * step + i;
+                    long hi = Long.compareUnsigned(lo, low) < 0 ? high + 1 : high;
+                    counters[4 * i] = (int) (hi >>> 32);
+                    counters[4 * i + 1] = (int) hi;
+                    counters[4 * i + 2] = (int) (lo >>> 32);
+                    counters[4 * i + 3] = (int) lo;
+                }
+                aes.encrypt4Blocks(counters, 0, keystream, 0);
+                for (int i = 0; i < 16; i++) {
+                    ciphertext.set(LAYOUT, cOffset + 4 * i, plaintext.get(LAYOUT, pOffset + 4 * i) ^ keystream[i]);
+                }
+            }
+        }
+
+        @Override
+        public Cipher getAlgorithm() {
+            return cipher;
+        }
+
+    }
+
+}
@@ -6,6 +6,9 @@ package org.asterisk.crypto.stream;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.asterisk.crypto.Tested;
 import org.asterisk.crypto.helper.AbstractStreamEncrypter;
 import org.asterisk.crypto.helper.Tools;
@@ -26,11 +29,11 @@ public enum ChaCha implements StreamCipher {
     CHACHA20_IETF(10) {
 
         @Override
-        public ChaChaEngine startEncryption(byte[] key, byte[] iv) {
+        ChaChaEngine start(byte[] key, byte[] iv, Executor executor) {
             if (iv.length < 12) {
                 throw new IllegalArgumentException("ChaCha20-IETF requires a 12-byte iv, " + iv.length + " bytes provided");
             }
-            return new ChaChaEngine(key, iv, 4, (long) load32LE(iv, 0) << 32);
+            return new ChaChaEngine(key, iv, 4, (long) load32LE(iv, 0) << 32, executor);
         }
 
         @Override
@@ -41,9 +44,12 @@ public enum ChaCha implements StreamCipher {
 
     private static final ValueLayout.OfInt LAYOUT = Tools.LITTLE_ENDIAN_32_BIT;
 
+    //the number of blocks generated at once by the vectorized kernel, 1 if it's unavailable
+    static final int LANES = Tools.VECTOR_API_AVAILABLE ? ChaChaLanes.LANES : 1;
+
     public static void chachaCore(int[] state, int[] buffer, int rounds) {
         int x0 = state[0] + state[4];
-        int x12 = Integer.rotateLeft(state[12] ^ state[0], 16);
+        int x12 = Integer.rotateLeft(state[12] ^ x0, 16);
         int x8 = state[8] + x12;
         int x4 = Integer.rotateLeft(state[4] ^ x8, 12);
 
@@ -53,7 +59,7 @@ public enum ChaCha implements StreamCipher {
         x4 = Integer.rotateLeft(x4 ^ x8, 7);
 
         int x1 = state[1] + state[5];
-        int x13 = Integer.rotateLeft(state[13] ^ state[1], 16);
+        int x13 = Integer.rotateLeft(state[13] ^ x1, 16);
         int x9 = state[9] + x13;
         int x5 = Integer.rotateLeft(state[5] ^ x9, 12);
 
@@ -63,7 +69,7 @@ public enum ChaCha implements StreamCipher {
         x5 = Integer.rotateLeft(x5 ^ x9, 7);
 
         int x2 = state[2] + state[6];
-        int x14 = Integer.rotateLeft(state[14] ^ state[2], 16);
+        int x14 = Integer.rotateLeft(state[14] ^ x2, 16);
         int x10 = state[10] + x14;
         int x6 = Integer.rotateLeft(state[6] ^ x10, 12);
 
@@ -73,7 +79,7 @@ public enum ChaCha implements StreamCipher {
         x6 = Integer.rotateLeft(x6 ^ x10, 7);
 
         int x3 = state[3] + state[7];
-        int x15 = Integer.rotateLeft(state[15] ^ state[3], 16);
+        int x15 = Integer.rotateLeft(state[15] ^ x3, 16);
         int x11 = state[11] + x15;
         int x7 = Integer.rotateLeft(state[7] ^ x11, 12);
 
@@ -234,6 +240,35 @@ public enum ChaCha implements StreamCipher {
 
     }
 
+    /**
+     * XORs {@code blocks} blocks of keystream starting at block
+     * {@code counter} into {@code plaintext}, {@code LANES} blocks at a time
+     * where possible
+     *
+     * @return the counter after the last block
+     */
+    static long keystreamBlocks(int[] state, int[] buffer, long counter, int rounds, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+        if (LANES > 1 && blocks >= LANES) {
+            int[] lanes = new int[16 * LANES];
+            while (blocks >= LANES) {
+                ChaChaLanes.keystream(state, counter, rounds, lanes, plaintext, pOffset, ciphertext, cOffset);
+                counter += LANES;
+                pOffset += 64 * LANES;
+                cOffset += 64 * LANES;
+                blocks -= LANES;
+            }
+        }
+        while (blocks-- > 0) {
+            state[12] = (int) counter;
+            state[13] = (int) (counter >>> 32);
+            keystreamOneBlock(state, buffer, rounds, plaintext, pOffset, ciphertext, cOffset);
+            counter++;
+            pOffset += 64;
+            cOffset += 64;
+        }
+        return counter;
+    }
+
     private static int[] expand(byte[] key, byte[] iv, int ivOffset) {
         if (key.length < 32) {
             throw new IllegalArgumentException("ChaCha requires a 32-byte key, " + key.length + " bytes provided");
@@ -258,7 +293,72 @@ public enum ChaCha implements StreamCipher {
 
     @Override
     public ChaChaEngine startEncryption(byte[] key, byte[] iv) {
-        return new ChaChaEngine(key, iv, 0, 0);
+        return start(key, iv, null);
+    }
+
+    /**
+     * starts an engine that encrypts large inputs in parallel on the
+     * {@link ForkJoinPool#commonPool() common pool}, or a serial one if the
+     * common pool has no parallelism
+     *
+     * @param key the key
+     * @param iv  the iv
+     *
+     * @return the engine
+     *
+     * @see #startParallel(byte[], byte[], java.util.concurrent.Executor)
+     */
+    public ChaChaEngine startParallel(byte[] key, byte[] iv) {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallel(key, iv, ForkJoinPool.commonPool()) : startEncryption(key, iv);
+    }
+
+    /**
+     * starts an engine that splits long runs of whole blocks into batches of
+     * consecutive block counters and encrypts them on {@code executor}. Bytes
+     * that don't fill a block are carried across calls exactly like in the
+     * engine of {@link #startEncryption(byte[], byte[])}, and the output is
+     * identical.
+     * <p>
+     * Segments passed to {@code encrypt} must be accessible from the threads
+     * of {@code executor}, i.e. they must not be confined to the calling
+     * thread
+     *
+     * @param key      the key
+     * @param iv       the iv
+     * @param executor the executor to encrypt the blocks on
+     *
+     * @return the engine
+     */
+    public ChaChaEngine startParallel(byte[] key, byte[] iv, Executor executor) {
+        return start(key, iv, Objects.requireNonNull(executor));
+    }
+
+    ChaChaEngine start(byte[] key, byte[] iv, Executor executor) {
+        return new ChaChaEngine(key, iv, 0, 0, executor);
+    }
+
+    /**
+     * encrypts {@code input} with the keystream starting at byte
+     * {@code offset}, i.e. as the part of a message encrypted with
+     * {@code key} and {@code iv} that starts at {@code offset}. The block
+     * counter is set directly, so nothing before {@code offset} is generated.
+     * Encryption and decryption being the same operation, this decrypts any
+     * range of a ciphertext as well; disjoint ranges can be processed
+     * concurrently
+     *
+     * @param key    the key
+     * @param iv     the iv
+     * @param offset the position of {@code input} in the message
+     * @param input  the plaintext or ciphertext
+     * @param output the destination, at least as large as {@code input}
+     *
+     * @return the number of bytes written, i.e. the size of {@code input}
+     */
+    public long encryptAt(byte[] key, byte[] iv, long offset, MemorySegment input, MemorySegment output) {
+        var engine = startEncryption(key, iv);
+        engine.seek(offset);
+        long length = engine.encrypt(input, output);
+        return length + engine.finish(output.asSlice(length));
     }
 
     @Override
@@ -275,12 +375,37 @@ public enum ChaCha implements StreamCipher {
 
         private final int[] state;
         private final int[] buffer = new int[16];
+        private final long initialCounter;
         private long counter;
 
+        private final Executor executor;
+
         public ChaChaEngine(byte[] key, byte[] iv, int ivOffset, long initialCounter) {
+            this(key, iv, ivOffset, initialCounter, null);
+        }
+
+        private ChaChaEngine(byte[] key, byte[] iv, int ivOffset, long initialCounter, Executor executor) {
             super(64);
             state = expand(key, iv, ivOffset);
+            this.initialCounter = initialCounter;
             counter = initialCounter;
+            this.executor = executor;
+        }
+
+        /**
+         * moves the engine to byte {@code offset} of its keystream, counted
+         * from the initial counter. Input buffered since the last block
+         * boundary is discarded, so {@link #finish} should be called first if
+         * it's needed
+         *
+         * @param offset the position of the next byte of input in the message
+         */
+        public void seek(long offset) {
+            if (offset < 0) {
+                throw new IllegalArgumentException("Negative offset " + offset);
+            }
+            counter = initialCounter + (offset >>> 6);
+            seekInBlock((int) (offset & 63));
         }
 
         @Override
@@ -291,6 +416,20 @@ public enum ChaCha implements StreamCipher {
             counter++;
         }
 
+        @Override
+        protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+            if (CounterBatches.worthSplitting(executor, blocks)) {
+                counter = CounterBatches.encrypt(executor, this::keystream, counter, plaintext, pOffset, ciphertext, cOffset, blocks);
+            } else {
+                counter = keystreamBlocks(state, buffer, counter, rounds, plaintext, pOffset, ciphertext, cOffset, blocks);
+            }
+        }
+
+        //for the batches, which run concurrently and need their own state
+        private void keystream(long counter, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+            keystreamBlocks(state.clone(), new int[16], counter, rounds, plaintext, pOffset, ciphertext, cOffset, blocks);
+        }
+
         public Poly1305.Poly1305Engine keyPoly1305() {
             state[12] = (int) counter;
             state[13] = (int) (counter >>> 32);
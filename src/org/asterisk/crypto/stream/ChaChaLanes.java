@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.stream;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+import org.asterisk.crypto.helper.Tools;
+
+import static jdk.incubator.vector.VectorOperators.ROL;
+import static jdk.incubator.vector.VectorOperators.UNSIGNED_LT;
+import static jdk.incubator.vector.VectorOperators.XOR;
+
+/**
+ * Generates {@link #LANES} consecutive ChaCha blocks at once, one block per
+ * vector lane, and XORs them into the input.
+ * <p>
+ * This class uses the incubating Vector API and must only be loaded if
+ * {@link Tools#VECTOR_API_AVAILABLE} is {@code true}
+ *
+ * @author Sayantan Chakraborty
+ */
+final class ChaChaLanes {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    /**
+     * the number of blocks generated at once, or 1 if the platform has no
+     * SIMD registers worth using
+     */
+    static final int LANES = SPECIES.length() >= 4 ? SPECIES.length() : 1;
+
+    private static final ValueLayout.OfInt LAYOUT = Tools.LITTLE_ENDIAN_32_BIT;
+
+    /**
+     * XORs the {@code LANES} blocks of keystream starting at block
+     * {@code counter} into as many blocks of {@code plaintext}, writing the
+     * result to {@code ciphertext}. Words 12 and 13 of {@code state} are
+     * ignored, the counter takes their place. {@code buffer} must hold
+     * {@code 16 * LANES} ints
+     */
+    static void keystream(int[] state, long counter, int rounds, int[] buffer, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
+        final int n = LANES;
+
+        IntVector lo = IntVector.broadcast(SPECIES, (int) counter).addIndex(1);
+        VectorMask<Integer> carry = lo.compare(UNSIGNED_LT, (int) counter);
+        IntVector hi = IntVector.broadcast(SPECIES, (int) (counter >>> 32)).add(1, carry);
+
+        IntVector x0 = IntVector.broadcast(SPECIES, state[0]), x1 = IntVector.broadcast(SPECIES, state[1]);
+        IntVector x2 = IntVector.broadcast(SPECIES, state[2]), x3 = IntVector.broadcast(SPECIES, state[3]);
+        IntVector x4 = IntVector.broadcast(SPECIES, state[4]), x5 = IntVector.broadcast(SPECIES, state[5]);
+        IntVector x6 = IntVector.broadcast(SPECIES, state[6]), x7 = IntVector.broadcast(SPECIES, state[7]);
+        IntVector x8 = IntVector.broadcast(SPECIES, state[8]), x9 = IntVector.broadcast(SPECIES, state[9]);
+        IntVector x10 = IntVector.broadcast(SPECIES, state[10]), x11 = IntVector.broadcast(SPECIES, state[11]);
+        IntVector x12 = lo, x13 = hi;
+        IntVector x14 = IntVector.broadcast(SPECIES, state[14]), x15 = IntVector.broadcast(SPECIES, state[15]);
+
+        for (int i = 0; i < rounds; i++) {
+            x0 = x0.add(x4);
+            x12 = x12.lanewise(XOR, x0).lanewise(ROL, 16);
+            x8 = x8.add(x12);
+            x4 = x4.lanewise(XOR, x8).lanewise(ROL, 12);
+            x0 = x0.add(x4);
+            x12 = x12.lanewise(XOR, x0).lanewise(ROL, 8);
+            x8 = x8.add(x12);
+            x4 = x4.lanewise(XOR, x8).lanewise(ROL, 7);
+
+            x1 = x1.add(x5);
+            x13 = x13.lanewise(XOR, x1).lanewise(ROL, 16);
+            x9 = x9.add(x13);
+            x5 = x5.lanewise(XOR, x9).lanewise(ROL, 12);
+            x1 = x1.add(x5);
+            x13 = x13.lanewise(XOR, x1).lanewise(ROL, 8);
+            x9 = x9.add(x13);
+            x5 = x5.lanewise(XOR, x9).lanewise(ROL, 7);
+
+            x2 = x2.add(x6);
+            x14 = x14.lanewise(XOR, x2).lanewise(ROL, 16);
+            x10 = x10.add(x14);
+            x6 = x6.lanewise(XOR, x10).lanewise(ROL, 12);
+            x2 = x2.add(x6);
+            x14 = x14.lanewise(XOR, x2).lanewise(ROL, 8);
+            x10 = x10.add(x14);
+            x6 = x6.lanewise(XOR, x10).lanewise(ROL, 7);
+
+            x3 = x3.add(x7);
+            x15 = x15.lanewise(XOR, x3).lanewise(ROL, 16);
+            x11 = x11.add(x15);
+            x7 = x7.lanewise(XOR, x11).lanewise(ROL, 12);
+            x3 = x3.add(x7);
+            x15 = x15.lanewise(XOR, x3).lanewise(ROL, 8);
+            x11 = x11.add(x15);
+            x7 = x7.lanewise(XOR, x11).lanewise(ROL, 7);
+
+            x0 = x0.add(x5);
+            x15 = x15.lanewise(XOR, x0).lanewise(ROL, 16);
+            x10 = x10.add(x15);
+            x5 = x5.lanewise(XOR, x10).lanewise(ROL, 12);
+            x0 = x0.add(x5);
+            x15 = x15.lanewise(XOR, x0).lanewise(ROL, 8);
+            x10 = x10.add(x15);
+            x5 = x5.lanewise(XOR, x10).lanewise(ROL, 7);
+
+            x1 = x1.add(x6);
+            x12 = x12.lanewise(XOR, x1).lanewise(ROL, 16);
+            x11 = x11.add(x12);
+            x6 = x6.lanewise(XOR, x11).lanewise(ROL, 12);
+            x1 = x1.add(x6);
+            x12 = x12.lanewise(XOR, x1).lanewise(ROL, 8);
+            x11 = x11.add(x12);
+            x6 = x6.lanewise(XOR, x11).lanewise(ROL, 7);
+
+            x2 = x2.add(x7);
+            x13 = x13.lanewise(XOR, x2).lanewise(ROL, 16);
+            x8 = x8.add(x13);
+            x7 = x7.lanewise(XOR, x8).lanewise(ROL, 12);
+            x2 = x2.add(x7);
+            x13 = x13.lanewise(XOR, x2).lanewise(ROL, 8);
+            x8 = x8.add(x13);
+            x7 = x7.lanewise(XOR, x8).lanewise(ROL, 7);
+
+            x3 = x3.add(x4);
+            x14 = x14.lanewise(XOR, x3).lanewise(ROL, 16);
+            x9 = x9.add(x14);
+            x4 = x4.lanewise(XOR, x9).lanewise(ROL, 12);
+            x3 = x3.add(x4);
+            x14 = x14.lanewise(XOR, x3).lanewise(ROL, 8);
+            x9 = x9.add(x14);
+            x4 = x4.lanewise(XOR, x9).lanewise(ROL, 7);
+        }
+
+        x0.add(state[0]).intoArray(buffer, 0);
+        x1.add(state[1]).intoArray(buffer, n);
+        x2.add(state[2]).intoArray(buffer, 2 * n);
+        x3.add(state[3]).intoArray(buffer, 3 * n);
+        x4.add(state[4]).intoArray(buffer, 4 * n);
+        x5.add(state[5]).intoArray(buffer, 5 * n);
+        x6.add(state[6]).intoArray(buffer, 6 * n);
+        x7.add(state[7]).intoArray(buffer, 7 * n);
+        x8.add(state[8]).intoArray(buffer, 8 * n);
+        x9.add(state[9]).intoArray(buffer, 9 * n);
+        x10.add(state[10]).intoArray(buffer, 10 * n);
+        x11.add(state[11]).intoArray(buffer, 11 * n);
+        x12.add(lo).intoArray(buffer, 12 * n);
+        x13.add(hi).intoArray(buffer, 13 * n);
+        x14.add(state[14]).intoArray(buffer, 14 * n);
+        x15.add(state[15]).intoArray(buffer, 15 * n);
+
+        //word i of block j is at i * LANES + j. Deliberately not an indexed
+        //gather, which C2 on JDK 21 compiles into wrong words for this layout
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < 16; i++) {
+                ciphertext.set(LAYOUT, cOffset + 4 * i, buffer[i * n + j] ^ plaintext.get(LAYOUT, pOffset + 4 * i));
+            }
+            pOffset += 64;
+            cOffset += 64;
+        }
+    }
+
+    private ChaChaLanes() {
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.stream;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Parallel encryption for the counter based ciphers of this package. Every
+ * 64-byte block of their keystream only depends on the key, the iv and the
+ * block counter, so a long run of whole blocks is split into batches of
+ * consecutive counters which are encrypted independently on an executor
+ *
+ * @author Sayantan Chakraborty
+ */
+final class CounterBatches {
+
+    //64 KiB per batch
+    static final int BATCH_BLOCKS = 1024;
+    private static final long BATCH_SIZE = 64L * BATCH_BLOCKS;
+    private static final int BATCHES_IN_FLIGHT = 64;
+
+    /**
+     * XORs the keystream of a cipher, starting at an arbitrary block counter,
+     * into whole blocks. Implementations must not share mutable state between
+     * calls, which run concurrently
+     */
+    @FunctionalInterface
+    interface Keystream {
+
+        void encrypt(long counter, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks);
+
+    }
+
+    /**
+     * whether a run of {@code blocks} blocks is long enough to be worth
+     * splitting
+     */
+    static boolean worthSplitting(Executor executor, long blocks) {
+        return executor != null && blocks > 2 * BATCH_BLOCKS;
+    }
+
+    /**
+     * encrypts {@code blocks} blocks starting at block {@code counter} in
+     * batches on {@code executor}, keeping at most {@code BATCHES_IN_FLIGHT}
+     * of them pending. The blocks that don't fill a batch are encrypted on
+     * the calling thread. Returns once every block has been written, or
+     * rethrows the first failure once no batch is running anymore
+     *
+     * @return the counter after the last block
+     */
+    static long encrypt(Executor executor, Keystream keystream, long counter, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+        var pending = new ArrayDeque<CompletableFuture<Void>>(BATCHES_IN_FLIGHT);
+        try {
+            while (blocks >= BATCH_BLOCKS) {
+                if (pending.size() == BATCHES_IN_FLIGHT) {
+                    pending.poll().join();
+                }
+                long batchCounter = counter, batchPOffset = pOffset, batchCOffset = cOffset;
+                pending.add(CompletableFuture.runAsync(() -> keystream.encrypt(batchCounter, plaintext, batchPOffset, ciphertext, batchCOffset, BATCH_BLOCKS), executor));
+                counter += BATCH_BLOCKS;
+                pOffset += BATCH_SIZE;
+                cOffset += BATCH_SIZE;
+                blocks -= BATCH_BLOCKS;
+            }
+            if (blocks > 0) {
+                keystream.encrypt(counter, plaintext, pOffset, ciphertext, cOffset, blocks);
+                counter += blocks;
+            }
+            while (!pending.isEmpty()) {
+                pending.poll().join();
+            }
+        } finally {
+            //if a batch failed, the others must be done writing to ciphertext before the caller sees the exception
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        }
+        return counter;
+    }
+
+    private CounterBatches() {
+    }
+
+}
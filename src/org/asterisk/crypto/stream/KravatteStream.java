@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2023 Sayantan Chakraborty
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package org.asterisk.crypto.stream;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import org.asterisk.crypto.Cipher;
+import org.asterisk.crypto.StreamCipher;
+import org.asterisk.crypto.helper.AbstractStreamEncrypter;
+import org.asterisk.crypto.helper.Tools;
+import org.asterisk.crypto.lowlevel.Farfalle;
+
+/**
+ * Kravatte used as a stream cipher: the keystream is the output of Kravatte
+ * on the iv, i.e. the expansion half of Farfalle. The first 16 bytes of the
+ * keystream are the {@link org.asterisk.crypto.mac.Kravatte} tag of the iv.
+ * <p>
+ * Every keystream block only depends on its own roll of the expansion state,
+ * so bulk encryption expands several blocks at once with the interleaved
+ * permutation
+ *
+ * @author Sayantan Chakraborty
+ */
+public enum KravatteStream implements StreamCipher {
+
+    KRAVATTE;
+
+    private static final ValueLayout.OfLong LAYOUT = Tools.LITTLE_ENDIAN_64_BIT;
+
+    @Override
+    public EncryptEngine startEncryption(byte[] key, byte[] iv) {
+        return new AbstractStreamEncrypter(Farfalle.BLOCK_SIZE) {
+
+            private final long[] mask = Farfalle.mask(key), y = new long[25];
+            private long[] keystream = new long[25];
+
+            {
+                //compress the iv into y, which then becomes the expansion state
+                var buffer = MemorySegment.ofArray(new byte[Farfalle.BLOCK_SIZE]);
+                var input = MemorySegment.ofArray(iv);
+                long blocks = (input.byteSize() - 1) / Farfalle.BLOCK_SIZE;
+                if (blocks > 0) {
+                    Farfalle.compress(input, 0, blocks, mask, y);
+                }
+                int length = (int) (input.byteSize() - blocks * Farfalle.BLOCK_SIZE);
+                MemorySegment.copy(input, blocks * Farfalle.BLOCK_SIZE, buffer, 0, length);
+                Farfalle.compressLast(buffer, length, (byte) 0x01, mask, y);
+                Farfalle.permute(y);
+            }
+
+            @Override
+            protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
+                Farfalle.expand(y, mask, keystream, 1);
+                for (int i = 0; i < 25; i++) {
+                    ciphertext.set(LAYOUT, cOffset + 8 * i, plaintext.get(LAYOUT, pOffset + 8 * i) ^ keystream[i]);
+                }
+            }
+
+            @Override
+            protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+                final int n = Farfalle.LANES;
+                if (n > 1 && keystream.length < 25 * n) {
+                    keystream = new long[25 * n];
+                }
+                while (blocks > 0) {
+                    int count = (int) Math.min(blocks, n);
+                    Farfalle.expand(y, mask, keystream, count);
+                    for (int i = 0; i < 25 * count; i++) {
+                        ciphertext.set(LAYOUT, cOffset + 8 * i, plaintext.get(LAYOUT, pOffset + 8 * i) ^ keystream[i]);
+                    }
+                    pOffset += count * Farfalle.BLOCK_SIZE;
+                    cOffset += count * Farfalle.BLOCK_SIZE;
+                    blocks -= count;
+                }
+            }
+
+            @Override
+            public Cipher getAlgorithm() {
+                return KRAVATTE;
+            }
+        };
+    }
+
+    @Override
+    public int keyLength() {
+        return 32;
+    }
+
+    @Override
+    public int ivLength() {
+        return 16;
+    }
+
+}
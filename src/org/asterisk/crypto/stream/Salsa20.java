@@ -6,6 +6,9 @@ package org.asterisk.crypto.stream;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.asterisk.crypto.helper.AbstractStreamEncrypter;
 import org.asterisk.crypto.helper.Tools;
 import org.asterisk.crypto.Cipher;
@@ -182,6 +185,21 @@ public enum Salsa20 implements StreamCipher {
 
     }
 
+    /**
+     * XORs {@code blocks} blocks of keystream starting at block
+     * {@code counter} into {@code plaintext}
+     *
+     * @return the counter after the last block
+     */
+    static long keystreamBlocks(int[] state, int[] buffer, long counter, int rounds, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+        while (blocks-- > 0) {
+            keystreamOneBlock(state, buffer, counter++, rounds, plaintext, pOffset, ciphertext, cOffset);
+            pOffset += 64;
+            cOffset += 64;
+        }
+        return counter;
+    }
+
     private final int rounds;
 
     private Salsa20(int rounds) {
@@ -189,23 +207,69 @@ public enum Salsa20 implements StreamCipher {
     }
 
     @Override
-    public EncryptEngine startEncryption(byte[] key, byte[] iv) {
-        return new AbstractStreamEncrypter(64) {
-
-            private final int[] state = expand(key, iv), buffer = new int[16];
+    public Salsa20Engine startEncryption(byte[] key, byte[] iv) {
+        return new Salsa20Encrypter(this, key, iv, null);
+    }
 
-            private long counter = 0;
+    /**
+     * starts an engine that encrypts large inputs in parallel on the
+     * {@link ForkJoinPool#commonPool() common pool}, or a serial one if the
+     * common pool has no parallelism
+     *
+     * @param key the key
+     * @param iv  the iv
+     *
+     * @return the engine
+     *
+     * @see #startParallel(byte[], byte[], java.util.concurrent.Executor)
+     */
+    public Salsa20Engine startParallel(byte[] key, byte[] iv) {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallel(key, iv, ForkJoinPool.commonPool()) : startEncryption(key, iv);
+    }
 
-            @Override
-            protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
-                keystreamOneBlock(state, buffer, counter++, rounds, plaintext, pOffset, ciphertext, cOffset);
-            }
+    /**
+     * starts an engine that splits long runs of whole blocks into batches of
+     * consecutive block counters and encrypts them on {@code executor}. Bytes
+     * that don't fill a block are carried across calls exactly like in the
+     * engine of {@link #startEncryption(byte[], byte[])}, and the output is
+     * identical.
+     * <p>
+     * Segments passed to {@code encrypt} must be accessible from the threads
+     * of {@code executor}, i.e. they must not be confined to the calling
+     * thread
+     *
+     * @param key      the key
+     * @param iv       the iv
+     * @param executor the executor to encrypt the blocks on
+     *
+     * @return the engine
+     */
+    public Salsa20Engine startParallel(byte[] key, byte[] iv, Executor executor) {
+        return new Salsa20Encrypter(this, key, iv, Objects.requireNonNull(executor));
+    }
 
-            @Override
-            public Cipher getAlgorithm() {
-                return Salsa20.this;
-            }
-        };
+    /**
+     * encrypts {@code input} with the keystream starting at byte
+     * {@code offset}, i.e. as the part of a message encrypted with
+     * {@code key} and {@code iv} that starts at {@code offset}. The block
+     * counter is set directly, so nothing before {@code offset} is generated.
+     * Encryption and decryption being the same operation, this decrypts any
+     * range of a ciphertext as well; disjoint ranges can be processed
+     * concurrently
+     *
+     * @param key    the key
+     * @param iv     the iv
+     * @param offset the position of {@code input} in the message
+     * @param input  the plaintext or ciphertext
+     * @param output the destination, at least as large as {@code input}
+     *
+     * @return the number of bytes written, i.e. the size of {@code input}
+     */
+    public long encryptAt(byte[] key, byte[] iv, long offset, MemorySegment input, MemorySegment output) {
+        var engine = startEncryption(key, iv);
+        engine.seek(offset);
+        long length = engine.encrypt(input, output);
+        return length + engine.finish(output.asSlice(length));
     }
 
     @Override
@@ -218,4 +282,71 @@ public enum Salsa20 implements StreamCipher {
         return 8;
     }
 
+    /**
+     * A Salsa20 engine with a random access keystream
+     */
+    public static interface Salsa20Engine extends EncryptEngine {
+
+        /**
+         * moves the engine to byte {@code offset} of its keystream. Input
+         * buffered since the last block boundary is discarded, so
+         * {@link #finish} should be called first if it's needed
+         *
+         * @param offset the position of the next byte of input in the message
+         */
+        void seek(long offset);
+
+    }
+
+    private static final class Salsa20Encrypter extends AbstractStreamEncrypter implements Salsa20Engine {
+
+        private final Salsa20 cipher;
+        private final int rounds;
+        private final int[] state, buffer = new int[16];
+        private long counter = 0;
+
+        private final Executor executor;
+
+        private Salsa20Encrypter(Salsa20 cipher, byte[] key, byte[] iv, Executor executor) {
+            super(64);
+            this.cipher = cipher;
+            this.rounds = cipher.rounds;
+            state = expand(key, iv);
+            this.executor = executor;
+        }
+
+        @Override
+        public void seek(long offset) {
+            if (offset < 0) {
+                throw new IllegalArgumentException("Negative offset " + offset);
+            }
+            counter = offset >>> 6;
+            seekInBlock((int) (offset & 63));
+        }
+
+        @Override
+        protected void encryptOneBlock(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset) {
+            keystreamOneBlock(state, buffer, counter++, rounds, plaintext, pOffset, ciphertext, cOffset);
+        }
+
+        @Override
+        protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+            if (CounterBatches.worthSplitting(executor, blocks)) {
+                counter = CounterBatches.encrypt(executor, this::keystream, counter, plaintext, pOffset, ciphertext, cOffset, blocks);
+            } else {
+                counter = keystreamBlocks(state, buffer, counter, rounds, plaintext, pOffset, ciphertext, cOffset, blocks);
+            }
+        }
+
+        //for the batches, which run concurrently and need their own state
+        private void keystream(long counter, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+            keystreamBlocks(state.clone(), new int[16], counter, rounds, plaintext, pOffset, ciphertext, cOffset, blocks);
+        }
+
+        @Override
+        public Cipher getAlgorithm() {
+            return cipher;
+        }
+    }
+
 }
@@ -5,6 +5,9 @@
 package org.asterisk.crypto.stream;
 
 import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.asterisk.crypto.helper.AbstractStreamEncrypter;
 import org.asterisk.crypto.Cipher;
 import org.asterisk.crypto.StreamCipher;
@@ -53,6 +56,46 @@ public enum XChaCha implements StreamCipher {
 
     @Override
     public Cipher.EncryptEngine startEncryption(byte[] key, byte[] iv) {
+        return start(key, iv, null);
+    }
+
+    /**
+     * starts an engine that encrypts large inputs in parallel on the
+     * {@link ForkJoinPool#commonPool() common pool}, or a serial one if the
+     * common pool has no parallelism
+     *
+     * @param key the key
+     * @param iv  the iv
+     *
+     * @return the engine
+     *
+     * @see #startParallel(byte[], byte[], java.util.concurrent.Executor)
+     */
+    public Cipher.EncryptEngine startParallel(byte[] key, byte[] iv) {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? startParallel(key, iv, ForkJoinPool.commonPool()) : startEncryption(key, iv);
+    }
+
+    /**
+     * starts an engine that splits long runs of whole blocks into batches of
+     * consecutive block counters and encrypts them on {@code executor}. The
+     * subkey is derived once, and the output is identical to that of the
+     * engine of {@link #startEncryption(byte[], byte[])}.
+     * <p>
+     * Segments passed to {@code encrypt} must be accessible from the threads
+     * of {@code executor}, i.e. they must not be confined to the calling
+     * thread
+     *
+     * @param key      the key
+     * @param iv       the iv
+     * @param executor the executor to encrypt the blocks on
+     *
+     * @return the engine
+     */
+    public Cipher.EncryptEngine startParallel(byte[] key, byte[] iv, Executor executor) {
+        return start(key, iv, Objects.requireNonNull(executor));
+    }
+
+    private Cipher.EncryptEngine start(byte[] key, byte[] iv, Executor executor) {
         return new AbstractStreamEncrypter(64) {
 
             private final int[] state = expand(key, iv), buffer = new int[16];
@@ -67,6 +110,20 @@ public enum XChaCha implements StreamCipher {
                 counter++;
             }
 
+            @Override
+            protected void encryptBlocks(MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+                if (CounterBatches.worthSplitting(executor, blocks)) {
+                    counter = CounterBatches.encrypt(executor, this::keystream, counter, plaintext, pOffset, ciphertext, cOffset, blocks);
+                } else {
+                    counter = ChaCha.keystreamBlocks(state, buffer, counter, rounds, plaintext, pOffset, ciphertext, cOffset, blocks);
+                }
+            }
+
+            //for the batches, which run concurrently and need their own state
+            private void keystream(long counter, MemorySegment plaintext, long pOffset, MemorySegment ciphertext, long cOffset, long blocks) {
+                ChaCha.keystreamBlocks(state.clone(), new int[16], counter, rounds, plaintext, pOffset, ciphertext, cOffset, blocks);
+            }
+
             @Override
             public Cipher getAlgorithm() {
                 return XChaCha.this;